@@ -0,0 +1,199 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.mt5xx.MT537;
+import com.prowidesoftware.swift.utils.Lib;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Input messages for the benchmarks, the samples in the resources and larger messages and files generated from
+ * them.
+ */
+final class BenchmarkCorpus {
+
+    private static final String RJE_SEPARATOR = "\r\n$\r\n";
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * @return the content of a file in the resources
+     */
+    static String resource(String name) {
+        try {
+            return Lib.readResource(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the sample MT103
+     */
+    static String mt103() {
+        return resource("mt103.txt");
+    }
+
+    /**
+     * @return an MT940 statement with the given number of statement lines
+     */
+    static String mt940(int lines) {
+        StringBuilder fin = new StringBuilder("{1:F01AAAABB99BSMK3513951576}{2:O9400934081223BBBBAA33XXXX03592332770812230834N}{4:\n")
+                .append(":20:0112230000000890\n")
+                .append(":25:SAKG800030155USD\n")
+                .append(":28C:255/1\n")
+                .append(":60F:C011223USD175768,92\n");
+        for (int i = 0; i < lines; i++) {
+            fin.append(":61:0112201223CD110,92NDIVNONREF//08 IL053309\n")
+                    .append("/GB/2542049/SHS/312,\n")
+                    .append(":86:INVOICE NR. ").append(6000012801L + i).append('\n')
+                    .append("ORDPRTY : ABC DO BRASIL LTDA\n");
+        }
+        return fin.append(":62F:C011223USD175768,92\n")
+                .append("-}")
+                .toString();
+    }
+
+    /**
+     * @return an MT942 interim statement of the account with the given number of statement lines
+     */
+    static String mt942(String account, int number, int lines) {
+        StringBuilder fin = new StringBuilder("{1:F01AAAAAEADAXXX0000000000}{2:I942BBBBOMRXXXXXN}{4:\n")
+                .append(":20:REF").append(number).append('\n')
+                .append(":25:").append(account).append('\n')
+                .append(":28C:").append(number).append('\n')
+                .append(":34F:EUR0,\n")
+                .append(":13D:1910200900+0400\n");
+        for (int i = 0; i < lines; i++) {
+            fin.append(":61:191020").append(i % 3 == 0 ? 'D' : 'C').append(1000 + i).append(",5").append(i % 10)
+                    .append("NTRFMT101 260310//0326132225123478\n")
+                    .append(":86:INVOICE NR. ").append(6000012801L + i).append('\n');
+        }
+        return fin.append("-}").toString();
+    }
+
+    /**
+     * @return the sample MT537 with its sequences D repeated to scale the message
+     */
+    static String mt537(int scale) {
+        MT537 mt = MT537.parse(resource("MT537_large.fin"));
+        if (scale <= 1) {
+            return mt.message();
+        }
+        SwiftBlock4 block4 = new SwiftBlock4();
+        block4.append(mt.getSequenceA());
+        mt.getSequenceBList().forEach(block4::append);
+        mt.getSequenceCList().forEach(block4::append);
+        for (int i = 0; i < scale; i++) {
+            mt.getSequenceDList().forEach(block4::append);
+        }
+        mt.getSequenceEList().forEach(block4::append);
+        SwiftMessage sm = new SwiftMessage(false);
+        sm.setBlock1(mt.getSwiftMessage().getBlock1());
+        sm.setBlock2(mt.getSwiftMessage().getBlock2());
+        sm.setBlock3(mt.getSwiftMessage().getBlock3());
+        sm.setBlock4(block4);
+        return sm.message();
+    }
+
+    /**
+     * @return the sample MT798 with an MT760 payload, where field 45L is repeated to scale the payload
+     */
+    static String mt798(int scale) {
+        StringBuilder details = new StringBuilder();
+        for (int i = 1; i < scale; i++) {
+            details.append(":45L:Some details\n").append("about the underlying tx ").append(i).append('\n');
+        }
+        String fin = mt798();
+        int at = fin.indexOf(":24E:");
+        return fin.substring(0, at) + details + fin.substring(at);
+    }
+
+    /**
+     * @return an MT798 envelope with an MT760 sub-message, as in {@link ParseMT798Example}
+     */
+    static String mt798() {
+        return "{1:F01AAAADEM0AXXX0000000000}{2:I798BBBBITRRXMCEN2020}{4:\n" +
+                ":20:12345\n" +
+                ":12:760\n" +
+                ":77E:\n" +
+                ":27A:2/2\n" +
+                ":21A:2201091711320000\n" +
+                ":15A:\n" +
+                ":27:1/1\n" +
+                ":22A:ISSU\n" +
+                ":15B:\n" +
+                ":20:Bla Blah\n" +
+                ":30:250109\n" +
+                ":22D:DGAR\n" +
+                ":40C:ISPR\n" +
+                ":23B:FIXD\n" +
+                ":31E:250109\n" +
+                ":35G:If things happen\n" +
+                ":50:Mr. App\n" +
+                "This Way\n" +
+                "Our City\n" +
+                ":51:Mr. Obligor\n" +
+                "His stay\n" +
+                ":52D:Mr. Issue\n" +
+                ":59:Mr. Bene\n" +
+                "In Road\n" +
+                ":56A:ANLAITRRMFE\n" +
+                ":32B:USD23456789,\n" +
+                ":77U:Terms and conditions\n" +
+                "have been defined\n" +
+                ":45L:Some details\n" +
+                "about the underlying tx\n" +
+                ":24E:MAIL\n" +
+                ":24G:OTHR\n" +
+                "Foobar\n" +
+                "-}";
+    }
+
+    /**
+     * Creates a temporary RJE file, deleted on exit, with copies of the sample MT103.
+     *
+     * @param messages number of messages in the file
+     * @return the created file
+     */
+    static File rje(int messages) {
+        try {
+            File file = File.createTempFile("corpus", ".rje");
+            file.deleteOnExit();
+            String mt103 = mt103().trim();
+            StringBuilder content = new StringBuilder(messages * (mt103.length() + RJE_SEPARATOR.length()));
+            for (int i = 0; i < messages; i++) {
+                if (i > 0) {
+                    content.append(RJE_SEPARATOR);
+                }
+                content.append(mt103);
+            }
+            Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
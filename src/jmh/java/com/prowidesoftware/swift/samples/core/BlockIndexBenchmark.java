@@ -0,0 +1,108 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field95P;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of tag and field lookups by name, number and qualifier, as done to enrich a statement, over the first tags
+ * of the sample MT537 with a plain {@link SwiftBlock4} and an {@link IndexedSwiftBlock4}, where the index is
+ * already built, is built by the lookups, or is rebuilt after a change in the block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockIndexBenchmark {
+
+    private static final String[] NAMES = {"16R", "20C", "22F", "22H", "35B", "69A", "93B", "97A", "98A", "99A"};
+    private static final int[] NUMBERS = {16, 19, 20, 95, 98};
+    private static final String[][] QUALIFIERS = {
+            {"20C", "PREF"}, {"22F", "TRCA"}, {"22H", "CALM"}, {Field95P.NAME, "ASDP"}, {Field95P.NAME, "REPA"},
+            {"97A", "CASH"}, {"98A", "PEDA"}, {"98a", "DACO"}, {"19A", "AMCO"}};
+
+    @Param({"300"})
+    public int tags;
+
+    private SwiftBlock4 plain;
+    private IndexedSwiftBlock4 indexed;
+    private List<Tag> list;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Tag> all = SwiftMessage.parse(BenchmarkCorpus.mt537(1)).getBlock4().getTags();
+        list = new ArrayList<>(all.subList(0, Math.min(tags, all.size())));
+        plain = new SwiftBlock4(new ArrayList<>(list));
+        indexed = new IndexedSwiftBlock4(list);
+    }
+
+    @Benchmark
+    public void swiftBlock4(Blackhole bh) {
+        lookups(plain, bh);
+    }
+
+    @Benchmark
+    public void indexedSwiftBlock4(Blackhole bh) {
+        lookups(indexed, bh);
+    }
+
+    @Benchmark
+    public void indexedSwiftBlock4Created(Blackhole bh) {
+        lookups(new IndexedSwiftBlock4(list), bh);
+    }
+
+    @Benchmark
+    public void indexedSwiftBlock4Changed(Blackhole bh) {
+        indexed.getTags().add(indexed.getTags().remove(0));
+        lookups(indexed, bh);
+    }
+
+    private static void lookups(SwiftBlock4 block4, Blackhole bh) {
+        for (String name : NAMES) {
+            bh.consume(block4.getTagByName(name));
+            bh.consume(block4.getTagsByName(name));
+        }
+        for (int number : NUMBERS) {
+            bh.consume(block4.getTagByNumber(number));
+        }
+        for (String[] qualifier : QUALIFIERS) {
+            bh.consume(block4.getFieldsByName(qualifier[0], qualifier[1]));
+        }
+    }
+
+}
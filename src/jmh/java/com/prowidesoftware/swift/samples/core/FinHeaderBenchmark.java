@@ -0,0 +1,95 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.utils.Lib;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the routing information read with {@link FinHeader} against a full {@link SwiftMessage} parse and a
+ * {@link LazySwiftMessage} parse, for the sample messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FinHeaderBenchmark {
+
+    @Param({"system.txt", "mt103.txt", "MT537_large.fin"})
+    public String resource;
+
+    private String fin;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        fin = Lib.readResource(resource);
+        bytes = fin.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void finHeader(Blackhole bh) {
+        FinHeader header = FinHeader.parse(fin);
+        consume(bh, header.getSender(), header.getReceiver(), header.getType(), header.isOutput(), header.isStp(), header.isAck(), header.isNack());
+    }
+
+    @Benchmark
+    public void finHeaderBytes(Blackhole bh) {
+        FinHeader header = FinHeader.parse(bytes, 0, bytes.length);
+        consume(bh, header.getSender(), header.getReceiver(), header.getType(), header.isOutput(), header.isStp(), header.isAck(), header.isNack());
+    }
+
+    @Benchmark
+    public void lazySwiftMessage(Blackhole bh) throws IOException {
+        SwiftMessage sm = LazySwiftMessage.parse(fin);
+        consume(bh, sm.getSender(), sm.getReceiver(), sm.getType(), sm.isOutput(), sm.isSTP(), false, false);
+    }
+
+    @Benchmark
+    public void swiftMessage(Blackhole bh) throws IOException {
+        SwiftMessage sm = SwiftMessage.parse(fin);
+        consume(bh, sm.getSender(), sm.getReceiver(), sm.getType(), sm.isOutput(), sm.isSTP(), sm.isAck(), sm.isNack());
+    }
+
+    private static void consume(Blackhole bh, String sender, String receiver, String type, boolean output, boolean stp, boolean ack, boolean nack) {
+        bh.consume(sender);
+        bh.consume(receiver);
+        bh.consume(type);
+        bh.consume(output);
+        bh.consume(stp);
+        bh.consume(ack);
+        bh.consume(nack);
+    }
+
+}
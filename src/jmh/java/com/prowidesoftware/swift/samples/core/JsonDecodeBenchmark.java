@@ -0,0 +1,112 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the JSON of a parsed MT103 with {@link SwiftMessage#fromJson(String)} and {@link JsonMessageDecoder},
+ * and conversion of an NDJSON file created from a generated RJE file back into RJE, where each operation converts
+ * the whole file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDecodeBenchmark {
+
+    @Param({"10000"})
+    public int messages;
+
+    private String json;
+    private final JsonMessageDecoder decoder = new JsonMessageDecoder();
+    private final StringBuilder fin = new StringBuilder();
+    private File input;
+    private File output;
+
+    @Setup
+    public void setup() throws IOException {
+        json = SwiftMessage.parse(BenchmarkCorpus.mt103()).toJson();
+        File rje = BenchmarkCorpus.rje(messages);
+        input = File.createTempFile("input", ".ndjson");
+        input.deleteOnExit();
+        new RJEToNDJSONConverter().convert(rje, input);
+        rje.delete();
+        output = File.createTempFile("output", ".rje");
+        output.deleteOnExit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public String fromJson() {
+        return SwiftMessage.fromJson(json).message();
+    }
+
+    @Benchmark
+    public SwiftMessage decode() {
+        return decoder.decode(json);
+    }
+
+    @Benchmark
+    public StringBuilder appendFin() {
+        fin.setLength(0);
+        decoder.appendFin(json, fin);
+        return fin;
+    }
+
+    @Benchmark
+    public void convertFromJson() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input.toPath(), StandardCharsets.UTF_8);
+             BufferedRJEWriter writer = new BufferedRJEWriter(output)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                writer.write(SwiftMessage.fromJson(line).message());
+            }
+        }
+    }
+
+    @Benchmark
+    public long convertNDJSONToRJEConverter() throws IOException {
+        return new NDJSONToRJEConverter().convert(input, output);
+    }
+
+}
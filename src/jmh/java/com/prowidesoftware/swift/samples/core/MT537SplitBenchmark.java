@@ -0,0 +1,111 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftTagListBlock;
+import com.prowidesoftware.swift.model.mt.mt5xx.MT537;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split of the sample MT537 with its sequences D repeated by the scale factor, with {@link MT537Splitter} against
+ * the approach previously used in {@link SplitMT537Message}, that parsed and serialized the partial message for
+ * every sequence appended in order to check its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MT537SplitBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private MT537 mt537;
+    private final MT537Splitter splitter = new MT537Splitter();
+
+    @Setup
+    public void setup() {
+        mt537 = MT537.parse(BenchmarkCorpus.mt537(scale));
+    }
+
+    @Benchmark
+    public List<MT537> split() {
+        return splitter.split(mt537);
+    }
+
+    @Benchmark
+    public List<MT537> legacySplit() {
+        List<MT537> messages = new ArrayList<>();
+        MT537 current = legacyCopyCommonContent(mt537);
+        mt537.getSequenceBList().forEach(current::append);
+        mt537.getSequenceCList().forEach(current::append);
+        for (MT537.SequenceD seqD : mt537.getSequenceDList()) {
+            if (!legacyCanAppend(current, seqD)) {
+                messages.add(current);
+                current = legacyCopyCommonContent(mt537);
+            }
+            current.append(seqD);
+        }
+        for (MT537.SequenceE seqE : mt537.getSequenceEList()) {
+            if (!legacyCanAppend(current, seqE)) {
+                messages.add(current);
+                current = legacyCopyCommonContent(mt537);
+            }
+            current.append(seqE);
+        }
+        messages.add(current);
+        return messages;
+    }
+
+    /*
+     * Previous implementation of the split, kept as baseline for the comparison
+     */
+
+    private static boolean legacyCanAppend(MT537 current, SwiftTagListBlock sequence) {
+        MT537 copyOfCurrent = MT537.parse(current.message());
+        copyOfCurrent.append(sequence);
+        return copyOfCurrent.message().length() <= MT537Splitter.DEFAULT_MAX_LENGTH;
+    }
+
+    private static MT537 legacyCopyCommonContent(MT537 original) {
+        MT537 mt = new MT537();
+        mt.getSwiftMessage().setBlock1(original.getSwiftMessage().getBlock1());
+        mt.getSwiftMessage().setBlock2(original.getSwiftMessage().getBlock2());
+        mt.getSwiftMessage().setBlock3(original.getSwiftMessage().getBlock3());
+        mt.getSwiftMessage().setBlock5(original.getSwiftMessage().getBlock5());
+        mt.getSwiftMessage().setBlock4(new SwiftBlock4());
+        mt.getSwiftMessage().getBlock4().append(original.getSequenceA());
+        return MT537.parse(mt.message());
+    }
+
+}
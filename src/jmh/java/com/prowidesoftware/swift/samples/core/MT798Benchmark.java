@@ -0,0 +1,79 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction of the sub-message of an MT798 envelope, copying its tags as in {@link MT798#getSubMessage()}, against
+ * the {@link MT798View} backed by the envelope tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MT798Benchmark {
+
+    @Param({"1", "100"})
+    public int scale;
+
+    private String fin;
+    private MT798 mt798;
+
+    @Setup
+    public void setup() {
+        fin = BenchmarkCorpus.mt798(scale);
+        mt798 = MT798.parse(fin);
+    }
+
+    @Benchmark
+    public SwiftMessage subMessage() {
+        return mt798.getSubMessage();
+    }
+
+    @Benchmark
+    public AbstractMT parseSubMessageMT() {
+        return MT798.parse(fin).getSubMessage().toMT();
+    }
+
+    @Benchmark
+    public SwiftMessage subMessageView() {
+        return new MT798View(mt798).getSubMessage();
+    }
+
+    @Benchmark
+    public AbstractMT parseSubMessageViewMT() {
+        return MT798View.parse(fin).getSubMessageMT();
+    }
+
+}
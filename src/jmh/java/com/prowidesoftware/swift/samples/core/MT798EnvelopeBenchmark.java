@@ -0,0 +1,82 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.field.Field12;
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field77E;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wrapping of an MT760 into an MT798 envelope and its FIN serialization, with the model API as in
+ * {@link MessageCreationMT798Example} against the {@link MT798EnvelopeBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MT798EnvelopeBenchmark {
+
+    @Param({"1", "100"})
+    public int scale;
+
+    private AbstractMT subMessage;
+    private final MT798EnvelopeBuilder builder = new MT798EnvelopeBuilder(mt -> "1234");
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        subMessage = MT798.parse(BenchmarkCorpus.mt798(scale)).getSubMessage().toMT();
+    }
+
+    @Benchmark
+    public String modelApi() {
+        MT798 mt798 = new MT798(subMessage.getSender(), subMessage.getReceiver());
+        mt798.append(Field20.tag("1234"))
+                .append(Field12.tag(subMessage.getMessageType()))
+                .append(Field77E.emptyTag());
+        subMessage.getSwiftMessage().getBlock4().getTags().forEach(t -> mt798.append(t));
+        return mt798.message();
+    }
+
+    @Benchmark
+    public String envelopeBuilder() {
+        return builder.build(subMessage);
+    }
+
+    @Benchmark
+    public int envelopeBuilderBuffer() {
+        buffer.setLength(0);
+        return builder.append(subMessage, buffer).length();
+    }
+
+}
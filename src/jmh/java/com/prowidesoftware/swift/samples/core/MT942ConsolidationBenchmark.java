@@ -0,0 +1,137 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.field.Field;
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field25;
+import com.prowidesoftware.swift.model.field.Field28C;
+import com.prowidesoftware.swift.model.field.Field60F;
+import com.prowidesoftware.swift.model.field.Field61;
+import com.prowidesoftware.swift.model.field.Field62F;
+import com.prowidesoftware.swift.model.field.Field86;
+import com.prowidesoftware.swift.model.mt.mt9xx.MT940;
+import com.prowidesoftware.swift.model.mt.mt9xx.MT942;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consolidates interleaved MT942 of several accounts into paginated MT940, holding the parsed MT942 per account and
+ * computing the balance with BigDecimal as in {@link MessageCreationMT942ToMT940Example} and paginating with the
+ * {@link MessagePaginator}, against the {@link MT942Consolidator} with one and four threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MT942ConsolidationBenchmark {
+
+    @Param({"1000"})
+    public int statements;
+
+    @Param({"16"})
+    public int accounts;
+
+    private static final int LINES = 10;
+    private static final int MAX_LENGTH = 2000;
+
+    private final List<String> mt942 = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < statements; i++) {
+            mt942.add(BenchmarkCorpus.mt942("ACCOUNT" + i % accounts, i / accounts + 1, LINES));
+        }
+    }
+
+    @Benchmark
+    public void parsedStatements(Blackhole bh) {
+        Map<String, List<MT942>> byAccount = new LinkedHashMap<>();
+        for (String fin : mt942) {
+            MT942 mt = MT942.parse(fin);
+            byAccount.computeIfAbsent(mt.getField25().getValue(), k -> new ArrayList<>()).add(mt);
+        }
+        MessagePaginator paginator = MessagePaginator.mt940().setMaxLength(MAX_LENGTH);
+        for (List<MT942> interim : byAccount.values()) {
+            MT940 mt = new MT940(interim.get(0).getSender(), interim.get(0).getReceiver());
+            mt.append(new Field20(interim.get(0).getField20().getValue()));
+            mt.append(new Field25(interim.get(0).getField25().getValue()));
+            mt.append(new Field28C("1/1"));
+            BigDecimal balance = new BigDecimal("10000.00");
+            mt.append(new Field60F().setDCMark("C").setDate("191020").setCurrency("EUR").setAmount(balance));
+            for (MT942 statement : interim) {
+                List<Field> fields = statement.getFields();
+                for (int i = 0; i < fields.size(); i++) {
+                    if (Field61.NAME.equals(fields.get(i).getName())) {
+                        Field61 field61 = (Field61) fields.get(i);
+                        mt.append(new Field61(field61.getValue()));
+                        if (i + 1 < fields.size() && Field86.NAME.equals(fields.get(i + 1).getName())) {
+                            mt.append(new Field86(fields.get(i + 1).getValue()));
+                            i++;
+                        }
+                        if ("D".equals(field61.getDCMark()) || "RC".equals(field61.getDCMark())) {
+                            balance = balance.subtract((BigDecimal) field61.getAmountAsNumber());
+                        } else {
+                            balance = balance.add((BigDecimal) field61.getAmountAsNumber());
+                        }
+                    }
+                }
+            }
+            mt.append(new Field62F().setDCMark("C").setDate("191020").setCurrency("EUR").setAmount(balance));
+            for (SwiftMessage page : paginator.paginate(mt)) {
+                bh.consume(page.message());
+            }
+        }
+    }
+
+    @Benchmark
+    public void consolidator(Blackhole bh) throws InterruptedException {
+        consolidate(bh, 1);
+    }
+
+    @Benchmark
+    public void consolidatorFourThreads(Blackhole bh) throws InterruptedException {
+        consolidate(bh, 4);
+    }
+
+    private void consolidate(Blackhole bh, int threads) throws InterruptedException {
+        new MT942Consolidator(account -> "C191020EUR10000,00")
+                .setMaxLength(MAX_LENGTH)
+                .setThreads(threads)
+                .consolidate(mt942.iterator(), page -> bh.consume(page.length()));
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field23B;
+import com.prowidesoftware.swift.model.field.Field32A;
+import com.prowidesoftware.swift.model.field.Field50A;
+import com.prowidesoftware.swift.model.field.Field59;
+import com.prowidesoftware.swift.model.field.Field71A;
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation and FIN serialization of an MT103 with the model API as in {@link MessageCreation1Example}, against a
+ * pooled {@link ReusableMessage} refilled in place as in {@link MessageCreationReusableExample}, and a
+ * {@link FinTemplate} as in {@link MessageCreationTemplateExample}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCreationBenchmark {
+
+    private static final String UETR = "4ea37e81-98ec-4014-b7a4-1ff4611b3fca";
+
+    private final ReusableMessage.Pool pool = new ReusableMessage.Pool(template());
+    private final StringBuilder buffer = new StringBuilder();
+    private final FinTemplate.Writer writer = compiledTemplate().writer();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private int sequence;
+
+    private static MT103 template() {
+        MT103 m = new MT103();
+        m.setSender("FOOSEDR0AXXX");
+        m.setReceiver("FOORECV0XXXX");
+        m.addField(new Field20("REFERENCE"));
+        m.addField(new Field23B("CRED"));
+        m.addField(new Field32A("141031EUR0,"));
+        m.addField(new Field50A().setAccount("12345678901234567890").setBIC("FOOBANKXXXXX"));
+        m.addField(new Field59().setAccount("ACCOUNT").setNameAndAddress("NAME"));
+        m.addField(new Field71A("OUR"));
+        return m;
+    }
+
+    private static FinTemplate compiledTemplate() {
+        MT103 m = new MT103("FOOSEDR0AXXX", "FOORECV0XXXX");
+        m.getSwiftMessage().setUETR("${uetr}");
+        m.append(Field20.tag("${reference}"));
+        m.append(Field23B.tag("CRED"));
+        m.append(Field32A.tag("141031EUR${amount}"));
+        m.append(Field50A.tag("/12345678901234567890\nFOOBANKXXXXX"));
+        m.append(Field59.tag("/${account}\n${name}"));
+        m.append(Field71A.tag("OUR"));
+        return new FinTemplate(m);
+    }
+
+    @Benchmark
+    public String modelApi() {
+        MT103 m = new MT103();
+        m.setSender("FOOSEDR0AXXX");
+        m.setReceiver("FOORECV0XXXX");
+        m.getSwiftMessage().setUETR(UETR);
+        m.addField(new Field20("REFERENCE" + (sequence++ & 0xFF)));
+        m.addField(new Field23B("CRED"));
+        m.addField(new Field32A().setDate("141031").setCurrency("EUR").setAmount("1234567,89"));
+        m.addField(new Field50A().setAccount("12345678901234567890").setBIC("FOOBANKXXXXX"));
+        m.addField(new Field59().setAccount("12345678901234567890").setNameAndAddressLine1("JOE DOE"));
+        m.addField(new Field71A("OUR"));
+        return m.message();
+    }
+
+    @Benchmark
+    public String reusableMessage() {
+        try (ReusableMessage m = pool.acquire()) {
+            m.setUETR(UETR).set(0, "REFERENCE" + (sequence++ & 0xFF));
+            m.<Field32A>field(2).setAmount("1234567,89");
+            m.<Field59>field(4).setAccount("12345678901234567890").setNameAndAddressLine1("JOE DOE");
+            return m.message();
+        }
+    }
+
+    @Benchmark
+    public int reusableMessageBuffer() {
+        try (ReusableMessage m = pool.acquire()) {
+            m.setUETR(UETR).set(0, "REFERENCE" + (sequence++ & 0xFF));
+            m.<Field32A>field(2).setAmount("1234567,89");
+            m.<Field59>field(4).setAccount("12345678901234567890").setNameAndAddressLine1("JOE DOE");
+            buffer.setLength(0);
+            return m.appendTo(buffer).length();
+        }
+    }
+
+    @Benchmark
+    public String finTemplate() {
+        writer.set(0, UETR).set(1, "REFERENCE" + (sequence++ & 0xFF))
+                .setAmount(2, 123456789, 2)
+                .set(3, "12345678901234567890")
+                .set(4, "JOE DOE");
+        return writer.toString();
+    }
+
+    @Benchmark
+    public int finTemplateStream() throws IOException {
+        writer.set(0, UETR).set(1, "REFERENCE" + (sequence++ & 0xFF))
+                .setAmount(2, 123456789, 2)
+                .set(3, "12345678901234567890")
+                .set(4, "JOE DOE");
+        out.reset();
+        writer.writeTo(out);
+        return out.size();
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.ConversionService;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse, FIN serialization, XML and JSON conversion of the sample MT103, a generated MT940 with 100 statement lines
+ * and the sample MT537.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageParsingBenchmark {
+
+    @Param({"MT103", "MT940", "MT537"})
+    public String type;
+
+    private String fin;
+    private SwiftMessage message;
+    private final ConversionService conversionService = new ConversionService();
+
+    @Setup
+    public void setup() throws IOException {
+        switch (type) {
+            case "MT103":
+                fin = BenchmarkCorpus.mt103();
+                break;
+            case "MT940":
+                fin = BenchmarkCorpus.mt940(100);
+                break;
+            default:
+                fin = BenchmarkCorpus.mt537(1);
+        }
+        message = SwiftMessage.parse(fin);
+    }
+
+    @Benchmark
+    public SwiftMessage parse() throws IOException {
+        return SwiftMessage.parse(fin);
+    }
+
+    @Benchmark
+    public AbstractMT parseMT() throws IOException {
+        return AbstractMT.parse(fin);
+    }
+
+    @Benchmark
+    public String message() {
+        return message.message();
+    }
+
+    @Benchmark
+    public String xml() {
+        return conversionService.getXml(message);
+    }
+
+    @Benchmark
+    public String json() {
+        return message.toJson();
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a parsed MT103 with {@link SwiftMessage#toJson()} and {@link NDJSONWriter}, and conversion
+ * of a generated RJE file into NDJSON, where each operation converts the whole file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NDJSONBenchmark {
+
+    @Param({"10000"})
+    public int messages;
+
+    private SwiftMessage msg;
+    private final StringBuilder line = new StringBuilder();
+    private File input;
+    private File output;
+
+    @Setup
+    public void setup() throws IOException {
+        msg = SwiftMessage.parse(BenchmarkCorpus.mt103());
+        input = BenchmarkCorpus.rje(messages);
+        output = File.createTempFile("output", ".ndjson");
+        output.deleteOnExit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public String toJson() {
+        return msg.toJson();
+    }
+
+    @Benchmark
+    public StringBuilder appendJson() {
+        line.setLength(0);
+        NDJSONWriter.appendJson(msg, line);
+        return line;
+    }
+
+    @Benchmark
+    public void convertToJson() throws IOException {
+        try (MappedRJEReader reader = new MappedRJEReader(input);
+             Writer writer = new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8)) {
+            for (MessageSlice slice : reader) {
+                writer.write(slice.toSwiftMessage().toJson());
+                writer.write('\n');
+            }
+        }
+    }
+
+    @Benchmark
+    public long convertNDJSONWriter() throws IOException {
+        try (MappedRJEReader reader = new MappedRJEReader(input);
+             NDJSONWriter writer = new NDJSONWriter(new FileOutputStream(output))) {
+            return writer.writeAll(reader.iterator());
+        }
+    }
+
+    @Benchmark
+    public long convertRJEToNDJSONConverter() throws IOException {
+        return new RJEToNDJSONConverter().convert(input, output);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.RJEReader;
+import com.prowidesoftware.swift.io.RJEWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and write of a generated RJE file, each operation reads or writes the whole file.
+ * <p>
+ * The read benchmarks split the file without parsing the messages, the write benchmarks write the FIN content of
+ * the messages without serializing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RJEBenchmark {
+
+    @Param({"10000"})
+    public int messages;
+
+    private File input;
+    private File output;
+    private String fin;
+
+    @Setup
+    public void setup() throws IOException {
+        input = BenchmarkCorpus.rje(messages);
+        output = File.createTempFile("output", ".rje");
+        output.deleteOnExit();
+        fin = BenchmarkCorpus.mt103().trim();
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public void readRJEReader(Blackhole bh) throws IOException {
+        try (Reader in = Files.newBufferedReader(input.toPath(), StandardCharsets.UTF_8)) {
+            RJEReader reader = new RJEReader(in);
+            while (reader.hasNext()) {
+                bh.consume(reader.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void readMappedRJEReader(Blackhole bh) throws IOException {
+        try (MappedRJEReader reader = new MappedRJEReader(input)) {
+            while (reader.hasNext()) {
+                bh.consume(reader.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeRJEWriter() throws IOException {
+        RJEWriter writer = new RJEWriter(output);
+        try {
+            for (int i = 0; i < messages; i++) {
+                writer.write(fin);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Benchmark
+    public void writeBufferedRJEWriter() throws IOException {
+        try (BufferedRJEWriter writer = new BufferedRJEWriter(output).setFsyncPolicy(BufferedRJEWriter.FsyncPolicy.NONE)) {
+            for (int i = 0; i < messages; i++) {
+                writer.write(fin);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.mt5xx.MT537;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrieval of the sequences B, C, D, D1 and E of an MT537 with the sequence getters, with a new
+ * {@link SequenceIndex} and with the cached index of an {@link IndexedSwiftBlock4}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceIndexBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private MT537 mt537;
+    private IndexedSwiftBlock4 indexed;
+
+    @Setup
+    public void setup() throws IOException {
+        mt537 = MT537.parse(BenchmarkCorpus.mt537(scale));
+        SwiftMessage copy = SwiftMessage.parse(mt537.message());
+        indexed = IndexedSwiftBlock4.index(copy);
+    }
+
+    @Benchmark
+    public void sequenceGetters(Blackhole bh) {
+        bh.consume(mt537.getSequenceBList());
+        bh.consume(mt537.getSequenceCList());
+        bh.consume(mt537.getSequenceDList());
+        bh.consume(mt537.getSequenceD1List());
+        bh.consume(mt537.getSequenceEList());
+    }
+
+    @Benchmark
+    public void sequenceIndex(Blackhole bh) {
+        lookups(SequenceIndex.of(mt537.getSwiftMessage().getBlock4()), bh);
+    }
+
+    @Benchmark
+    public void cachedSequenceIndex(Blackhole bh) {
+        lookups(indexed.getSequenceIndex(), bh);
+    }
+
+    private static void lookups(SequenceIndex index, Blackhole bh) {
+        bh.consume(index.getSequencesByPath(MT537.SequenceB.START_END_16RS));
+        bh.consume(index.getSequencesByPath(MT537.SequenceC.START_END_16RS));
+        bh.consume(index.getSequencesByPath(MT537.SequenceD.START_END_16RS));
+        bh.consume(index.getSequencesByPath(MT537.SequenceD.START_END_16RS, MT537.SequenceD1.START_END_16RS));
+        bh.consume(index.getSequencesByPath(MT537.SequenceE.START_END_16RS));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field61;
+import com.prowidesoftware.swift.model.mt.mt9xx.MT940;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the amount, transaction type, references and field 86 of every statement line of an MT940, parsing the
+ * message and each field 61 as in {@link ParseMT940TransactionsExample}, against a {@link StatementLineCursor}
+ * over the same content.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementLineBenchmark {
+
+    @Param({"100"})
+    public int lines;
+
+    private String fin;
+    private final StatementLineCursor cursor = new StatementLineCursor("");
+
+    @Setup
+    public void setup() {
+        fin = BenchmarkCorpus.mt940(lines);
+    }
+
+    @Benchmark
+    public void field61(Blackhole bh) {
+        List<Tag> tags = MT940.parse(fin).getSwiftMessage().getBlock4().getTags();
+        for (int i = 0; i < tags.size(); i++) {
+            Tag t = tags.get(i);
+            if (t.getName().equals("61")) {
+                Field61 tx = (Field61) t.asField();
+                bh.consume(tx.getComponent(Field61.AMOUNT));
+                bh.consume(tx.getComponent(Field61.TRANSACTION_TYPE));
+                bh.consume(tx.getComponent(Field61.IDENTIFICATION_CODE));
+                bh.consume(tx.getComponent(Field61.REFERENCE_FOR_THE_ACCOUNT_OWNER));
+                bh.consume(tx.getComponent(Field61.REFERENCE_OF_THE_ACCOUNT_SERVICING_INSTITUTION));
+                if (i + 1 < tags.size() && tags.get(i + 1).getName().equals("86")) {
+                    bh.consume(tags.get(i + 1).getValue());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void statementLineCursor(Blackhole bh) {
+        cursor.reset(fin);
+        while (cursor.next()) {
+            bh.consume(cursor.getAmountUnscaled());
+            bh.consume(cursor.getAmountScale());
+            bh.consume(cursor.getTransactionType().charAt(0));
+            bh.consume(cursor.getIdentificationCode().length());
+            bh.consume(cursor.getReferenceForTheAccountOwner().length());
+            bh.consume(cursor.getReferenceOfTheAccountServicingInstitution().length());
+            bh.consume(cursor.getInformationToAccountOwner().length());
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts the block 4 tags of an unsorted MT202, the one in {@link MT202SortTagsExample}, and of an MT103 with its
+ * tags reversed, with the structure description parsed on each call and the tags searched in the list as in the
+ * original example, against a cached {@link TagOrderSchema}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagSortBenchmark {
+
+    @Param({"202", "103"})
+    public String type;
+
+    private List<String> structure;
+    private List<Tag> tags;
+
+    @Setup
+    public void setup() throws IOException {
+        structure = TagOrderSchema.structure(type);
+        if ("202".equals(type)) {
+            tags = SwiftMessage.parse(MT202SortTagsExample.unsortedFin).getBlock4().getTags();
+        } else {
+            tags = new ArrayList<>(SwiftMessage.parse(BenchmarkCorpus.mt103()).getBlock4().getTags());
+            Collections.reverse(tags);
+        }
+    }
+
+    @Benchmark
+    public List<Tag> structureSearch() {
+        return sortTags(new ArrayList<>(tags));
+    }
+
+    @Benchmark
+    public List<Tag> tagOrderSchema() {
+        return TagOrderSchema.of(type).sort(tags);
+    }
+
+    private List<Tag> sortTags(List<Tag> tags) {
+        List<Tag> sortedTags = new ArrayList<>();
+        for (String fieldDesc : structure) {
+            String[] parts = fieldDesc.split(";");
+            String fieldName = parts[0];
+            boolean isRepetitiveField = "R".equals(parts[1]);
+            String[] fieldLetterOptions = (parts.length > 2) ? parts[2].split(",") : null;
+
+            Tag currentTag;
+            do {
+                currentTag = getTag(tags, fieldName, fieldLetterOptions);
+                if (currentTag != null) sortedTags.add(currentTag);
+            } while (isRepetitiveField && currentTag != null);
+        }
+        return sortedTags;
+    }
+
+    private static Tag getTag(List<Tag> tags, String fieldName, String[] fieldLetterOptions) {
+        if (fieldLetterOptions != null) {
+            for (String letterOpt : fieldLetterOptions) {
+                Optional<Tag> tagOpt = tags.stream().filter(tag -> tag.getName().equals(fieldName + letterOpt)).findFirst();
+                if (tagOpt.isPresent()) {
+                    tags.remove(tagOpt.get());
+                    return tagOpt.get();
+                }
+            }
+        } else {
+            Optional<Tag> tagOpt = tags.stream().filter(tag -> tag.getName().equals(fieldName)).findFirst();
+            if (tagOpt.isPresent()) {
+                tags.remove(tagOpt.get());
+                return tagOpt.get();
+            }
+        }
+        return null;
+    }
+
+}
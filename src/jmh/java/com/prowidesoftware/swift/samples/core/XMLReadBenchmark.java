@@ -0,0 +1,126 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.ConversionService;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of the XML representation back into messages with {@link ConversionService#getMessageFromXML(String)}
+ * and {@link MessageXMLReader}, for a single MT103 and for a document with the messages of a generated RJE file,
+ * in both the tag and the field flavours.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XMLReadBenchmark {
+
+    @Param({"10000"})
+    public int messages;
+
+    @Param({"false", "true"})
+    public boolean useField;
+
+    private final ConversionService srv = new ConversionService();
+    private String xml;
+    private List<String> xmls;
+    private File document;
+
+    @Setup
+    public void setup() throws IOException {
+        xml = srv.getXml(SwiftMessage.parse(BenchmarkCorpus.mt103()), useField);
+        File rje = BenchmarkCorpus.rje(messages);
+        document = File.createTempFile("messages", ".xml");
+        document.deleteOnExit();
+        xmls = new ArrayList<>(messages);
+        try (MappedRJEReader reader = new MappedRJEReader(rje);
+             MessageXMLWriter writer = new MessageXMLWriter(new FileOutputStream(document)).setUseField(useField)) {
+            for (MessageSlice slice : reader) {
+                SwiftMessage message = slice.toSwiftMessage();
+                writer.write(message);
+                xmls.add(srv.getXml(message, useField));
+            }
+        }
+        rje.delete();
+    }
+
+    @TearDown
+    public void tearDown() {
+        document.delete();
+    }
+
+    @Benchmark
+    public SwiftMessage getMessageFromXML() {
+        return srv.getMessageFromXML(xml);
+    }
+
+    @Benchmark
+    public SwiftMessage messageXMLReader() throws IOException {
+        try (MessageXMLReader reader = new MessageXMLReader(new StringReader(xml))) {
+            return reader.nextSwiftMessage();
+        }
+    }
+
+    /**
+     * The DOM parser reads one message per document, so each message is parsed from its own XML
+     */
+    @Benchmark
+    public int readAllGetMessageFromXML() {
+        int count = 0;
+        for (String s : xmls) {
+            if (srv.getMessageFromXML(s) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long readAllMessageXMLReader() throws IOException {
+        try (MessageXMLReader reader = new MessageXMLReader(new BufferedInputStream(new FileInputStream(document), 64 * 1024))) {
+            while (reader.nextSwiftMessage() != null) {
+                // consume
+            }
+            return reader.getCount();
+        }
+    }
+
+}
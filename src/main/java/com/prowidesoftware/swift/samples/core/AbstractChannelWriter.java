@@ -0,0 +1,252 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Base class for writers of multi-message files, that encode the messages into a reusable direct buffer and write
+ * it to a channel when full.
+ */
+public abstract class AbstractChannelWriter implements Closeable {
+
+    /**
+     * Default size of the output buffer in bytes
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final boolean asciiCompatible;
+    private final ByteBuffer buffer;
+    private final byte[] chunk = new byte[1024];
+    private final char[] chars = new char[1024];
+
+    /**
+     * @param channel    the destination channel
+     * @param charset    the charset to encode the messages, UTF-8 if null
+     * @param bufferSize size of the output buffer in bytes
+     */
+    protected AbstractChannelWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        final Charset cs = charset != null ? charset : StandardCharsets.UTF_8;
+        this.encoder = cs.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = cs.equals(StandardCharsets.UTF_8) || cs.equals(StandardCharsets.US_ASCII) || cs.equals(StandardCharsets.ISO_8859_1);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Opens the file for writing, creating it or truncating its existing content
+     *
+     * @param file the file to write
+     * @return a channel to write the file
+     * @throws IOException if the file cannot be opened
+     */
+    protected static FileChannel open(File file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes a message content with the file format framing.
+     *
+     * @param message the FIN content of the message
+     * @throws IOException if an error occurs writing to the channel
+     */
+    public abstract void write(CharSequence message) throws IOException;
+
+    /**
+     * Serializes the message into FIN and writes it.
+     *
+     * @param mt the message to write
+     * @throws IOException if an error occurs writing to the channel
+     */
+    public void write(AbstractMT mt) throws IOException {
+        Objects.requireNonNull(mt, "message to write cannot be null");
+        write(mt.message());
+    }
+
+    /**
+     * Serializes the message into FIN and writes it.
+     *
+     * @param msg the message to write
+     * @throws IOException if an error occurs writing to the channel
+     */
+    public void write(SwiftMessage msg) throws IOException {
+        Objects.requireNonNull(msg, "message to write cannot be null");
+        write(msg.message());
+    }
+
+    /**
+     * Adds a single byte to the buffer
+     */
+    protected void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(b);
+    }
+
+    /**
+     * Adds the same byte a number of times to the buffer
+     */
+    protected void put(byte b, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            put(b);
+        }
+    }
+
+    /**
+     * Adds the first bytes of the array to the buffer
+     */
+    protected void put(byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(length - offset, buffer.remaining());
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+    /**
+     * Encodes the content into the buffer.
+     * <p>
+     * The SWIFT character sets are subsets of ASCII, so with an ASCII compatible charset the characters are copied
+     * as bytes in chunks, and the charset encoder is only used from the first non ASCII character if any.
+     *
+     * @return the number of bytes added
+     */
+    protected long put(CharSequence content) throws IOException {
+        final int length = content.length();
+        int index = 0;
+        if (asciiCompatible) {
+            while (index < length) {
+                int n = 0;
+                int max = Math.min(length - index, chunk.length);
+                if (content instanceof String) {
+                    ((String) content).getChars(index, index + max, chars, 0);
+                    while (n < max && chars[n] < 0x80) {
+                        chunk[n] = (byte) chars[n];
+                        n++;
+                    }
+                } else {
+                    char c;
+                    while (n < max && (c = content.charAt(index + n)) < 0x80) {
+                        chunk[n++] = (byte) c;
+                    }
+                }
+                put(chunk, n);
+                index += n;
+                if (n < max) {
+                    break;
+                }
+            }
+            if (index == length) {
+                return length;
+            }
+        }
+        return index + encode(CharBuffer.wrap(content, index, length));
+    }
+
+    private long encode(CharBuffer in) throws IOException {
+        long written = 0;
+        boolean flushing = false;
+        encoder.reset();
+        while (true) {
+            int start = buffer.position();
+            CoderResult result = flushing ? encoder.flush(buffer) : encoder.encode(in, buffer, true);
+            written += buffer.position() - start;
+            if (result.isOverflow()) {
+                drain();
+            } else if (flushing) {
+                return written;
+            } else {
+                // all input encoded
+                flushing = true;
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer content to the channel
+     *
+     * @return the number of bytes written
+     */
+    protected int drain() throws IOException {
+        buffer.flip();
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    /**
+     * @return the destination channel
+     */
+    protected WritableByteChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Writes the buffered content to the channel
+     *
+     * @throws IOException if an error occurs writing to the channel
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Flushes the buffered content and closes the channel, closing a writer already closed has no effect
+     *
+     * @throws IOException if an error occurs writing to the channel
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
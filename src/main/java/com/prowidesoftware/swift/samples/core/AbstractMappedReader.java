@@ -0,0 +1,206 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Base class for readers of multi-message files over a memory mapped file, that return each message as a
+ * {@link MessageSlice} of the mapped content.
+ * <p>
+ * The file is mapped in windows of a fixed size that are moved forward as the messages are read, and the
+ * subclasses find the message frames with a byte scan of the mapped memory. Messages are not decoded into Strings
+ * until requested, so the heap used by the reader does not depend on the file size.
+ * <p>
+ * The content of each message is trimmed, and empty messages are skipped.
+ * <p>
+ * A message cannot be larger than the window size, the default window of 64 MB is far above any FIN message.
+ */
+public abstract class AbstractMappedReader implements Iterator<MessageSlice>, Iterable<MessageSlice>, Closeable {
+
+    /**
+     * Default size of the mapped window in bytes
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final Charset charset;
+
+    private MappedByteBuffer window;
+    private long windowPosition;
+    private int cursor;
+    private int frameStart;
+    private int frameEnd;
+    private MessageSlice nextSlice;
+    private boolean usedAsIterable = false;
+
+    /**
+     * @param file       the file to read
+     * @param charset    the charset to decode the messages, UTF-8 if null
+     * @param windowSize size in bytes of the mapped regions of the file, it must be greater than any message
+     * @throws IOException if the file cannot be opened
+     */
+    protected AbstractMappedReader(File file, Charset charset, int windowSize) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.charset = charset;
+        map(0);
+    }
+
+    /**
+     * Finds the next message frame in the window. When a message is found the implementation must call
+     * {@link #setFrame(int, int)} with its content boundaries.
+     *
+     * @param window the mapped content, use absolute get methods only
+     * @param from   the index to start the scan
+     * @param limit  the end of the mapped content
+     * @param last   true if the window reaches the end of the file
+     * @return the index to continue with the next scan, greater than from, or -1 if there is no complete frame
+     * in the window and more content is needed
+     */
+    protected abstract int frame(ByteBuffer window, int from, int limit, boolean last);
+
+    /**
+     * @param start index of the first byte of the message content in the window
+     * @param end   index after the last byte of the message content in the window
+     */
+    protected void setFrame(int start, int end) {
+        this.frameStart = start;
+        this.frameEnd = end;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextSlice == null) {
+            try {
+                nextSlice = scan();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextSlice != null;
+    }
+
+    @Override
+    public MessageSlice next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        MessageSlice result = nextSlice;
+        nextSlice = null;
+        return result;
+    }
+
+    /**
+     * @return the next message parsed, or null if there are no more messages
+     * @throws IOException if the content cannot be parsed
+     */
+    public SwiftMessage nextSwiftMessage() throws IOException {
+        return hasNext() ? next().toSwiftMessage() : null;
+    }
+
+    /**
+     * @return the next message parsed into its specific MT class, or null if there are no more messages
+     * @throws IOException if the content cannot be parsed
+     * @see MessageSlice#toMT()
+     */
+    public AbstractMT nextMT() throws IOException {
+        return hasNext() ? next().toMT() : null;
+    }
+
+    @Override
+    public Iterator<MessageSlice> iterator() {
+        if (usedAsIterable) {
+            throw new IllegalStateException("This reader has already been used as Iterator and the implementation does not support multiple iterations, create another reader instance instead");
+        }
+        usedAsIterable = true;
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Finds the next non empty message, moving the mapped window forward when the current one has no complete
+     * frame
+     */
+    private MessageSlice scan() throws IOException {
+        while (window != null) {
+            final int limit = window.limit();
+            final boolean last = windowPosition + limit == size;
+            frameStart = -1;
+            int next = frame(window, cursor, limit, last);
+            if (next >= 0) {
+                cursor = next;
+                MessageSlice slice = frameStart >= 0 ? trim(frameStart, frameEnd) : null;
+                if (cursor >= limit && last) {
+                    window = null;
+                }
+                if (slice != null) {
+                    return slice;
+                }
+            } else if (cursor == 0) {
+                throw new IOException("Message at position " + windowPosition + " exceeds the window size of " + windowSize + " bytes");
+            } else {
+                map(windowPosition + cursor);
+            }
+        }
+        return null;
+    }
+
+    private MessageSlice trim(int from, int to) {
+        while (from < to && (window.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (window.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to > from ? new MessageSlice(window, from, to - from, windowPosition + from, charset) : null;
+    }
+
+    private void map(long position) throws IOException {
+        long length = Math.min(windowSize, size - position);
+        if (length <= 0) {
+            window = null;
+            return;
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        windowPosition = position;
+        cursor = 0;
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Splits a FIN content with an ACK/NAK service message followed by the acknowledged message, by offset.
+ * <p>
+ * This is an alternative to parsing the service message and then parsing its unparsed texts, as in
+ * {@link ParseMessageWithAckExample}, where the acknowledged message is parsed twice and its content copied. The
+ * envelope reads the acknowledgement fields in a single scan of the service message blocks, and the acknowledged
+ * message is parsed once, from the original content.
+ * <p>
+ * The envelope is reusable: each call to {@link #wrap(CharSequence)} resets its state, and reading the ACK/NAK
+ * fields does not allocate any object. An instance must not be shared between threads.
+ */
+public final class AckEnvelope {
+
+    private CharSequence content;
+    private boolean serviceMessage21;
+    private int messageStart;
+    private long dateTime;
+    private int status;
+    private int errorStart;
+    private int errorEnd;
+
+    /**
+     * Scans the content for an ACK/NAK service message.
+     *
+     * @param fin the FIN content, it is referenced and must not be modified while the envelope is in use
+     * @return true if the content starts with a service 21 message
+     */
+    public boolean wrap(CharSequence fin) {
+        this.content = Objects.requireNonNull(fin, "content to wrap cannot be null");
+        this.serviceMessage21 = false;
+        this.messageStart = 0;
+        this.dateTime = -1;
+        this.status = -1;
+        this.errorStart = -1;
+        this.errorEnd = -1;
+
+        int i = FinScanner.skipBlanks(fin, 0);
+        // {1:F21
+        if (!FinScanner.startsWith(fin, i, "{1:") || !FinScanner.startsWith(fin, i + 4, "21")) {
+            messageStart = i;
+            return false;
+        }
+        serviceMessage21 = true;
+        i = FinScanner.blockEnd(fin, i);
+        while ((i = FinScanner.skipBlanks(fin, i)) < fin.length()) {
+            if (fin.charAt(i) != '{' || FinScanner.startsWith(fin, i, "{1:")) {
+                break;
+            }
+            int end = FinScanner.blockEnd(fin, i);
+            if (FinScanner.startsWith(fin, i, "{4:")) {
+                readFields(fin, i + 3, end - 1);
+            }
+            i = end;
+        }
+        messageStart = i;
+        return true;
+    }
+
+    /**
+     * Reads the {name:value} fields of the service message text block
+     */
+    private void readFields(CharSequence s, int from, int to) {
+        int i = from;
+        while (i < to && s.charAt(i) == '{') {
+            int end = FinScanner.blockEnd(s, i);
+            int value = i + 5;
+            if (FinScanner.startsWith(s, i, "{177:")) {
+                dateTime = 0;
+                for (int j = value; j < end - 1; j++) {
+                    char c = s.charAt(j);
+                    if (c >= '0' && c <= '9') {
+                        dateTime = dateTime * 10 + (c - '0');
+                    }
+                }
+            } else if (FinScanner.startsWith(s, i, "{451:") && value < end - 1) {
+                status = s.charAt(value) - '0';
+            } else if (FinScanner.startsWith(s, i, "{405:")) {
+                errorStart = value;
+                errorEnd = end - 1;
+            }
+            i = end;
+        }
+    }
+
+    /**
+     * @return true if the wrapped content starts with a service 21 message
+     */
+    public boolean isServiceMessage21() {
+        return serviceMessage21;
+    }
+
+    /**
+     * @return true if the service message has the accepted status (451:0)
+     */
+    public boolean isAck() {
+        return status == 0;
+    }
+
+    /**
+     * @return true if the service message has the rejected status (451:1)
+     */
+    public boolean isNack() {
+        return status == 1;
+    }
+
+    /**
+     * @return the date and time of the acknowledgement (field 177) as the YYMMDDHHMM number, or -1 if not present
+     */
+    public long getDateTime() {
+        return dateTime;
+    }
+
+    /**
+     * @return the index of the error code (field 405) in the wrapped content, or -1 if not present
+     */
+    public int getErrorCodeStart() {
+        return errorStart;
+    }
+
+    /**
+     * @return the index after the error code (field 405) in the wrapped content, or -1 if not present
+     */
+    public int getErrorCodeEnd() {
+        return errorEnd;
+    }
+
+    /**
+     * @return true if the error code (field 405) starts with the code, for example "H25"
+     */
+    public boolean isErrorCode(String code) {
+        return errorStart >= 0 && errorEnd - errorStart >= code.length() && FinScanner.startsWith(content, errorStart, code);
+    }
+
+    /**
+     * @return the error code (field 405) as a sequence of the wrapped content, or null if not present
+     */
+    public CharSequence getErrorCode() {
+        return errorStart >= 0 ? content.subSequence(errorStart, errorEnd) : null;
+    }
+
+    /**
+     * @return the index of the acknowledged message in the wrapped content, the start of the content if it is not
+     * a service 21 message
+     */
+    public int getMessageStart() {
+        return messageStart;
+    }
+
+    /**
+     * @return true if there is content after the service message
+     */
+    public boolean hasMessage() {
+        return messageStart < content.length();
+    }
+
+    /**
+     * @return the acknowledged message as a sequence of the wrapped content, or the whole content if it is not a
+     * service 21 message
+     */
+    public CharSequence getMessage() {
+        return content.subSequence(messageStart, content.length());
+    }
+
+    /**
+     * Parses the acknowledged message.
+     *
+     * @return the parsed message, or null if there is no content after the service message
+     * @throws IOException if the message cannot be parsed
+     */
+    public SwiftMessage parseMessage() throws IOException {
+        return hasMessage() ? SwiftMessage.parse(getMessage().toString()) : null;
+    }
+
+    /**
+     * Parses the acknowledged message into its specific MT class.
+     *
+     * @return the parsed message, or null if there is no content after the service message
+     * @throws IOException if the message cannot be parsed
+     */
+    public AbstractMT parseMT() throws IOException {
+        return hasMessage() ? AbstractMT.parse(getMessage().toString()) : null;
+    }
+
+}
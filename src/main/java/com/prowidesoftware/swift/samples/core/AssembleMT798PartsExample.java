@@ -0,0 +1,99 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * This example shows how to reassemble trade finance transactions sent in several MT798 parts with the
+ * {@link MT798Assembler}, while the parts arrive interleaved from two inbound channels.
+ * <p>
+ * The transaction 34567AC1 is sent as an index MT745 and two MT700 detail parts, the transaction 34567AC2 as
+ * an index and one detail part, and the transaction 34567AC3 misses its second part, so it is expired when its
+ * timeout elapses.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * COMPLETE BBBBUSXXXXXX/34567AC1 parts 3/3: [745, 700, 701]
+ * COMPLETE BBBBUSXXXXXX/34567AC2 parts 2/2: [745, 700]
+ * EXPIRED BBBBUSXXXXXX/34567AC3 parts 1/2: [745]
+ * </pre>
+ */
+public class AssembleMT798PartsExample {
+
+    public static void main(String[] args) throws InterruptedException {
+        final List<String> results = Collections.synchronizedList(new ArrayList<>());
+        final MT798Assembler assembler = new MT798Assembler(group -> results.add(describe(group)))
+                .setOnIncomplete(group -> results.add(describe(group)))
+                .setTimeout(200, TimeUnit.MILLISECONDS);
+
+        /*
+         * Each channel receives some of the parts
+         */
+        final List<MT798> channel1 = Arrays.asList(
+                part("34567AC1", "745", "1/3"),
+                part("34567AC2", "700", "2/2"),
+                part("34567AC1", "701", "3/3"));
+        final List<MT798> channel2 = Arrays.asList(
+                part("34567AC3", "745", "1/2"),
+                part("34567AC1", "700", "2/3"),
+                part("34567AC2", "745", "1/2"));
+
+        Thread t1 = new Thread(() -> channel1.forEach(assembler::add));
+        Thread t2 = new Thread(() -> channel2.forEach(assembler::add));
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+
+        /*
+         * Timeouts are checked when parts are added, or explicitly
+         */
+        Thread.sleep(300);
+        assembler.expire();
+
+        Collections.sort(results);
+        results.forEach(System.out::println);
+    }
+
+    private static String describe(MT798Assembler.Group group) {
+        return group.getStatus() + " " + group.getKey() + " parts " + group.getReceivedCount() + "/" + group.getTotal() + ": "
+                + group.getSubMessages().stream().map(SwiftMessage::getType).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an MT798 part with the transaction reference in field 21P and the index in 27A
+     */
+    private static MT798 part(String reference, String type, String index) {
+        return MT798.parse("{1:F01AAAAUSXXAXXX0000000000}{2:O7981200250109BBBBUSXXXXXX12345678902501091200N}{4:\n" +
+                ":20:" + reference + "-" + index.charAt(0) + "\n" +
+                ":12:" + type + "\n" +
+                ":77E:\n" +
+                ":27A:" + index + "\n" +
+                ":21P:" + reference + "\n" +
+                ":21S:" + reference + "-S\n" +
+                "-}");
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.PPCWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * DOS-PCC file writer that encodes the messages into a reusable buffer and writes it to a channel.
+ * <p>
+ * Each message is written between the 0x01 and 0x03 bytes and followed by blank padding up to the end of the 512
+ * bytes sector, as in {@link PPCWriter}. The padding is computed from the number of encoded bytes.
+ *
+ * @see MappedPPCReader
+ */
+public class BufferedPPCWriter extends AbstractChannelWriter {
+
+    private static final int SECTOR_SIZE = 512;
+
+    /**
+     * @param file the file to write, encoded as UTF-8
+     * @throws IOException if the file cannot be opened
+     */
+    public BufferedPPCWriter(File file) throws IOException {
+        this(open(file), null, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    the destination channel
+     * @param charset    the charset to encode the messages, UTF-8 if null
+     * @param bufferSize size of the output buffer in bytes
+     */
+    public BufferedPPCWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        super(channel, charset, bufferSize);
+    }
+
+    @Override
+    public void write(CharSequence message) throws IOException {
+        put(MappedPPCReader.BEGIN);
+        long length = put(message) + 2;
+        put(MappedPPCReader.END);
+        put((byte) ' ', (int) ((SECTOR_SIZE - length % SECTOR_SIZE) % SECTOR_SIZE));
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.RJEReader;
+import com.prowidesoftware.swift.io.RJEWriter;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RJE file writer for large volumes, that encodes the messages into a reusable direct buffer and writes it to a
+ * channel in large blocks.
+ * <p>
+ * The messages are separated with the same delimiter as {@link RJEWriter}, so the output is identical. The buffered
+ * content is written to the channel when the buffer is full, when the flush interval has elapsed since the last
+ * write to the channel (checked on each message, there is no background thread), and at the end of each batch if
+ * the fsync policy is {@link FsyncPolicy#PER_BATCH}.
+ * <p>
+ * The writer keeps the number of messages and bytes written, to report the throughput.
+ *
+ * @see MappedRJEReader
+ */
+public class BufferedRJEWriter extends AbstractChannelWriter {
+
+    /**
+     * When the written content is forced to the storage device
+     */
+    public enum FsyncPolicy {
+        /**
+         * After each batch and each explicit flush
+         */
+        PER_BATCH,
+        /**
+         * Only when the writer is closed
+         */
+        ON_CLOSE,
+        /**
+         * Never, the operating system decides when the content is stored
+         */
+        NONE
+    }
+
+    private final byte[] separator = {'\r', '\n', (byte) RJEReader.SPLITCHAR, '\r', '\n'};
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.ON_CLOSE;
+    private long flushIntervalNanos = 0;
+    private final long start = System.nanoTime();
+    private long end = 0;
+    private long lastDrain = start;
+    private long messageCount = 0;
+    private long byteCount = 0;
+
+    /**
+     * @param file the file to write, encoded as UTF-8
+     * @throws IOException if the file cannot be opened
+     */
+    public BufferedRJEWriter(File file) throws IOException {
+        this(open(file), null, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    the destination channel, the fsync policy only applies to a {@link FileChannel}
+     * @param charset    the charset to encode the messages, UTF-8 if null
+     * @param bufferSize size of the output buffer in bytes, the content is written to the channel when it is full
+     */
+    public BufferedRJEWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        super(channel, charset, bufferSize);
+    }
+
+    /**
+     * @param splitChar the message delimiter, $ by default
+     */
+    public BufferedRJEWriter setSplitChar(char splitChar) {
+        this.separator[2] = (byte) splitChar;
+        return this;
+    }
+
+    /**
+     * @param fsyncPolicy when to force the content to the storage device, on close by default
+     */
+    public BufferedRJEWriter setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = Objects.requireNonNull(fsyncPolicy, "fsyncPolicy must not be null");
+        return this;
+    }
+
+    /**
+     * @param interval maximum time the content can stay in the buffer, zero (default) to write it only when the
+     *                 buffer is full or on flush
+     * @param unit     the interval time unit
+     */
+    public BufferedRJEWriter setFlushInterval(long interval, TimeUnit unit) {
+        this.flushIntervalNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    @Override
+    public void write(CharSequence message) throws IOException {
+        if (messageCount > 0) {
+            for (byte b : separator) {
+                put(b);
+            }
+        }
+        put(message);
+        messageCount++;
+        if (flushIntervalNanos > 0 && System.nanoTime() - lastDrain >= flushIntervalNanos) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes a batch of messages and flushes the content, forcing it to the storage device if the fsync policy is
+     * {@link FsyncPolicy#PER_BATCH}
+     *
+     * @param messages the messages to write, either {@link AbstractMT}, {@link SwiftMessage} or their FIN content
+     * @throws IOException              if an error occurs writing to the channel
+     * @throws IllegalArgumentException if an element is not a message
+     */
+    public void writeBatch(Iterable<?> messages) throws IOException {
+        Objects.requireNonNull(messages, "messages to write cannot be null");
+        for (Object message : messages) {
+            if (message instanceof AbstractMT) {
+                write((AbstractMT) message);
+            } else if (message instanceof SwiftMessage) {
+                write((SwiftMessage) message);
+            } else if (message instanceof CharSequence) {
+                write((CharSequence) message);
+            } else {
+                throw new IllegalArgumentException("Unsupported message type " + (message != null ? message.getClass().getName() : null));
+            }
+        }
+        flush();
+    }
+
+    @Override
+    protected int drain() throws IOException {
+        int written = super.drain();
+        byteCount += written;
+        lastDrain = System.nanoTime();
+        return written;
+    }
+
+    /**
+     * Writes the buffered content to the channel, and forces it to the storage device if the fsync policy is
+     * {@link FsyncPolicy#PER_BATCH}
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if (fsyncPolicy == FsyncPolicy.PER_BATCH) {
+            force();
+        }
+    }
+
+    /**
+     * Flushes the buffered content, forces it to the storage device unless the fsync policy is
+     * {@link FsyncPolicy#NONE}, and closes the channel; closing a writer already closed has no effect
+     */
+    @Override
+    public void close() throws IOException {
+        if (!getChannel().isOpen()) {
+            return;
+        }
+        try {
+            drain();
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                force();
+            }
+        } finally {
+            end = System.nanoTime();
+            getChannel().close();
+        }
+    }
+
+    private void force() throws IOException {
+        if (getChannel() instanceof FileChannel) {
+            ((FileChannel) getChannel()).force(false);
+        }
+    }
+
+    /**
+     * @return number of messages written
+     */
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * @return number of bytes written to the channel, not including the buffered content
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return time in milliseconds since the writer was created, until it was closed
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((end > 0 ? end : System.nanoTime()) - start);
+    }
+
+    /**
+     * @return average number of messages written per second
+     */
+    public double getMessagesPerSecond() {
+        return perSecond(messageCount);
+    }
+
+    /**
+     * @return average number of bytes written to the channel per second
+     */
+    public double getBytesPerSecond() {
+        return perSecond(byteCount);
+    }
+
+    private double perSecond(long count) {
+        long nanos = (end > 0 ? end : System.nanoTime()) - start;
+        return nanos > 0 ? count * 1e9 / nanos : 0;
+    }
+
+}
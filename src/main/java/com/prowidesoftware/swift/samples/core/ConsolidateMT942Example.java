@@ -0,0 +1,114 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.mt.mt9xx.MT940;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This example shows how to consolidate interim MT942 statements of several accounts into MT940 statements with
+ * the {@link MT942Consolidator}, as a streaming alternative to {@link MessageCreationMT942ToMT940Example} for
+ * large volumes.
+ * <p>
+ * The MT942 of the two accounts are interleaved, and a small maximum length is used to show the pagination of the
+ * resulting MT940, where every page but the last is closed with an intermediate balance 62M.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * 123456789 page 1/1: 60F:C191020EUR10000,00 4 lines 62M:C191020EUR17000,
+ * 123456789 page 1/2: 60M:C191020EUR17000, 1 lines 62F:C191020EUR16999,5
+ * 987654321 page 1/1: 60F:D191020USD250,25 2 lines 62F:C191020USD750,25
+ * </pre>
+ */
+public class ConsolidateMT942Example {
+
+    public static void main(String[] args) throws InterruptedException {
+        List<String> interimStatements = Arrays.asList(
+                "{1:F01AAAAAEADAXXX0000000000}{2:I942BBBBOMRXXXXXN}{4:\n" +
+                        ":20:REF1\n" +
+                        ":25:123456789\n" +
+                        ":28C:1/2\n" +
+                        ":34F:EUR0,\n" +
+                        ":13D:1910200900+0400\n" +
+                        ":61:191020C15000,NCHKAA8876//1234\n" +
+                        ":86:ABCDD128231\n" +
+                        ":61:191020D7000,NTRFMT101 260310//0326132225123478\n" +
+                        ":86:AIIJSIDJ\n" +
+                        ":90D:1EUR7000,\n" +
+                        ":90C:1EUR15000,\n" +
+                        "-}",
+                "{1:F01AAAAAEADAXXX0000000000}{2:I942CCCCUS33XXXXN}{4:\n" +
+                        ":20:REF3\n" +
+                        ":25:987654321\n" +
+                        ":28C:1/1\n" +
+                        ":34F:USD0,\n" +
+                        ":13D:1910200930+0400\n" +
+                        ":61:191020C1200,NTRFNONREF//5555\n" +
+                        ":61:191020D199,5NCHGNONREF//5556\n" +
+                        ":86:FEES\n" +
+                        ":90D:1USD199,5\n" +
+                        ":90C:1USD1200,\n" +
+                        "-}",
+                "{1:F01AAAAAEADAXXX0000000000}{2:I942BBBBOMRXXXXXN}{4:\n" +
+                        ":20:REF2\n" +
+                        ":25:123456789\n" +
+                        ":28C:2/2\n" +
+                        ":34F:EUR0,\n" +
+                        ":13D:1910201000+0400\n" +
+                        ":61:191020C2000,NCHKAA8877//1234\n" +
+                        ":86:ABCDD128231\n" +
+                        ":61:191020D3000,NTRFMTREF222//023434\n" +
+                        ":86:AIIJSIDJ\n" +
+                        ":61:191020D0,5NCHGNONREF//023435\n" +
+                        ":90D:2EUR3000,5\n" +
+                        ":90C:1EUR2000,\n" +
+                        "-}");
+
+        /*
+         * The opening balances should be known in advance
+         */
+        Map<String, String> openingBalances = new HashMap<>();
+        openingBalances.put("123456789", "C191020EUR10000,00");
+        openingBalances.put("987654321", "D191020USD250,25");
+
+        /*
+         * Pages are passed to the consumer from the worker threads as soon as they are complete, so the accounts
+         * are sorted before printing them
+         */
+        Map<String, MT940> pages = new TreeMap<>();
+        new MT942Consolidator(openingBalances::get)
+                .setReference(account -> "STMT" + account)
+                .setMaxLength(400)
+                .setThreads(2)
+                .consolidate(interimStatements.iterator(), page -> {
+                    MT940 mt = MT940.parse(page.toString());
+                    synchronized (pages) {
+                        pages.put(mt.getField25().getValue() + " page " + mt.getField28C().getValue(), mt);
+                    }
+                });
+
+        pages.forEach((name, mt) -> System.out.println(name + ": "
+                + (mt.getField60F() != null ? "60F:" + mt.getField60F().getValue() : "60M:" + mt.getField60M().getValue())
+                + " " + mt.getField61().size() + " lines "
+                + (mt.getField62F() != null ? "62F:" + mt.getField62F().getValue() : "62M:" + mt.getField62M().getValue())));
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+/**
+ * This example shows how to convert all messages of an RJE file into a single XML document, writing the XML of
+ * each message directly into the output file as it is read, so the memory used does not depend on the file size.
+ * <p>
+ * The input RJE file and output XML file can be passed as arguments, by default the example file with two MT103 is
+ * converted into a temporary file.
+ * <p>
+ * Running this program produces an output like this:
+ * <pre>
+ * Converted 2 messages into /tmp/mt103.xml (4490 bytes)
+ * </pre>
+ *
+ * @see MessageXMLWriter
+ */
+public class ConvertRJEFileToXMLExample {
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        File rje = args.length > 0 ? new File(args[0])
+                : new File(ConvertRJEFileToXMLExample.class.getResource("/mt103.rje").toURI());
+        File xml = args.length > 1 ? new File(args[1])
+                : new File(System.getProperty("java.io.tmpdir"), "mt103.xml");
+
+        long count;
+        try (MappedRJEReader reader = new MappedRJEReader(rje);
+             MessageXMLWriter writer = new MessageXMLWriter(new FileOutputStream(xml)).setUseField(true)) {
+            /*
+             * Each message is parsed from the mapped file and its XML written within the default "messages" root
+             */
+            count = writer.writeAll(reader.iterator());
+        }
+        System.out.println("Converted " + count + " messages into " + xml + " (" + xml.length() + " bytes)");
+    }
+
+}
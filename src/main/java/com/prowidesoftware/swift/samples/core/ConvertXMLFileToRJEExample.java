@@ -0,0 +1,73 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+/**
+ * This example shows how to convert an XML document with any number of messages back into an RJE file, reading
+ * each message from the XML as a stream of events and writing its FIN into the output file, so the memory used does
+ * not depend on the document size. Both the tag and the field flavours of the XML are supported.
+ * <p>
+ * The input XML file and output RJE file can be passed as arguments, by default the example file with two MT103 is
+ * first converted into XML with the field flavour, as in {@link ConvertRJEFileToXMLExample}, and then back into a
+ * temporary RJE file.
+ * <p>
+ * Running this program produces an output like this:
+ * <pre>
+ * Converted 2 messages into /tmp/mt103-from-xml.rje (978 bytes)
+ * </pre>
+ *
+ * @see MessageXMLReader
+ */
+public class ConvertXMLFileToRJEExample {
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        File xml;
+        if (args.length > 0) {
+            xml = new File(args[0]);
+        } else {
+            xml = new File(System.getProperty("java.io.tmpdir"), "mt103.xml");
+            File rje = new File(ConvertXMLFileToRJEExample.class.getResource("/mt103.rje").toURI());
+            try (MappedRJEReader reader = new MappedRJEReader(rje);
+                 MessageXMLWriter writer = new MessageXMLWriter(new FileOutputStream(xml)).setUseField(true)) {
+                writer.writeAll(reader.iterator());
+            }
+        }
+        File rje = args.length > 1 ? new File(args[1])
+                : new File(System.getProperty("java.io.tmpdir"), "mt103-from-xml.rje");
+
+        long count;
+        try (MessageXMLReader reader = new MessageXMLReader(new FileInputStream(xml));
+             BufferedRJEWriter writer = new BufferedRJEWriter(rje)) {
+            /*
+             * Each message element is read into a SwiftMessage and written as FIN
+             */
+            for (SwiftMessage message : reader) {
+                writer.write(message.message());
+            }
+            count = reader.getCount();
+        }
+        System.out.println("Converted " + count + " messages into " + rje + " (" + rje.length() + " bytes)");
+    }
+
+}
@@ -0,0 +1,652 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock3;
+import com.prowidesoftware.swift.model.SwiftTagListBlock;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.*;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+import com.prowidesoftware.swift.model.mt.mt2xx.MT202;
+import com.prowidesoftware.swift.model.mt.mt5xx.MT537;
+import com.prowidesoftware.swift.model.mt.mt5xx.MT548;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+import com.prowidesoftware.swift.model.mt.mt9xx.MT940;
+import com.prowidesoftware.swift.model.mt.mt9xx.MT942;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generator of large synthetic message files for load and performance tests.
+ * <p>
+ * The messages are created with the MT and field classes, as in the message creation examples, with random
+ * parties, references, dates and amounts. Each message is generated from its own random sequence derived from
+ * the seed and its position, so the same seed produces the same corpus regardless of the number of threads.
+ * <p>
+ * The message types are chosen by weight, and the size of the messages with repetitive content (statement lines,
+ * transactions, reasons or narrative) is chosen by the small, medium and large weights. Messages are kept within
+ * the FIN maximum length.
+ * <p>
+ * The messages can be written into a single RJE or DOS-PCC file, or one file per message in a directory.
+ * <p>
+ * It can be run from command line with the number of messages, the format and the output, plus optional seed:
+ * <pre>
+ * java CorpusGenerator 1000000 RJE /tmp/corpus.rje 42
+ * </pre>
+ */
+public class CorpusGenerator {
+
+    /**
+     * Generated message types
+     */
+    public enum Type {
+        MT103, MT202, MT940, MT942, MT537, MT548, MT798
+    }
+
+    /**
+     * Size category of the generated messages, with the range of repetitions of their repetitive content
+     */
+    public enum Size {
+        SMALL(1, 3), MEDIUM(5, 20), LARGE(40, 100);
+
+        private final int min;
+        private final int max;
+
+        Size(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * Output file formats
+     */
+    public enum Format {
+        /**
+         * A single RJE file with the messages separated by $
+         */
+        RJE,
+        /**
+         * A single DOS-PCC file with 512 bytes sectors
+         */
+        DOS_PCC,
+        /**
+         * A directory with one file per message
+         */
+        FILES
+    }
+
+    private static final int MAX_LENGTH = MessagePaginator.DEFAULT_MAX_LENGTH - 500;
+    private static final int CHUNK_SIZE = 256;
+    private static final String[] CURRENCIES = {"EUR", "USD", "GBP", "CHF", "SEK", "CAD", "AUD"};
+    private static final String[] COUNTRIES = {"US", "GB", "DE", "FR", "ES", "IT", "NL", "BE", "CH", "SE"};
+    private static final String[] NAMES = {"JOE DOE", "JANE ROE", "ACME CORP", "FOO TRADING LTD", "BAR HOLDINGS", "GLOBEX INC", "INITECH SA"};
+    private static final String[] STREETS = {"MAIN STREET 1", "HIGH ROAD 22", "AV XXXXX 123 BIS", "STATION SQUARE 9", "OLD MILL LANE 5"};
+    private static final String[] WORDS = {"PAYMENT", "INVOICE", "ORDER", "GOODS", "SERVICES", "CONTRACT", "SHIPMENT", "TERMS", "DELIVERY", "FEES"};
+    private static final String ALPHA = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final LocalDate BASE_DATE = LocalDate.of(2023, 1, 1);
+    private static final DateTimeFormatter YYMMDD = DateTimeFormatter.ofPattern("yyMMdd");
+    private static final DateTimeFormatter YYYYMMDD = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private long seed = 0;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int banks = 200;
+    private final Map<Type, Integer> typeWeights = new EnumMap<>(Type.class);
+    private final Map<Size, Integer> sizeWeights = new EnumMap<>(Size.class);
+    private String[] bics;
+
+    public CorpusGenerator() {
+        for (Type type : Type.values()) {
+            typeWeights.put(type, 1);
+        }
+        sizeWeights.put(Size.SMALL, 70);
+        sizeWeights.put(Size.MEDIUM, 25);
+        sizeWeights.put(Size.LARGE, 5);
+        bics = createBics(new SplittableRandom(seed), banks);
+    }
+
+    /**
+     * @param seed seed of the random content, 0 by default
+     */
+    public CorpusGenerator setSeed(long seed) {
+        this.seed = seed;
+        this.bics = createBics(new SplittableRandom(seed), banks);
+        return this;
+    }
+
+    /**
+     * @param threads number of generator threads, the number of available processors by default
+     */
+    public CorpusGenerator setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param banks number of distinct BIC codes used as sender and receiver, 200 by default
+     */
+    public CorpusGenerator setBanks(int banks) {
+        this.banks = banks;
+        this.bics = createBics(new SplittableRandom(seed), banks);
+        return this;
+    }
+
+    /**
+     * @param type   a message type
+     * @param weight relative frequency of the message type, zero to exclude it; all types have weight 1 by default
+     */
+    public CorpusGenerator setWeight(Type type, int weight) {
+        typeWeights.put(Objects.requireNonNull(type, "type must not be null"), weight);
+        return this;
+    }
+
+    /**
+     * @param size   a message size category
+     * @param weight relative frequency of the size; 70, 25 and 5 for small, medium and large by default
+     */
+    public CorpusGenerator setWeight(Size size, int weight) {
+        sizeWeights.put(Objects.requireNonNull(size, "size must not be null"), weight);
+        return this;
+    }
+
+    /**
+     * Generates the messages and writes them into the output.
+     *
+     * @param count  number of messages
+     * @param format the output format
+     * @param output the output file, or directory for {@link Format#FILES}
+     * @return number of bytes written, including the message separators of the RJE and DOS-PCC formats
+     * @throws IOException if an error occurs writing the output
+     */
+    public long generate(long count, Format format, File output) throws IOException {
+        Objects.requireNonNull(format, "format must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+        if (format == Format.FILES) {
+            Files.createDirectories(output.toPath());
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "corpus-generator");
+            t.setDaemon(true);
+            return t;
+        });
+        AbstractChannelWriter writer = format == Format.RJE ? new BufferedRJEWriter(output)
+                : format == Format.DOS_PCC ? new BufferedPPCWriter(output) : null;
+        long bytes = 0;
+        try {
+            /*
+             * chunks are generated in parallel and written in order, with a bounded number of pending chunks
+             */
+            Deque<Future<List<String>>> pending = new ArrayDeque<>();
+            long next = 0;
+            long index = 0;
+            while (index < count) {
+                while (next < count && pending.size() < threads * 2) {
+                    final long from = next;
+                    final long to = Math.min(count, from + CHUNK_SIZE);
+                    pending.add(workers.submit(() -> chunk(from, to)));
+                    next = to;
+                }
+                for (String fin : pending.poll().get()) {
+                    if (writer != null) {
+                        writer.write(fin);
+                    } else {
+                        byte[] content = fin.getBytes(StandardCharsets.UTF_8);
+                        Files.write(new File(output, String.format("%010d.fin", index)).toPath(), content);
+                        bytes += content.length;
+                    }
+                    index++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error generating messages", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        if (writer != null) {
+            // the file is truncated when opened, so its size is the number of bytes written
+            bytes = Files.size(output.toPath());
+        }
+        return bytes;
+    }
+
+    private List<String> chunk(long from, long to) {
+        List<String> result = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            result.add(generate(i).message());
+        }
+        return result;
+    }
+
+    /**
+     * Creates the message at the given position of the corpus.
+     *
+     * @param index the message position
+     * @return the generated message, the same for the same seed and index
+     */
+    public AbstractMT generate(long index) {
+        SplittableRandom random = new SplittableRandom(new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L).nextLong());
+        Type type = pick(random, typeWeights);
+        Size size = pick(random, sizeWeights);
+        int repetitions = size.min + random.nextInt(size.max - size.min + 1);
+        String reference = type.name().substring(2) + "R" + Long.toString(index, 36).toUpperCase();
+        AbstractMT mt;
+        switch (type) {
+            case MT103:
+                mt = mt103(random, reference, size);
+                break;
+            case MT202:
+                mt = mt202(random, reference, size);
+                break;
+            case MT940:
+                mt = mt940(random, reference, repetitions);
+                break;
+            case MT942:
+                mt = mt942(random, reference, repetitions);
+                break;
+            case MT537:
+                mt = mt537(random, reference, repetitions);
+                break;
+            case MT548:
+                mt = mt548(random, reference, repetitions);
+                break;
+            default:
+                mt = mt798(random, reference, repetitions);
+        }
+        mt.setSender(bic(random) + "A" + "XXX");
+        mt.setReceiver(bic(random) + "X" + "XXX");
+        SwiftBlock3 block3 = mt.getSwiftMessage().getBlock3();
+        Tag uetr = block3 != null ? block3.getTagByName(Field121.NAME) : null;
+        if (uetr != null) {
+            // replace the random UETR set by the MT constructor, to keep the output reproducible
+            uetr.setValue(uuid(random));
+        }
+        return mt;
+    }
+
+    private MT103 mt103(SplittableRandom random, String reference, Size size) {
+        MT103 m = new MT103();
+        String currency = pick(random, CURRENCIES);
+        BigDecimal amount = amount(random);
+        m.addField(new Field20(reference));
+        m.addField(new Field23B("CRED"));
+        m.addField(new Field32A().setDate(yymmdd(random)).setCurrency(currency).setAmount(amount));
+        if (size != Size.SMALL) {
+            m.addField(new Field33B().setCurrency(currency).setAmount(amount));
+        }
+        m.addField(new Field50K()
+                .setAccount(account(random))
+                .setNameAndAddressLine1(pick(random, NAMES))
+                .setNameAndAddressLine2(pick(random, STREETS)));
+        if (size != Size.SMALL) {
+            m.addField(new Field52A().setIdentifierCode(bic(random) + "XXX"));
+            m.addField(new Field57A().setIdentifierCode(bic(random) + "XXX"));
+        }
+        m.addField(new Field59()
+                .setAccount(account(random))
+                .setNameAndAddressLine1(pick(random, NAMES))
+                .setNameAndAddressLine2(pick(random, STREETS)));
+        if (size != Size.SMALL) {
+            m.append(Field70.tag(narrative(random, size == Size.LARGE ? 4 : 2, 35)));
+        }
+        m.addField(new Field71A(random.nextBoolean() ? "OUR" : "SHA"));
+        if (size == Size.LARGE) {
+            m.append(Field72.tag("/ACC/" + narrative(random, 6, 30)));
+        }
+        return m;
+    }
+
+    private MT202 mt202(SplittableRandom random, String reference, Size size) {
+        MT202 m = new MT202();
+        m.addField(new Field20(reference));
+        m.addField(new Field21("REL" + reference));
+        m.addField(new Field32A().setDate(yymmdd(random)).setCurrency(pick(random, CURRENCIES)).setAmount(amount(random)));
+        if (size != Size.SMALL) {
+            m.addField(new Field52A().setIdentifierCode(bic(random) + "XXX"));
+            m.addField(new Field57A().setIdentifierCode(bic(random) + "XXX"));
+        }
+        m.addField(new Field58A().setAccount(account(random)).setIdentifierCode(bic(random) + "XXX"));
+        if (size == Size.LARGE) {
+            m.append(Field72.tag("/BNF/" + narrative(random, 6, 30)));
+        }
+        return m;
+    }
+
+    private MT940 mt940(SplittableRandom random, String reference, int lines) {
+        MT940 m = new MT940();
+        Statement statement = new Statement(random);
+        m.addField(new Field20(reference));
+        m.addField(new Field25(statement.account));
+        m.addField(new Field28C().setStatementNumber((long) (1 + random.nextInt(365))).setSequenceNumber(1L));
+        m.addField(new Field60F().setDCMark(statement.mark()).setDate(statement.date).setCurrency(statement.currency).setAmount(statement.balance.abs()));
+        statement.addLines(m, lines, 2 * MessagePaginator.finLength(Field62F.tag("C" + statement.date + statement.currency + "9999999999999,99")));
+        m.addField(new Field62F().setDCMark(statement.mark()).setDate(statement.date).setCurrency(statement.currency).setAmount(statement.balance.abs()));
+        m.addField(new Field64().setDCMark(statement.mark()).setDate(statement.date).setCurrency(statement.currency).setAmount(statement.balance.abs()));
+        return m;
+    }
+
+    private MT942 mt942(SplittableRandom random, String reference, int lines) {
+        MT942 m = new MT942();
+        Statement statement = new Statement(random);
+        m.addField(new Field20(reference));
+        m.addField(new Field25(statement.account));
+        m.addField(new Field28C().setStatementNumber((long) (1 + random.nextInt(365))).setSequenceNumber(1L));
+        m.addField(new Field34F().setCurrency(statement.currency).setAmount(BigDecimal.ZERO));
+        m.addField(new Field13D().setDate(statement.date).setTime(String.format("%02d%02d", random.nextInt(24), random.nextInt(60))).setSign("+").setOffset("0100"));
+        statement.addLines(m, lines, 2 * MessagePaginator.finLength(Field90D.tag("99999EUR9999999999999,99")));
+        m.addField(new Field90D().setNumber((long) statement.debits).setCurrency(statement.currency).setAmount(statement.debitTotal));
+        m.addField(new Field90C().setNumber((long) statement.credits).setCurrency(statement.currency).setAmount(statement.creditTotal));
+        return m;
+    }
+
+    private MT537 mt537(SplittableRandom random, String reference, int transactions) {
+        MT537 m = new MT537();
+        String date = yyyymmdd(random);
+        String safekeeping = Long.toString(100000000L + random.nextInt(900000000));
+        m.append(MT537.SequenceA.newInstance(
+                Field28E.tag("00001/ONLY"),
+                Field13A.tag(":STAT//001"),
+                Field20C.tag(":SEME//" + reference),
+                Field23G.tag("NEWM"),
+                Field98A.tag(":STAT//" + date),
+                Field22H.tag(":STST//TRAN"),
+                Field22F.tag(":SFRE//DAIL"),
+                Field22F.tag(":CODE//COMP"),
+                Field97A.tag(":SAFE//" + safekeeping),
+                Field17B.tag(":ACTI//Y")));
+        int length = MessagePaginator.finLength(m.getSwiftMessage().getBlock4());
+        for (int i = 0; i < transactions; i++) {
+            SwiftTagListBlock transaction = new SwiftTagListBlock()
+                    .append(Field16R.tag("TRANS"))
+                    .append(Field16R.tag("LINK"))
+                    .append(Field20C.tag(":RELA//" + reference + "T" + i))
+                    .append(Field16S.tag("LINK"))
+                    .append(Field16R.tag("TRANSDET"))
+                    .append(Field35B.tag("ISIN " + isin(random) + "\n" + pick(random, NAMES)))
+                    .append(Field36B.tag(":PSTA//UNIT/" + (1 + random.nextInt(10000)) + ","))
+                    .append(Field22F.tag(":SETR//TRAD"))
+                    .append(Field22H.tag(random.nextBoolean() ? ":REDE//DELI" : ":REDE//RECE"))
+                    .append(Field22H.tag(":PAYM//FREE"))
+                    .append(Field98A.tag(":SETT//" + date))
+                    .append(Field16R.tag("STAT"))
+                    .append(Field25D.tag(random.nextInt(10) == 0 ? ":MTCH//NMAT" : ":MTCH//MACH"))
+                    .append(Field16S.tag("STAT"))
+                    .append(Field16S.tag("TRANSDET"))
+                    .append(Field16S.tag("TRANS"));
+            length += MessagePaginator.finLength(transaction);
+            if (i > 0 && length > MAX_LENGTH) {
+                break;
+            }
+            m.append(transaction);
+        }
+        return m;
+    }
+
+    private MT548 mt548(SplittableRandom random, String reference, int reasons) {
+        MT548 m = new MT548();
+        SwiftTagListBlock status = new SwiftTagListBlock()
+                .append(Field16R.tag("STAT"))
+                .append(Field25D.tag(":IPRC//PACK"));
+        // a few reasons at most, the size is given by the narrative of each reason
+        for (int i = 0; i < Math.min(reasons, 10); i++) {
+            status.append(Field16R.tag("REAS"))
+                    .append(Field24B.tag(":PEND//" + pick(random, new String[]{"LACK", "MONY", "NMAS", "CLAC", "PREA"})))
+                    .append(Field70D.tag(":REAS//" + narrative(random, 2, 35)))
+                    .append(Field16S.tag("REAS"));
+        }
+        status.append(Field16S.tag("STAT"));
+        m.append(MT548.SequenceA.newInstance(new SwiftTagListBlock()
+                .append(Field20C.tag(":SEME//" + reference))
+                .append(Field23G.tag("INST"))
+                .append(MT548.SequenceA1.newInstance(Field20C.tag(":RELA//" + "REL" + reference)))
+                .append(status)));
+        m.append(MT548.SequenceB.newInstance(
+                Field35B.tag("ISIN " + isin(random)),
+                Field36B.tag(":SETT//UNIT/" + (1 + random.nextInt(10000)) + ","),
+                Field97A.tag(":SAFE//" + (100000000L + random.nextInt(900000000))),
+                Field22F.tag(":SETR//TRAD"),
+                Field22H.tag(random.nextBoolean() ? ":REDE//DELI" : ":REDE//RECE"),
+                Field22H.tag(":PAYM//APMT"),
+                Field98A.tag(":SETT//" + yyyymmdd(random))));
+        return m;
+    }
+
+    private MT798 mt798(SplittableRandom random, String reference, int lines) {
+        MT798 m = new MT798();
+        m.append(Field20.tag(reference));
+        m.append(Field12.tag("760"));
+        m.append(Field77E.emptyTag());
+        String date = yymmdd(random);
+        m.append(Field27A.tag("1/1"));
+        m.append(Field21A.tag("A" + reference));
+        m.append(Field15A.emptyTag());
+        m.append(Field27.tag("1/1"));
+        m.append(Field22A.tag("ISSU"));
+        m.append(Field15B.emptyTag());
+        m.append(Field20.tag("G" + reference));
+        m.append(Field30.tag(date));
+        m.append(Field22D.tag("DGAR"));
+        m.append(Field40C.tag("ISPR"));
+        m.append(Field23B.tag("FIXD"));
+        m.append(Field31E.tag(date));
+        m.append(Field50.tag(pick(random, NAMES) + "\n" + pick(random, STREETS)));
+        m.append(Field59.tag(pick(random, NAMES) + "\n" + pick(random, STREETS)));
+        m.append(new Field32B().setCurrency(pick(random, CURRENCIES)).setAmount(amount(random)).asTag());
+        m.append(Field77U.tag(narrative(random, Math.min(lines, 100), 65)));
+        m.append(Field24E.tag("MAIL"));
+        return m;
+    }
+
+    /**
+     * Balance and statement lines of an MT940 or MT942
+     */
+    private class Statement {
+        private final SplittableRandom random;
+        private final String account;
+        private final String currency;
+        private final String date;
+        private BigDecimal balance;
+        private BigDecimal debitTotal = BigDecimal.ZERO;
+        private BigDecimal creditTotal = BigDecimal.ZERO;
+        private int debits;
+        private int credits;
+
+        Statement(SplittableRandom random) {
+            this.random = random;
+            this.account = account(random);
+            this.currency = pick(random, CURRENCIES);
+            this.date = yymmdd(random);
+            this.balance = amount(random);
+        }
+
+        String mark() {
+            return balance.signum() < 0 ? "D" : "C";
+        }
+
+        /**
+         * Adds 61 and 86 fields within the maximum length, reserving the trailer length
+         */
+        void addLines(AbstractMT m, int lines, int trailer) {
+            int length = MessagePaginator.finLength(m.getSwiftMessage().getBlock4()) + trailer;
+            for (int i = 0; i < lines; i++) {
+                boolean debit = random.nextInt(3) == 0;
+                BigDecimal amount = amount(random);
+                Tag f61 = new Field61()
+                        .setValueDate(date)
+                        .setEntryDate(date.substring(2))
+                        .setDebitCreditMark(debit ? "D" : "C")
+                        .setAmount(amount)
+                        .setTransactionType("N")
+                        .setIdentificationCode(debit ? "TRF" : "CHK")
+                        .setReferenceForTheAccountOwner("NONREF")
+                        .setReferenceOfTheAccountServicingInstitution(Long.toString(1000000000L + random.nextInt(1000000000)))
+                        .asTag();
+                Tag f86 = Field86.tag(narrative(random, 1 + random.nextInt(3), 65));
+                length += MessagePaginator.finLength(f61) + MessagePaginator.finLength(f86);
+                if (length > MAX_LENGTH) {
+                    break;
+                }
+                m.append(f61, f86);
+                if (debit) {
+                    balance = balance.subtract(amount);
+                    debitTotal = debitTotal.add(amount);
+                    debits++;
+                } else {
+                    balance = balance.add(amount);
+                    creditTotal = creditTotal.add(amount);
+                    credits++;
+                }
+            }
+        }
+    }
+
+    private static String[] createBics(SplittableRandom random, int count) {
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder bic = new StringBuilder(8);
+            for (int j = 0; j < 4; j++) {
+                bic.append(ALPHA.charAt(random.nextInt(ALPHA.length())));
+            }
+            bic.append(COUNTRIES[random.nextInt(COUNTRIES.length)]);
+            bic.append(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+            // location second character other than 0, 1 or 2 for production BICs
+            bic.append(ALPHA.charAt(random.nextInt(ALPHA.length())));
+            result[i] = bic.toString();
+        }
+        return result;
+    }
+
+    /**
+     * @return a BIC8 from the banks of the corpus
+     */
+    private String bic(SplittableRandom random) {
+        return bics[random.nextInt(bics.length)];
+    }
+
+    private static <T> T pick(SplittableRandom random, Map<T, Integer> weights) {
+        int total = 0;
+        for (int weight : weights.values()) {
+            total += Math.max(0, weight);
+        }
+        if (total == 0) {
+            throw new IllegalStateException("At least one weight must be greater than zero");
+        }
+        int value = random.nextInt(total);
+        for (Map.Entry<T, Integer> entry : weights.entrySet()) {
+            value -= Math.max(0, entry.getValue());
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static BigDecimal amount(SplittableRandom random) {
+        return BigDecimal.valueOf(1 + random.nextLong(100000000L), 2);
+    }
+
+    private static String account(SplittableRandom random) {
+        return pick(random, COUNTRIES) + (10 + random.nextInt(90)) + Long.toString(1000000000000000L + random.nextLong(9000000000000000L));
+    }
+
+    private static String uuid(SplittableRandom random) {
+        long msb = random.nextLong() & ~0xF000L | 0x4000L;
+        long lsb = random.nextLong() & ~(0xC000L << 48) | (0x8000L << 48);
+        return new UUID(msb, lsb).toString();
+    }
+
+    private static String isin(SplittableRandom random) {
+        StringBuilder isin = new StringBuilder(pick(random, COUNTRIES));
+        for (int i = 0; i < 10; i++) {
+            isin.append(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+        }
+        return isin.toString();
+    }
+
+    private static String yymmdd(SplittableRandom random) {
+        return BASE_DATE.plusDays(random.nextInt(365)).format(YYMMDD);
+    }
+
+    private static String yyyymmdd(SplittableRandom random) {
+        return BASE_DATE.plusDays(random.nextInt(365)).format(YYYYMMDD);
+    }
+
+    /**
+     * @return random words in the given number of lines of at most the given length
+     */
+    private static String narrative(SplittableRandom random, int lines, int lineLength) {
+        StringBuilder result = new StringBuilder(lines * lineLength);
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) {
+                result.append('\n');
+            }
+            int start = result.length();
+            String word = pick(random, WORDS);
+            while (result.length() - start + word.length() + 1 <= lineLength) {
+                if (result.length() > start) {
+                    result.append(' ');
+                }
+                result.append(word);
+                word = pick(random, WORDS);
+            }
+        }
+        return result.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        long count = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        Format format = args.length > 1 ? Format.valueOf(args[1]) : Format.RJE;
+        File output = new File(args.length > 2 ? args[2] : "/tmp/corpus.rje");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+        long start = System.nanoTime();
+        long bytes = new CorpusGenerator().setSeed(seed).generate(count, format, output);
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Generated " + count + " messages, " + bytes + " bytes in " + millis + " ms ("
+                + (bytes / 1000 / millis) + " MB/s) to " + output);
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.MessageIOType;
+import com.prowidesoftware.swift.model.SwiftMessage;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Routing information of a FIN message, read directly from the raw content without parsing the message.
+ * <p>
+ * The values are taken from fixed positions of the basic and application headers (blocks 1 and 2), the validation
+ * flag (field 119) from the user header (block 3), and for ACK/NAK service messages the field 451 from the text
+ * block. No other content is read, so the classification cost does not depend on the message size.
+ * <p>
+ * The values are the same as returned by the equivalent {@link SwiftMessage} methods.
+ * <p>
+ * Instances are immutable.
+ */
+public final class FinHeader {
+
+    private final String serviceId;
+    private final String sender;
+    private final String receiver;
+    private final String type;
+    private final MessageIOType direction;
+    private final String validationFlag;
+    private final Boolean accepted;
+
+    private FinHeader(String serviceId, String sender, String receiver, String type, MessageIOType direction, String validationFlag, Boolean accepted) {
+        this.serviceId = serviceId;
+        this.sender = sender;
+        this.receiver = receiver;
+        this.type = type;
+        this.direction = direction;
+        this.validationFlag = validationFlag;
+        this.accepted = accepted;
+    }
+
+    /**
+     * Reads the routing information from a FIN message.
+     *
+     * @param fin the message content, leading blanks are skipped
+     * @return the message header or null if the content does not start with a basic header block
+     */
+    public static FinHeader parse(CharSequence fin) {
+        Objects.requireNonNull(fin, "content to parse cannot be null");
+        int b1 = FinScanner.skipBlanks(fin, 0);
+        if (!FinScanner.startsWith(fin, b1, "{1:")) {
+            return null;
+        }
+        b1 += 3;
+        final String serviceId = FinScanner.text(fin, b1 + 1, b1 + 3);
+        final String logicalTerminal = FinScanner.text(fin, b1 + 3, b1 + 15);
+
+        String sender = logicalTerminal;
+        String receiver = null;
+        String type = null;
+        MessageIOType direction = null;
+        String validationFlag = null;
+        Boolean accepted = null;
+
+        int i = FinScanner.blockEnd(fin, b1 - 3);
+        if (FinScanner.startsWith(fin, i, "{2:I")) {
+            // {2:I103RECEIVERADDRN
+            type = FinScanner.text(fin, i + 4, i + 7);
+            receiver = FinScanner.text(fin, i + 7, i + 19);
+            direction = MessageIOType.outgoing;
+            i = FinScanner.blockEnd(fin, i);
+        } else if (FinScanner.startsWith(fin, i, "{2:O")) {
+            // {2:O103HHMMYYMMDDSENDERADDRESSSESSISN...
+            type = FinScanner.text(fin, i + 4, i + 7);
+            sender = FinScanner.text(fin, i + 17, i + 29);
+            receiver = logicalTerminal;
+            direction = MessageIOType.incoming;
+            i = FinScanner.blockEnd(fin, i);
+        }
+        if (FinScanner.startsWith(fin, i, "{3:")) {
+            final int end = FinScanner.blockEnd(fin, i);
+            int flag = FinScanner.indexOf(fin, "{119:", i + 3, end);
+            if (flag >= 0) {
+                validationFlag = FinScanner.text(fin, flag + 5, FinScanner.indexOf(fin, "}", flag + 5, end));
+            }
+            i = end;
+        }
+        if ("21".equals(serviceId) && FinScanner.startsWith(fin, i, "{4:")) {
+            final int end = FinScanner.blockEnd(fin, i);
+            int status = FinScanner.indexOf(fin, "{451:", i + 3, end);
+            if (status >= 0 && status + 5 < end) {
+                char c = fin.charAt(status + 5);
+                accepted = c == '0' ? Boolean.TRUE : c == '1' ? Boolean.FALSE : null;
+            }
+        }
+        return new FinHeader(serviceId, sender, receiver, type, direction, validationFlag, accepted);
+    }
+
+    /**
+     * Reads the routing information from a FIN message, as in {@link #parse(CharSequence)}, without decoding the
+     * content.
+     *
+     * @param fin    buffer with the message content, in any of the single byte SWIFT character sets
+     * @param offset index of the message in the buffer
+     * @param length length of the message in bytes
+     * @return the message header or null if the content does not start with a basic header block
+     */
+    public static FinHeader parse(byte[] fin, int offset, int length) {
+        Objects.requireNonNull(fin, "content to parse cannot be null");
+        return parse(new MessageSlice(ByteBuffer.wrap(fin), offset, length, 0, null));
+    }
+
+    /**
+     * @return the service identifier of the basic header, 01 for user messages and 21 for ACK/NAK
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * @return the sender logical terminal address, from the application header in outputs and from the basic
+     * header otherwise
+     */
+    public String getSender() {
+        return sender;
+    }
+
+    /**
+     * @return the receiver address, from the application header in inputs and from the basic header in outputs,
+     * null if there is no application header
+     */
+    public String getReceiver() {
+        return receiver;
+    }
+
+    /**
+     * @return the message type number, for example 103, or null if there is no application header
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return true if the message type matches the parameter
+     */
+    public boolean isType(int type) {
+        return this.type != null && this.type.equals(String.valueOf(type));
+    }
+
+    /**
+     * @return outgoing for input messages, incoming for output messages, null if there is no application header
+     */
+    public MessageIOType getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return true if the application header is an input (sent to SWIFT)
+     */
+    public boolean isInput() {
+        return direction == MessageIOType.outgoing;
+    }
+
+    /**
+     * @return true if the application header is an output (received from SWIFT)
+     */
+    public boolean isOutput() {
+        return direction == MessageIOType.incoming;
+    }
+
+    /**
+     * @return the validation flag (field 119) of the user header, for example STP, or null if not present
+     */
+    public String getValidationFlag() {
+        return validationFlag;
+    }
+
+    /**
+     * @return true if the validation flag is STP
+     */
+    public boolean isStp() {
+        return "STP".equals(validationFlag);
+    }
+
+    /**
+     * @return true if the service identifier is other than 01, the user to user messages
+     */
+    public boolean isServiceMessage() {
+        return serviceId != null && !"01".equals(serviceId);
+    }
+
+    /**
+     * @return true if this is a service 21 message with the accepted status (451:0)
+     */
+    public boolean isAck() {
+        return Boolean.TRUE.equals(accepted);
+    }
+
+    /**
+     * @return true if this is a service 21 message with the rejected status (451:1)
+     */
+    public boolean isNack() {
+        return Boolean.FALSE.equals(accepted);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FinHeader that = (FinHeader) o;
+        return Objects.equals(serviceId, that.serviceId)
+                && Objects.equals(sender, that.sender)
+                && Objects.equals(receiver, that.receiver)
+                && Objects.equals(type, that.type)
+                && direction == that.direction
+                && Objects.equals(validationFlag, that.validationFlag)
+                && Objects.equals(accepted, that.accepted);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(serviceId, sender, receiver, type, direction, validationFlag, accepted);
+    }
+
+    @Override
+    public String toString() {
+        return "FinHeader{serviceId=" + serviceId + ", sender=" + sender + ", receiver=" + receiver + ", type=" + type
+                + ", direction=" + direction + ", validationFlag=" + validationFlag + ", ack=" + isAck() + ", nack=" + isNack() + "}";
+    }
+
+}
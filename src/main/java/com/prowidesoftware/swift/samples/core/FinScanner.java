@@ -0,0 +1,111 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+/**
+ * Helpers to locate the blocks and fields of a FIN message in its raw content, without parsing it.
+ * <p>
+ * All methods work on any {@link CharSequence}, including a {@link MessageSlice} over undecoded bytes, and none of
+ * them allocates except {@link #text(CharSequence, int, int)}.
+ */
+final class FinScanner {
+
+    private FinScanner() {
+    }
+
+    /**
+     * @return true if the content at the index matches the prefix
+     */
+    static boolean startsWith(CharSequence s, int index, String prefix) {
+        if (index < 0 || index + prefix.length() > s.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (s.charAt(index + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the string in the range or -1 if not found
+     */
+    static int indexOf(CharSequence s, String str, int from, int to) {
+        for (int i = from; i <= to - str.length(); i++) {
+            if (startsWith(s, i, str)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the first non blank character from the index
+     */
+    static int skipBlanks(CharSequence s, int index) {
+        while (index < s.length() && s.charAt(index) <= ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return index after the closing brace matching the one at the start index
+     */
+    static int blockEnd(CharSequence s, int start) {
+        int depth = 0;
+        for (int i = start; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return s.length();
+    }
+
+    /**
+     * @return index after the -} terminator of the text block starting at the index
+     */
+    static int textBlockEnd(CharSequence s, int start) {
+        for (int i = start + 3; i < s.length() - 1; i++) {
+            if (s.charAt(i) == '-' && s.charAt(i + 1) == '}') {
+                return i + 2;
+            }
+        }
+        return s.length();
+    }
+
+    /**
+     * @return the text in the range or null if the content is shorter
+     */
+    static String text(CharSequence s, int from, int to) {
+        if (from < 0 || to < from || to > s.length()) {
+            return null;
+        }
+        if (s instanceof String) {
+            return ((String) s).substring(from, to);
+        }
+        char[] chars = new char[to - from];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = s.charAt(from + i);
+        }
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A message template compiled into static byte segments and slots, for the serialization of high volumes of
+ * messages with the same layout where only a few values change.
+ * <p>
+ * The template is a message created with the model API where the variable values are replaced by placeholders
+ * such as <code>${reference}</code>, named with letters, digits and underscores. The placeholders cannot clash
+ * with actual content since the $ and { characters are not part of the SWIFT character sets. A placeholder can be
+ * a whole field value or a part of it, and the same placeholder can appear more than once. For example:
+ * <pre>
+ *     MT103 m = new MT103("FOOSEDR0AXXX", "FOORECV0XXXX");
+ *     m.getSwiftMessage().setUETR("${uetr}");
+ *     m.append(Field20.tag("${reference}"));
+ *     m.append(Field32A.tag("${date}${currency}${amount}"));
+ *     FinTemplate template = new FinTemplate(m);
+ * </pre>
+ * Notice the placeholders are set with the tag helpers, since the field classes would parse them as components.
+ * <p>
+ * The template FIN content is created once with {@link AbstractMT#message()} and split at the placeholders. Then
+ * each message is serialized by a {@link Writer}, copying the segments and the slot values into a reusable
+ * buffer, without creating a message model nor going through the generic serialization. The result is identical
+ * to the {@link AbstractMT#message()} of the same message created with the model API, as long as the values are
+ * formatted as the fields do: text values are written with line breaks as CRLF, and amounts and dates have typed
+ * setters with the SWIFT format.
+ * <p>
+ * The template is immutable and can be shared by threads, while each thread uses its own writer.
+ */
+public class FinTemplate {
+
+    private final Charset charset;
+    private final List<String> names;
+    private final byte[][] segments;
+    private final int[] slots;
+
+    /**
+     * @param template the message with placeholders, encoded as UTF-8
+     */
+    public FinTemplate(AbstractMT template) {
+        this(Objects.requireNonNull(template, "template must not be null").message(), null);
+    }
+
+    /**
+     * @param template the message with placeholders, encoded as UTF-8
+     */
+    public FinTemplate(SwiftMessage template) {
+        this(Objects.requireNonNull(template, "template must not be null").message(), null);
+    }
+
+    /**
+     * @param fin     the FIN content with placeholders
+     * @param charset the charset to encode the messages, UTF-8 if null
+     * @throws IllegalArgumentException if a placeholder is not closed or its name is invalid
+     */
+    public FinTemplate(String fin, Charset charset) {
+        Objects.requireNonNull(fin, "fin must not be null");
+        this.charset = charset != null ? charset : StandardCharsets.UTF_8;
+        final List<String> names = new ArrayList<>();
+        final List<byte[]> segments = new ArrayList<>();
+        final List<Integer> slots = new ArrayList<>();
+        int start = 0;
+        int index;
+        while ((index = fin.indexOf("${", start)) >= 0) {
+            final int end = fin.indexOf('}', index + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("placeholder not closed at index " + index);
+            }
+            final String name = fin.substring(index + 2, end);
+            if (!isName(name)) {
+                throw new IllegalArgumentException("invalid placeholder " + name + " at index " + index);
+            }
+            int slot = names.indexOf(name);
+            if (slot < 0) {
+                slot = names.size();
+                names.add(name);
+            }
+            segments.add(fin.substring(start, index).getBytes(this.charset));
+            slots.add(slot);
+            start = end + 1;
+        }
+        segments.add(fin.substring(start).getBytes(this.charset));
+        this.names = Collections.unmodifiableList(names);
+        this.segments = segments.toArray(new byte[0][]);
+        this.slots = slots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return true if the name is not empty and only has letters, digits and underscores
+     */
+    private static boolean isName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the names of the placeholders, in order of first appearance
+     */
+    public List<String> getSlotNames() {
+        return names;
+    }
+
+    /**
+     * @param name the placeholder name
+     * @return the position of the placeholder in {@link #getSlotNames()}
+     * @throws IllegalArgumentException if the template does not contain the placeholder
+     */
+    public int slot(String name) {
+        final int slot = names.indexOf(name);
+        if (slot < 0) {
+            throw new IllegalArgumentException("placeholder " + name + " not found in template");
+        }
+        return slot;
+    }
+
+    /**
+     * @return a new writer for this template, to be used by a single thread
+     */
+    public Writer writer() {
+        return new Writer(this);
+    }
+
+    /**
+     * Serializes messages of a template, keeping the slot values and the output in reusable buffers.
+     * <p>
+     * The values are kept after each serialization, so only the ones that change need to be set for the next
+     * message. The writer is not thread safe.
+     */
+    public static class Writer {
+        private final FinTemplate template;
+        private final byte[][] values;
+        private final int[] lengths;
+        private final byte[] digits = new byte[20];
+        private byte[] buffer = new byte[1024];
+        private int length = -1;
+
+        private Writer(FinTemplate template) {
+            this.template = template;
+            this.values = new byte[template.names.size()][];
+            this.lengths = new int[template.names.size()];
+            Arrays.fill(lengths, -1);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new byte[32];
+            }
+        }
+
+        /**
+         * Sets the text of a slot, writing any line break as CRLF.
+         *
+         * @param slot  the placeholder position
+         * @param value the text, null is written as empty
+         */
+        public Writer set(int slot, CharSequence value) {
+            lengths[slot] = 0;
+            if (value != null) {
+                for (int i = 0; i < value.length(); i++) {
+                    final char c = value.charAt(i);
+                    if (c == '\r' || c == '\n') {
+                        put(slot, (byte) '\r');
+                        put(slot, (byte) '\n');
+                        if (c == '\r' && i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+                            i++;
+                        }
+                    } else if (c < 0x80) {
+                        put(slot, (byte) c);
+                    } else {
+                        for (byte b : String.valueOf(c).getBytes(template.charset)) {
+                            put(slot, b);
+                        }
+                    }
+                }
+            }
+            length = -1;
+            return this;
+        }
+
+        /**
+         * Sets the text of a placeholder.
+         *
+         * @see #set(int, CharSequence)
+         */
+        public Writer set(String name, CharSequence value) {
+            return set(template.slot(name), value);
+        }
+
+        /**
+         * Sets an amount in SWIFT format, with comma as decimal separator and no trailing zeros in the decimal
+         * part, such as 1234,5 or 3000,
+         *
+         * @param slot   the placeholder position
+         * @param amount a positive or zero amount
+         * @throws IllegalArgumentException if the amount is negative or has more than 18 digits
+         */
+        public Writer setAmount(int slot, BigDecimal amount) {
+            Objects.requireNonNull(amount, "amount must not be null");
+            BigDecimal value = amount.stripTrailingZeros();
+            if (value.scale() < 0) {
+                value = value.setScale(0);
+            }
+            if (value.precision() > 18) {
+                throw new IllegalArgumentException("amount " + amount + " exceeds 18 digits");
+            }
+            return setAmount(slot, value.unscaledValue().longValue(), value.scale());
+        }
+
+        /**
+         * Sets an amount in SWIFT format, from its value in units of the scale, for example 123450 with scale 2 is
+         * written as 1234,5
+         *
+         * @param slot  the placeholder position
+         * @param units the amount without decimal point, positive or zero
+         * @param scale number of decimal digits in the units, zero or positive
+         * @throws IllegalArgumentException if the units or the scale are negative
+         */
+        public Writer setAmount(int slot, long units, int scale) {
+            if (units < 0 || scale < 0) {
+                throw new IllegalArgumentException("amount units " + units + " and scale " + scale + " must not be negative");
+            }
+            while (scale > 0 && units % 10 == 0) {
+                units /= 10;
+                scale--;
+            }
+            int count = 0;
+            do {
+                digits[count++] = (byte) ('0' + units % 10);
+                units /= 10;
+            } while (units > 0);
+            lengths[slot] = 0;
+            for (int i = Math.max(count, scale + 1) - 1; i >= 0; i--) {
+                put(slot, i < count ? digits[i] : (byte) '0');
+                if (i == scale) {
+                    put(slot, (byte) ',');
+                }
+            }
+            length = -1;
+            return this;
+        }
+
+        /**
+         * Sets a date in SWIFT format YYMMDD
+         *
+         * @param slot the placeholder position
+         * @param date the date
+         */
+        public Writer setDate(int slot, LocalDate date) {
+            Objects.requireNonNull(date, "date must not be null");
+            lengths[slot] = 0;
+            putTwoDigits(slot, date.getYear() % 100);
+            putTwoDigits(slot, date.getMonthValue());
+            putTwoDigits(slot, date.getDayOfMonth());
+            length = -1;
+            return this;
+        }
+
+        /**
+         * Removes all the slot values
+         */
+        public Writer clear() {
+            Arrays.fill(lengths, -1);
+            length = -1;
+            return this;
+        }
+
+        /**
+         * @return the length in bytes of the serialized message
+         * @throws IllegalStateException if a slot has not been set
+         */
+        public int length() {
+            serialize();
+            return length;
+        }
+
+        /**
+         * Writes the serialized message to the stream.
+         *
+         * @param out the destination stream
+         * @throws IOException           if an error occurs writing to the stream
+         * @throws IllegalStateException if a slot has not been set
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            serialize();
+            out.write(buffer, 0, length);
+        }
+
+        /**
+         * Returns the serialized message over the writer buffer, without copying it, for example to write it
+         * with a {@link BufferedRJEWriter}. The content is only valid until the writer is modified.
+         *
+         * @return the serialized message
+         * @throws IllegalStateException if a slot has not been set
+         */
+        public MessageSlice toSlice() {
+            serialize();
+            return new MessageSlice(ByteBuffer.wrap(buffer), 0, length, 0, template.charset);
+        }
+
+        /**
+         * @return a copy of the serialized message
+         * @throws IllegalStateException if a slot has not been set
+         */
+        public byte[] toByteArray() {
+            serialize();
+            return Arrays.copyOf(buffer, length);
+        }
+
+        /**
+         * @return the serialized message decoded with the template charset
+         * @throws IllegalStateException if a slot has not been set
+         */
+        @Override
+        public String toString() {
+            serialize();
+            return new String(buffer, 0, length, template.charset);
+        }
+
+        /**
+         * Copies the segments and the slot values into the buffer, unless it is up to date
+         */
+        private void serialize() {
+            if (length >= 0) {
+                return;
+            }
+            final byte[][] segments = template.segments;
+            final int[] slots = template.slots;
+            int size = segments[slots.length].length;
+            for (int i = 0; i < slots.length; i++) {
+                if (lengths[slots[i]] < 0) {
+                    throw new IllegalStateException("placeholder " + template.names.get(slots[i]) + " not set");
+                }
+                size += segments[i].length + lengths[slots[i]];
+            }
+            if (buffer.length < size) {
+                buffer = new byte[Math.max(size, buffer.length * 2)];
+            }
+            int position = 0;
+            for (int i = 0; i < slots.length; i++) {
+                System.arraycopy(segments[i], 0, buffer, position, segments[i].length);
+                position += segments[i].length;
+                System.arraycopy(values[slots[i]], 0, buffer, position, lengths[slots[i]]);
+                position += lengths[slots[i]];
+            }
+            System.arraycopy(segments[slots.length], 0, buffer, position, segments[slots.length].length);
+            length = size;
+        }
+
+        private void putTwoDigits(int slot, int value) {
+            put(slot, (byte) ('0' + value / 10));
+            put(slot, (byte) ('0' + value % 10));
+        }
+
+        private void put(int slot, byte b) {
+            if (lengths[slot] == values[slot].length) {
+                values[slot] = Arrays.copyOf(values[slot], values[slot].length * 2);
+            }
+            values[slot][lengths[slot]++] = b;
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.Tag;
+
+import java.util.List;
+
+/**
+ * Helpers to write block 4 tags directly in FIN format, with the same output as {@link
+ * com.prowidesoftware.swift.model.SwiftMessage#message()}: ":name:value" followed by CRLF, where any line break
+ * inside the value is also written as CRLF and a null value is written as empty.
+ */
+final class FinWriter {
+
+    private FinWriter() {
+    }
+
+    /**
+     * @return the length of the tag in FIN format
+     * @see MessagePaginator#finLength(Tag)
+     */
+    static int tagLength(String name, CharSequence value) {
+        int length = name.length() + 4;
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '\r' || c == '\n') {
+                    length += 2;
+                    if (c == '\r' && i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                } else {
+                    length++;
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Appends the tag in FIN format, copying the value in runs between line breaks
+     */
+    static void appendTag(StringBuilder sb, String name, CharSequence value) {
+        sb.append(':').append(name).append(':');
+        if (value != null) {
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '\r' || c == '\n') {
+                    sb.append(value, start, i).append("\r\n");
+                    if (c == '\r' && i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    start = i + 1;
+                }
+            }
+            sb.append(value, start, value.length());
+        }
+        sb.append("\r\n");
+    }
+
+    /**
+     * Appends the tags in FIN format
+     */
+    static void appendTags(StringBuilder sb, List<Tag> tags) {
+        for (int i = 0; i < tags.size(); i++) {
+            final Tag tag = tags.get(i);
+            appendTag(sb, tag.getName(), tag.getValue());
+        }
+    }
+
+}
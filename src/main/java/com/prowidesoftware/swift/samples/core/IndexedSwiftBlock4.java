@@ -0,0 +1,421 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Block 4 with an index of its tags by name, number and qualifier, so the tag and field lookups do not scan the
+ * whole tag list on each call.
+ * <p>
+ * The block overrides the lookup methods of {@link com.prowidesoftware.swift.model.SwiftTagListBlock}, such as
+ * {@link #getTagByName(String)}, {@link #getTagsByNumber(int)} or {@link #getFieldsByName(String, String)}, with
+ * the same results. Thus once a message block 4 is replaced with {@link #index(SwiftMessage)} the MT getters, for
+ * example {@code new MT540(message).getField95P()}, use the index as well.
+ * <p>
+ * The index is built on the first lookup and rebuilt on the first lookup after the tag list changes, either with
+ * the block methods or with the list returned by {@link #getTags()}. The list passed to {@link #setTags(List)} is
+ * copied. Changes to the name or value of a tag already in the block are not detected, call {@link #invalidate()}
+ * after them. The 16R/16S sequences are indexed as well, with {@link #getSequenceIndex()}.
+ * <p>
+ * The qualifier lookups, with the component 1 parameter of {@link #getFieldsByName(String, String)} and similar
+ * methods, use the text between the starting colon and the first slash of the tag values, as in
+ * {@code :PSET//XXXXXX}; the candidate fields are still checked with {@link Field#is(String)}.
+ * <p>
+ * As {@link com.prowidesoftware.swift.model.SwiftTagListBlock#equals(Object)} compares the block classes, an
+ * indexed block is not equal to a plain {@link SwiftBlock4} with the same tags. The block is not thread safe.
+ */
+public class IndexedSwiftBlock4 extends SwiftBlock4 {
+    private static final Logger log = Logger.getLogger(IndexedSwiftBlock4.class.getName());
+    private static final long serialVersionUID = 1L;
+
+    private transient TagList indexedList;
+    private transient int indexedModCount;
+    private transient int indexedVersion;
+    private transient Index index;
+    private transient SequenceIndex sequences;
+
+    public IndexedSwiftBlock4() {
+        super();
+        setTags((List<Tag>) null);
+    }
+
+    /**
+     * @param tags the block tags, the list is copied
+     */
+    public IndexedSwiftBlock4(List<Tag> tags) {
+        super();
+        setTags(tags);
+    }
+
+    /**
+     * Replaces the block 4 of the message with an indexed block with the same tags, if not indexed yet.
+     *
+     * @param message the message
+     * @return the indexed block 4 of the message, or null if the message has no block 4
+     */
+    public static IndexedSwiftBlock4 index(SwiftMessage message) {
+        Objects.requireNonNull(message, "message must not be null");
+        final SwiftBlock4 block4 = message.getBlock4();
+        if (block4 == null || block4 instanceof IndexedSwiftBlock4) {
+            return (IndexedSwiftBlock4) block4;
+        }
+        final IndexedSwiftBlock4 indexed = new IndexedSwiftBlock4(block4.getTags());
+        message.setBlock4(indexed);
+        return indexed;
+    }
+
+    /**
+     * @param tags the block tags, the list is copied
+     */
+    @Override
+    public void setTags(List<Tag> tags) {
+        super.setTags(tags == null ? new TagList() : new TagList(tags));
+        invalidate();
+    }
+
+    /**
+     * Discards the index, to be rebuilt on the next lookup. Only needed after changing the name or value of a tag
+     * in the block.
+     */
+    public void invalidate() {
+        index = null;
+        sequences = null;
+    }
+
+    /**
+     * Gets the 16R/16S sequences of the block, indexed on the first call and again after the block changes.
+     *
+     * @return the sequence index of the block tags
+     */
+    public SequenceIndex getSequenceIndex() {
+        final TagList list = current();
+        if (sequences == null) {
+            sequences = SequenceIndex.of(list);
+        }
+        return sequences;
+    }
+
+    @Override
+    public Tag getTagByName(String name) {
+        Objects.requireNonNull(name, "parameter 'name' cannot not be null");
+        final Positions positions = index().byName(name);
+        return positions == null ? null : getTags().get(positions.items[0]);
+    }
+
+    @Override
+    public Tag[] getTagsByName(String name) {
+        Objects.requireNonNull(name, "parameter 'name' cannot not be null");
+        final Positions positions = index().byName(name);
+        if (positions == null) {
+            return new Tag[0];
+        }
+        final List<Tag> tags = getTags();
+        final Tag[] result = new Tag[positions.size];
+        for (int i = 0; i < positions.size; i++) {
+            result[i] = tags.get(positions.items[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Tag> getTagsByName(String name, String component1) {
+        Objects.requireNonNull(name, "parameter 'name' cannot not be null");
+        final Positions positions = index().candidates(name, component1);
+        final List<Tag> result = new ArrayList<>();
+        if (positions == null) {
+            return result;
+        }
+        final List<Tag> tags = getTags();
+        for (int i = 0; i < positions.size; i++) {
+            final Tag tag = tags.get(positions.items[i]);
+            if (component1 == null) {
+                result.add(tag);
+            } else {
+                final Field field = tag.asField();
+                if (field != null && field.is(component1)) {
+                    result.add(tag);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int countByName(String name) {
+        Objects.requireNonNull(name, "parameter 'name' cannot not be null");
+        final Positions positions = index().byName(name);
+        return positions == null ? 0 : positions.size;
+    }
+
+    @Override
+    public Tag getTagByNumber(int number) {
+        final Positions positions = index().byNumber.get(number);
+        return positions == null ? null : getTags().get(positions.items[0]);
+    }
+
+    @Override
+    public List<Tag> getTagsByNumber(int number) {
+        final Positions positions = index().byNumber.get(number);
+        final List<Tag> result = new ArrayList<>();
+        if (positions != null) {
+            final List<Tag> tags = getTags();
+            for (int i = 0; i < positions.size; i++) {
+                result.add(tags.get(positions.items[i]));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Field getFieldByName(String name, String component1) {
+        Objects.requireNonNull(name, "parameter 'name' cannot not be null");
+        final Positions positions = index().candidates(name, component1);
+        if (positions != null) {
+            final List<Tag> tags = getTags();
+            for (int i = 0; i < positions.size; i++) {
+                final Field field = asField(tags.get(positions.items[i]), component1);
+                if (field != null) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<? extends Field> getFieldsByName(String name, String component1) {
+        Objects.requireNonNull(name, "parameter 'name' cannot not be null");
+        final Positions positions = index().candidates(name, component1);
+        final List<Field> result = new ArrayList<>();
+        if (positions != null) {
+            final List<Tag> tags = getTags();
+            for (int i = 0; i < positions.size; i++) {
+                final Field field = asField(tags.get(positions.items[i]), component1);
+                if (field != null) {
+                    result.add(field);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the tag as field if its component 1 matches, or null
+     */
+    private static Field asField(Tag tag, String component1) {
+        final Field field = tag.asField();
+        if (field == null) {
+            log.warning("Could not create field instance of " + tag);
+            return null;
+        }
+        return component1 == null || field.is(component1) ? field : null;
+    }
+
+    /**
+     * @return the index, rebuilt if the tag list changed since it was created
+     */
+    private Index index() {
+        final TagList list = current();
+        if (index == null) {
+            index = new Index(list);
+        }
+        return index;
+    }
+
+    /**
+     * @return the tag list, discarding the indexes if it changed since they were created
+     */
+    private TagList current() {
+        if (!(getTags() instanceof TagList)) {
+            // the super class replaces a null list, only possible with reflection or serialization
+            setTags(getTags());
+        }
+        final TagList list = (TagList) getTags();
+        if (list != indexedList || list.modCount() != indexedModCount || list.version != indexedVersion) {
+            indexedList = list;
+            indexedModCount = list.modCount();
+            indexedVersion = list.version;
+            invalidate();
+        }
+        return list;
+    }
+
+    /**
+     * Tag list that counts the changes, {@link java.util.AbstractList#modCount} counts the structural changes only
+     * and the replacements are counted separately so the list iterators are not affected
+     */
+    private static final class TagList extends ArrayList<Tag> {
+        private static final long serialVersionUID = 1L;
+        private int version = 0;
+
+        TagList() {
+            super();
+        }
+
+        TagList(Collection<Tag> tags) {
+            super(tags);
+        }
+
+        int modCount() {
+            return modCount;
+        }
+
+        @Override
+        public Tag set(int index, Tag element) {
+            version++;
+            return super.set(index, element);
+        }
+    }
+
+    /**
+     * Positions of the tags of the list, in order, by name, by number, and by name and qualifier
+     */
+    private static final class Index {
+        private final Map<String, Entry> byName = new HashMap<>();
+        private final Map<Integer, Positions> byNumber = new HashMap<>();
+
+        Index(List<Tag> list) {
+            for (int i = 0; i < list.size(); i++) {
+                final Tag tag = list.get(i);
+                if (tag == null) {
+                    continue;
+                }
+                final Integer number = tag.getNumber();
+                if (number != null) {
+                    byNumber.computeIfAbsent(number, k -> new Positions()).add(i);
+                }
+                if (tag.getName() != null) {
+                    byName.computeIfAbsent(tag.getName(), k -> new Entry()).add(i, tag.getValue());
+                }
+            }
+        }
+
+        Positions byName(String name) {
+            final Entry entry = byName.get(name);
+            return entry == null ? null : entry.all;
+        }
+
+        /**
+         * @param name       a tag name or a field number with the "a" letter option wildcard
+         * @param component1 the qualifier or null
+         * @return the positions of the tags that may match, in order, or null if none
+         */
+        Positions candidates(String name, String component1) {
+            if (name.endsWith("a")) {
+                final String prefix = name.substring(0, name.length() - 1);
+                Positions result = null;
+                for (Map.Entry<String, Entry> e : byName.entrySet()) {
+                    if (e.getKey().startsWith(prefix)) {
+                        result = Positions.merge(result, e.getValue().candidates(component1));
+                    }
+                }
+                return result;
+            }
+            final Entry entry = byName.get(name);
+            return entry == null ? null : entry.candidates(component1);
+        }
+    }
+
+    /**
+     * Positions of the tags with the same name
+     */
+    private static final class Entry {
+        private final Positions all = new Positions();
+        private final Map<String, Positions> byQualifier = new HashMap<>();
+        private Positions unqualified;
+
+        void add(int position, String value) {
+            all.add(position);
+            final String qualifier = qualifier(value);
+            if (qualifier != null) {
+                byQualifier.computeIfAbsent(qualifier, k -> new Positions()).add(position);
+            } else {
+                if (unqualified == null) {
+                    unqualified = new Positions();
+                }
+                unqualified.add(position);
+            }
+        }
+
+        Positions candidates(String component1) {
+            return component1 == null ? all : Positions.merge(byQualifier.get(component1), unqualified);
+        }
+
+        /**
+         * @return the text between the starting colon and the first slash, or null if the value has no colon
+         */
+        private static String qualifier(String value) {
+            if (value == null || value.isEmpty() || value.charAt(0) != ':') {
+                return null;
+            }
+            final int slash = value.indexOf('/', 1);
+            return value.substring(1, slash < 0 ? value.length() : slash);
+        }
+    }
+
+    /**
+     * Growable list of tag positions in increasing order
+     */
+    private static final class Positions {
+        private int[] items = new int[2];
+        private int size = 0;
+
+        void add(int position) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = position;
+        }
+
+        /**
+         * @return the positions of both lists in order, or one of the lists if the other one is null or empty
+         */
+        static Positions merge(Positions a, Positions b) {
+            if (a == null || a.size == 0) {
+                return b;
+            }
+            if (b == null || b.size == 0) {
+                return a;
+            }
+            final Positions result = new Positions();
+            result.items = new int[a.size + b.size];
+            int i = 0;
+            int j = 0;
+            while (i < a.size || j < b.size) {
+                if (j == b.size || (i < a.size && a.items[i] < b.items[j])) {
+                    result.items[result.size++] = a.items[i++];
+                } else {
+                    result.items[result.size++] = b.items[j++];
+                }
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,715 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Decoder of the JSON created by {@link SwiftMessage#toJson()}, or by {@link NDJSONWriter}, back into a message or
+ * directly into its FIN content.
+ * <p>
+ * The JSON is read token by token with the known structure of the toJson adapters, the string values are unescaped
+ * into a buffer that is reused for all messages, and the FIN content is written from that buffer with the same
+ * rules of {@link SwiftMessage#message()}, so no JSON tree, intermediate blocks nor Strings are created per
+ * message. Both pretty printed and compact JSON are supported, and properties not used by the message model, such
+ * as the timestamp, are skipped.
+ * <p>
+ * The few structures not covered by the direct decoding, such as user blocks or unparsed texts, as well as
+ * malformed JSON, are delegated to {@link SwiftMessage#fromJson(String)}, so the result is always the same as with
+ * the generic deserialization.
+ * <p>
+ * This class is not thread safe, use one instance per thread. For batch conversion see
+ * {@link NDJSONToRJEConverter}.
+ */
+public class JsonMessageDecoder {
+    private static final String[] ROOT = {"data"};
+    private static final String[] DATA = {"block1", "block2", "block3", "block4", "block5", "userBlocks"};
+    private static final String[] BLOCK1 = {"applicationId", "serviceId", "logicalTerminal", "sessionNumber", "sequenceNumber", "unparsedTexts"};
+    private static final String[] BLOCK1_DEFAULTS = {"F", "01", null, "0000", "000000"};
+    private static final String[] BLOCK2 = {"messageType", "messagePriority", "direction",
+            "receiverAddress", "deliveryMonitoring", "obsolescencePeriod",
+            "senderInputTime", "MIRDate", "MIRLogicalTerminal", "MIRSessionNumber", "MIRSequenceNumber",
+            "receiverOutputDate", "receiverOutputTime", "unparsedTexts"};
+    private static final String[] TAG_BLOCK = {"tags", "unparsedTexts"};
+    private static final String[] TAG = {"name", "value", "unparsedTexts"};
+
+    private static final int TYPE = 0, PRIORITY = 1, DIRECTION = 2, RECEIVER = 3, MONITORING = 4, OBSOLESCENCE = 5,
+            INPUT_TIME = 6, MIR_DATE = 7, MIR_LT = 8, MIR_SESSION = 9, MIR_SEQUENCE = 10, OUTPUT_DATE = 11,
+            OUTPUT_TIME = 12;
+    private static final int[] INPUT_VALUE = {TYPE, RECEIVER, PRIORITY, MONITORING, OBSOLESCENCE};
+    private static final int[] OUTPUT_VALUE = {TYPE, INPUT_TIME, MIR_DATE, MIR_LT, MIR_SESSION, MIR_SEQUENCE, OUTPUT_DATE, OUTPUT_TIME, PRIORITY};
+
+    private static final Unsupported UNSUPPORTED = new Unsupported();
+
+    /*
+     * decoded strings, referenced by start and end offsets with -1 for null values
+     */
+    private char[] text = new char[8 * 1024];
+    private int textLength;
+
+    private CharSequence in;
+    private int pos;
+
+    private boolean block1;
+    private final int[] b1 = new int[BLOCK1_DEFAULTS.length * 2];
+    private boolean block2;
+    private final int[] b2 = new int[OUTPUT_TIME * 2 + 2];
+    private final boolean[] tagBlock = new boolean[3];
+    private final boolean[] nullTags = new boolean[3];
+    private final int[] tagCount = new int[3];
+    private final int[][] tags = {new int[4 * 16], new int[4 * 64], new int[4 * 16]};
+
+    /**
+     * Decodes the JSON into a message, with the same result of {@link SwiftMessage#fromJson(String)}.
+     *
+     * @param json a message serialized with toJson
+     * @return the decoded message
+     */
+    public SwiftMessage decode(CharSequence json) {
+        Objects.requireNonNull(json, "json must not be null");
+        if (!read(json)) {
+            return SwiftMessage.fromJson(json.toString());
+        }
+        SwiftMessage msg = new SwiftMessage();
+        if (block1) {
+            SwiftBlock1 b = new SwiftBlock1();
+            b.setApplicationId(string(b1, 0));
+            b.setServiceId(string(b1, 1));
+            b.setLogicalTerminal(string(b1, 2));
+            b.setSessionNumber(string(b1, 3));
+            b.setSequenceNumber(string(b1, 4));
+            msg.addBlock(b);
+        }
+        if (block2) {
+            SwiftBlock2 b;
+            if (isOutput()) {
+                SwiftBlock2Output output = new SwiftBlock2Output();
+                output.setSenderInputTime(string(b2, INPUT_TIME));
+                output.setMIRDate(string(b2, MIR_DATE));
+                output.setMIRLogicalTerminal(string(b2, MIR_LT));
+                output.setMIRSessionNumber(string(b2, MIR_SESSION));
+                output.setMIRSequenceNumber(string(b2, MIR_SEQUENCE));
+                output.setReceiverOutputDate(string(b2, OUTPUT_DATE));
+                output.setReceiverOutputTime(string(b2, OUTPUT_TIME));
+                b = output;
+            } else {
+                SwiftBlock2Input input = new SwiftBlock2Input();
+                input.setReceiverAddress(string(b2, RECEIVER));
+                input.setDeliveryMonitoring(string(b2, MONITORING));
+                input.setObsolescencePeriod(string(b2, OBSOLESCENCE));
+                b = input;
+            }
+            b.setMessageType(string(b2, TYPE));
+            b.setMessagePriority(string(b2, PRIORITY));
+            msg.addBlock(b);
+        }
+        SwiftTagListBlock[] blocks = {new SwiftBlock3(), new SwiftBlock4(), new SwiftBlock5()};
+        for (int i = 0; i < blocks.length; i++) {
+            if (tagBlock[i]) {
+                if (nullTags[i]) {
+                    blocks[i].setTags((List<Tag>) null);
+                } else {
+                    List<Tag> list = new ArrayList<>(tagCount[i]);
+                    for (int t = 0; t < tagCount[i]; t++) {
+                        Tag tag = new Tag();
+                        final String name = string(tags[i], t * 2);
+                        if (name != null) {
+                            tag.setName(name);
+                        }
+                        tag.setValue(string(tags[i], t * 2 + 1));
+                        list.add(tag);
+                    }
+                    blocks[i].setTags(list);
+                }
+                msg.addBlock(blocks[i]);
+            }
+        }
+        return msg;
+    }
+
+    /**
+     * Decodes the JSON into its FIN content.
+     *
+     * @param json a message serialized with toJson
+     * @return the FIN content, the same of {@link SwiftMessage#message()} for the message decoded from the JSON
+     */
+    public String toFin(CharSequence json) {
+        StringBuilder fin = new StringBuilder(json.length() / 2);
+        appendFin(json, fin);
+        return fin.toString();
+    }
+
+    /**
+     * Decodes the JSON and appends its FIN content, the same of {@link SwiftMessage#message()} for the message
+     * decoded from the JSON.
+     *
+     * @param json a message serialized with toJson
+     * @param fin  where to append the FIN content
+     */
+    public void appendFin(CharSequence json, StringBuilder fin) {
+        Objects.requireNonNull(json, "json must not be null");
+        if (!read(json)) {
+            fin.append(SwiftMessage.fromJson(json.toString()).message());
+            return;
+        }
+        /*
+         * as in the FIN writer, empty blocks are skipped and block 4 is written as block tags for system messages
+         * and non financial applications
+         */
+        boolean block4asText = true;
+        if (block1 && !isNull(b1, 0, b1.length / 2)) {
+            fin.append("{1:");
+            final int start = fin.length();
+            boolean cr = false;
+            for (int i = 0; i < b1.length / 2; i++) {
+                cr = append(fin, b1, i, cr);
+            }
+            if (fin.length() > start && !(equals(b1, 0, "F") && equals(b1, 1, "01"))) {
+                block4asText = false;
+            }
+            fin.append('}');
+        }
+        if (block2) {
+            final boolean output = isOutput();
+            final int[] fields = output ? OUTPUT_VALUE : INPUT_VALUE;
+            boolean empty = true;
+            for (int field : fields) {
+                empty &= b2[field * 2] < 0;
+            }
+            if (!empty) {
+                fin.append("{2:").append(output ? 'O' : 'I');
+                boolean cr = false;
+                for (int field : fields) {
+                    cr = append(fin, b2, field, cr);
+                }
+                fin.append('}');
+                if (isSystemMessage()) {
+                    block4asText = false;
+                }
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            if (!tagBlock[i] || nullTags[i] || tagCount[i] == 0) {
+                continue;
+            }
+            final int[] list = tags[i];
+            fin.append('{').append(i + 3).append(':');
+            if (i == 1 && block4asText) {
+                fin.append("\r\n");
+                for (int t = 0; t < tagCount[i]; t++) {
+                    if (!isEmpty(list, t * 2)) {
+                        fin.append(':');
+                        append(fin, list, t * 2, false);
+                        fin.append(':');
+                        append(fin, list, t * 2 + 1, false);
+                        fin.append("\r\n");
+                    }
+                }
+                fin.append('-');
+            } else {
+                for (int t = 0; t < tagCount[i]; t++) {
+                    final boolean noName = isEmpty(list, t * 2);
+                    if (noName && isEmpty(list, t * 2 + 1)) {
+                        continue;
+                    }
+                    fin.append('{');
+                    if (!noName) {
+                        append(fin, list, t * 2, false);
+                        fin.append(':');
+                    }
+                    append(fin, list, t * 2 + 1, false);
+                    fin.append('}');
+                }
+            }
+            fin.append('}');
+        }
+    }
+
+    /**
+     * Reads the JSON into the decoder state
+     *
+     * @return false if the JSON must be decoded with the generic deserialization
+     */
+    private boolean read(CharSequence json) {
+        this.in = json;
+        this.pos = 0;
+        this.textLength = 0;
+        try {
+            boolean data = false;
+            expect('{');
+            if (!next('}')) {
+                do {
+                    if (member(ROOT) == 0) {
+                        data();
+                        data = true;
+                    } else {
+                        skipValue();
+                    }
+                } while (next(','));
+                expect('}');
+            }
+            skipWhitespace();
+            return data && pos == in.length();
+        } catch (Unsupported | IndexOutOfBoundsException e) {
+            return false;
+        } finally {
+            this.in = null;
+        }
+    }
+
+    private void data() {
+        block1 = false;
+        block2 = false;
+        Arrays.fill(tagBlock, false);
+        expect('{');
+        if (next('}')) {
+            return;
+        }
+        do {
+            final int block = member(DATA);
+            if (block < 0) {
+                skipValue();
+            } else if (block == 5) {
+                // user blocks are not created by toJson
+                throw UNSUPPORTED;
+            } else if (nextNull()) {
+                if (block == 0) {
+                    block1 = false;
+                } else if (block == 1) {
+                    block2 = false;
+                } else {
+                    tagBlock[block - 2] = false;
+                }
+            } else if (block == 0) {
+                block1();
+            } else if (block == 1) {
+                block2();
+            } else {
+                tagBlock(block - 2);
+            }
+        } while (next(','));
+        expect('}');
+    }
+
+    private void block1() {
+        block1 = true;
+        for (int i = 0; i < BLOCK1_DEFAULTS.length; i++) {
+            constant(b1, i, BLOCK1_DEFAULTS[i]);
+        }
+        expect('{');
+        if (next('}')) {
+            return;
+        }
+        do {
+            final int field = member(BLOCK1);
+            if (field < 0) {
+                skipValue();
+            } else if (field == BLOCK1.length - 1) {
+                unparsedTexts();
+            } else {
+                string(b1, field, true);
+            }
+        } while (next(','));
+        expect('}');
+    }
+
+    private void block2() {
+        block2 = true;
+        Arrays.fill(b2, -1);
+        constant(b2, PRIORITY, "N");
+        expect('{');
+        if (next('}')) {
+            return;
+        }
+        do {
+            final int field = member(BLOCK2);
+            if (field < 0) {
+                skipValue();
+            } else if (field == BLOCK2.length - 1) {
+                unparsedTexts();
+            } else {
+                // the block 2 adapter does not accept null values
+                string(b2, field, false);
+            }
+        } while (next(','));
+        expect('}');
+    }
+
+    private void tagBlock(int index) {
+        tagBlock[index] = true;
+        nullTags[index] = false;
+        tagCount[index] = 0;
+        expect('{');
+        if (next('}')) {
+            return;
+        }
+        do {
+            final int field = member(TAG_BLOCK);
+            if (field < 0) {
+                skipValue();
+            } else if (field == 1) {
+                unparsedTexts();
+            } else if (nextNull()) {
+                nullTags[index] = true;
+                tagCount[index] = 0;
+            } else {
+                nullTags[index] = false;
+                tagCount[index] = 0;
+                tags(index);
+            }
+        } while (next(','));
+        expect('}');
+    }
+
+    private void tags(int index) {
+        expect('[');
+        if (next(']')) {
+            return;
+        }
+        do {
+            final int t = tagCount[index]++;
+            if (tags[index].length < (t + 1) * 4) {
+                tags[index] = Arrays.copyOf(tags[index], tags[index].length * 2);
+            }
+            final int[] list = tags[index];
+            list[t * 4] = list[t * 4 + 1] = list[t * 4 + 2] = list[t * 4 + 3] = -1;
+            expect('{');
+            if (!next('}')) {
+                do {
+                    final int field = member(TAG);
+                    if (field < 0) {
+                        skipValue();
+                    } else if (field == 2) {
+                        unparsedTexts();
+                    } else {
+                        string(list, t * 2 + field, true);
+                    }
+                } while (next(','));
+                expect('}');
+            }
+        } while (next(','));
+        expect(']');
+    }
+
+    private void unparsedTexts() {
+        if (!nextNull()) {
+            throw UNSUPPORTED;
+        }
+    }
+
+    private boolean isOutput() {
+        return equals(b2, DIRECTION, "O");
+    }
+
+    private boolean isSystemMessage() {
+        int start = b2[TYPE * 2];
+        final int end = b2[TYPE * 2 + 1];
+        while (start >= 0 && start < end && text[start] <= ' ') {
+            start++;
+        }
+        return start >= 0 && start < end && text[start] == '0';
+    }
+
+    /*
+     * JSON tokens
+     */
+
+    private void skipWhitespace() {
+        final int length = in.length();
+        while (pos < length) {
+            final char c = in.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (in.charAt(pos) != c) {
+            throw UNSUPPORTED;
+        }
+        pos++;
+    }
+
+    /**
+     * @return true if the next token is the character, which is consumed
+     */
+    private boolean next(char c) {
+        skipWhitespace();
+        if (pos < in.length() && in.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the next token is a null literal, which is consumed
+     */
+    private boolean nextNull() {
+        skipWhitespace();
+        if (pos + 4 <= in.length() && in.charAt(pos) == 'n' && in.charAt(pos + 1) == 'u' && in.charAt(pos + 2) == 'l'
+                && in.charAt(pos + 3) == 'l') {
+            pos += 4;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads a member name and the following colon
+     *
+     * @return the index of the name in the array, -1 if it is not found
+     */
+    private int member(String[] names) {
+        final int start = textLength;
+        readString();
+        final int length = textLength - start;
+        textLength = start;
+        expect(':');
+        for (int i = 0; i < names.length; i++) {
+            final String name = names[i];
+            if (name.length() == length) {
+                int j = 0;
+                while (j < length && name.charAt(j) == text[start + j]) {
+                    j++;
+                }
+                if (j == length) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a string value into the field offsets
+     */
+    private void string(int[] offsets, int field, boolean nullable) {
+        if (nextNull()) {
+            if (!nullable) {
+                throw UNSUPPORTED;
+            }
+            offsets[field * 2] = offsets[field * 2 + 1] = -1;
+            return;
+        }
+        offsets[field * 2] = textLength;
+        readString();
+        offsets[field * 2 + 1] = textLength;
+    }
+
+    private void constant(int[] offsets, int field, String value) {
+        if (value == null) {
+            offsets[field * 2] = offsets[field * 2 + 1] = -1;
+            return;
+        }
+        ensureCapacity(value.length());
+        offsets[field * 2] = textLength;
+        value.getChars(0, value.length(), text, textLength);
+        textLength += value.length();
+        offsets[field * 2 + 1] = textLength;
+    }
+
+    /**
+     * Reads a string token, unescaping its content into the text buffer
+     */
+    private void readString() {
+        expect('"');
+        while (true) {
+            char c = in.charAt(pos++);
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = in.charAt(pos++);
+                switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'u':
+                        c = (char) (hex(pos) << 12 | hex(pos + 1) << 8 | hex(pos + 2) << 4 | hex(pos + 3));
+                        pos += 4;
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        break;
+                    default:
+                        throw UNSUPPORTED;
+                }
+            } else if (c < 0x20) {
+                throw UNSUPPORTED;
+            }
+            if (textLength == text.length) {
+                ensureCapacity(1);
+            }
+            text[textLength++] = c;
+        }
+    }
+
+    private int hex(int index) {
+        final char c = in.charAt(index);
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        throw UNSUPPORTED;
+    }
+
+    /**
+     * Skips a value of a property not used by the message model
+     */
+    private void skipValue() {
+        skipWhitespace();
+        final char c = in.charAt(pos);
+        if (c == '"') {
+            final int start = textLength;
+            readString();
+            textLength = start;
+        } else if (c == '{' || c == '[') {
+            final char close = c == '{' ? '}' : ']';
+            pos++;
+            if (next(close)) {
+                return;
+            }
+            do {
+                if (c == '{') {
+                    member(ROOT);
+                }
+                skipValue();
+            } while (next(','));
+            expect(close);
+        } else {
+            // literals and numbers
+            final int start = pos;
+            while (pos < in.length() && "{}[],: \t\r\n\"".indexOf(in.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (pos == start) {
+                throw UNSUPPORTED;
+            }
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + length, text.length * 2));
+        }
+    }
+
+    /*
+     * Decoded values
+     */
+
+    private String string(int[] offsets, int field) {
+        final int start = offsets[field * 2];
+        return start < 0 ? null : new String(text, start, offsets[field * 2 + 1] - start);
+    }
+
+    private boolean isNull(int[] offsets, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (offsets[i * 2] >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEmpty(int[] offsets, int field) {
+        return offsets[field * 2] < 0 || offsets[field * 2] == offsets[field * 2 + 1];
+    }
+
+    private boolean equals(int[] offsets, int field, String value) {
+        final int start = offsets[field * 2];
+        if (start < 0 || offsets[field * 2 + 1] - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (text[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends the value with its line breaks as CRLF, as the FIN writer does for the whole message. Consecutive
+     * values are joined as a single text, so a line feed following a carriage return at the end of the previous
+     * value is part of the same line break.
+     *
+     * @param afterCr true if the previous value was appended right before and ended with a carriage return
+     * @return true if the value ends with a carriage return, or it is empty and afterCr is true
+     */
+    private boolean append(StringBuilder out, int[] offsets, int field, boolean afterCr) {
+        int start = offsets[field * 2];
+        final int end = offsets[field * 2 + 1];
+        if (start < 0 || start == end) {
+            return afterCr;
+        }
+        if (afterCr && text[start] == '\n') {
+            start++;
+        }
+        int last = start;
+        for (int i = start; i < end; i++) {
+            final char c = text[i];
+            if (c == '\r' || c == '\n') {
+                out.append(text, last, i - last).append("\r\n");
+                if (c == '\r' && i + 1 < end && text[i + 1] == '\n') {
+                    i++;
+                }
+                last = i + 1;
+            }
+        }
+        out.append(text, last, end - last);
+        return text[end - 1] == '\r';
+    }
+
+    /**
+     * Signals content that is not covered by the direct decoding
+     */
+    private static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Unsupported() {
+            super("JSON content not supported by the direct decoding", null, false, false);
+        }
+    }
+
+}
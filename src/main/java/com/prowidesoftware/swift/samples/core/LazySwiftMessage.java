@@ -0,0 +1,456 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.parser.SwiftParser;
+import com.prowidesoftware.swift.model.SwiftBlock;
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftBlock5;
+import com.prowidesoftware.swift.model.SwiftBlockUser;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.SwiftTagListBlock;
+import com.prowidesoftware.swift.model.UnparsedTextList;
+import com.prowidesoftware.swift.model.field.Field;
+import com.prowidesoftware.swift.utils.IMessageVisitor;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link SwiftMessage} where only the headers are parsed, and the text block is parsed when needed.
+ * <p>
+ * The parse locates the blocks of the message with a single scan of the content. Blocks 1, 2 and 3 are parsed
+ * right away, so the message type, direction, sender and receiver, and the service message checks are available
+ * at the cost of parsing the headers only. Blocks 4 and 5 are kept as offsets of the original content, and parsed
+ * into tags the first time the message body is accessed, for example with {@link #getBlock4()}, {@link #message()}
+ * or when the message is converted to its specific MT class.
+ * <p>
+ * When there is content after the trailer block, for example the user message following an ACK, the remaining
+ * blocks and the unparsed texts are parsed as in {@link SwiftMessage#parse(String)}. Blank content after the last
+ * block is ignored.
+ * <p>
+ * The original content is referenced until the body is parsed. As the {@link SwiftMessage} this class is not
+ * thread safe.
+ */
+public class LazySwiftMessage extends SwiftMessage {
+    private static final long serialVersionUID = 1L;
+
+    private transient CharSequence content;
+    private transient int block4Start = -1;
+    private transient int block4End = -1;
+    private transient int block5Start = -1;
+    private transient int block5End = -1;
+    private transient boolean trailing = false;
+
+    private LazySwiftMessage() {
+        super(false);
+    }
+
+    /**
+     * Parses the message headers, keeping the text and trailer blocks for later.
+     *
+     * @param fin the FIN content of the message
+     * @return the lazy parsed message
+     * @throws IOException if the headers cannot be parsed
+     * @see #parse(CharSequence)
+     */
+    public static LazySwiftMessage parse(String fin) throws IOException {
+        return parse((CharSequence) fin);
+    }
+
+    /**
+     * Parses the message headers, keeping the text and trailer blocks for later.
+     *
+     * @param content the FIN content of the message, for example a {@link MessageSlice}, it must not be modified
+     *                until the message body is parsed
+     * @return the lazy parsed message
+     * @throws IOException if the headers cannot be parsed
+     */
+    public static LazySwiftMessage parse(CharSequence content) throws IOException {
+        Objects.requireNonNull(content, "content to parse cannot be null");
+        LazySwiftMessage result = new LazySwiftMessage();
+        int headerEnd = result.locate(content);
+        SwiftMessage header = SwiftMessage.parse(content.subSequence(0, headerEnd).toString());
+        result.setBlock1(header.getBlock1());
+        result.setBlock2(header.getBlock2());
+        result.setBlock3(header.getBlock3());
+        if (header.getUserBlocks() != null) {
+            result.setUserBlocks(header.getUserBlocks());
+        }
+        if (headerEnd < content.length()) {
+            result.content = content;
+        } else {
+            result.setUnparsedTexts(header.getUnparsedTexts());
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the message text and trailer blocks have already been parsed
+     */
+    public boolean isBodyParsed() {
+        return content == null;
+    }
+
+    /**
+     * Scans the top level blocks, saving the block 4 and 5 boundaries.
+     *
+     * @return the end of the headers, the index of the first block after block 3
+     */
+    private int locate(CharSequence s) {
+        final int length = s.length();
+        int i = 0;
+        int headerEnd = length;
+        while (i < length) {
+            if (s.charAt(i) != '{') {
+                if (headerEnd < length && s.charAt(i) > ' ') {
+                    // text after the text block
+                    trailing = true;
+                    return headerEnd;
+                }
+                i++;
+                continue;
+            }
+            char id = i + 1 < length ? s.charAt(i + 1) : 0;
+            boolean textBlock = id == '4' && i + 3 < length && s.charAt(i + 2) == ':' && s.charAt(i + 3) != '{';
+            int end = textBlock ? FinScanner.textBlockEnd(s, i) : FinScanner.blockEnd(s, i);
+            if (id == '4' && block4Start < 0 && headerEnd == length) {
+                headerEnd = i;
+                block4Start = i;
+                block4End = end;
+            } else if (id == '5' && block5Start < 0 && block4Start >= 0 && !trailing) {
+                block5Start = i;
+                block5End = end;
+            } else if (headerEnd < length) {
+                // user blocks or another message after the text block
+                trailing = true;
+                return headerEnd;
+            }
+            i = end;
+        }
+        return headerEnd;
+    }
+
+    /**
+     * Parses the text and trailer blocks and releases the original content.
+     */
+    private void parseBody() {
+        if (content == null) {
+            return;
+        }
+        final CharSequence s = content;
+        content = null;
+        if (trailing) {
+            try {
+                SwiftMessage full = SwiftMessage.parse(s.toString());
+                super.setBlock4(full.getBlock4());
+                super.setBlock5(full.getBlock5());
+                if (full.getUserBlocks() != null) {
+                    super.setUserBlocks(full.getUserBlocks());
+                }
+                super.setUnparsedTexts(full.getUnparsedTexts());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            if (block4Start >= 0) {
+                super.setBlock4(SwiftParser.parseBlock4(s.subSequence(block4Start, block4End).toString()));
+            }
+            if (block5Start >= 0) {
+                // the block parser expects the content without the closing brace
+                super.setBlock5(SwiftParser.parseBlock5(s.subSequence(block5Start, block5End - 1).toString()));
+            }
+        }
+    }
+
+    /**
+     * @return a plain message with the same blocks, parsing the body if needed
+     */
+    public SwiftMessage toSwiftMessage() {
+        parseBody();
+        SwiftMessage result = new SwiftMessage(false, getUnparsedTexts());
+        result.setBlock1(getBlock1());
+        result.setBlock2(getBlock2());
+        result.setBlock3(getBlock3());
+        result.setBlock4(getBlock4());
+        result.setBlock5(getBlock5());
+        if (getUserBlocks() != null) {
+            result.setUserBlocks(getUserBlocks());
+        }
+        return result;
+    }
+
+    /*
+     * The methods below access the blocks directly in the superclass, so the body is parsed first
+     */
+
+    @Override
+    public SwiftBlock4 getBlock4() {
+        parseBody();
+        return super.getBlock4();
+    }
+
+    @Override
+    public void setBlock4(SwiftBlock4 b4) {
+        parseBody();
+        super.setBlock4(b4);
+    }
+
+    @Override
+    public SwiftBlock5 getBlock5() {
+        parseBody();
+        return super.getBlock5();
+    }
+
+    @Override
+    public void setBlock5(SwiftBlock5 b5) {
+        parseBody();
+        super.setBlock5(b5);
+    }
+
+    @Override
+    public SwiftBlock getBlock(int b) {
+        parseBody();
+        return super.getBlock(b);
+    }
+
+    @Override
+    public int getBlockCount(Boolean includeUserBlocks) {
+        parseBody();
+        return super.getBlockCount(includeUserBlocks);
+    }
+
+    @Override
+    public List<SwiftBlockUser> getUserBlocks() {
+        parseBody();
+        return super.getUserBlocks();
+    }
+
+    @Override
+    public void setUserBlocks(List<SwiftBlockUser> userBlocks) {
+        parseBody();
+        super.setUserBlocks(userBlocks);
+    }
+
+    @Override
+    public int getUserBlockPosition(String blockName) {
+        parseBody();
+        return super.getUserBlockPosition(blockName);
+    }
+
+    @Override
+    public SwiftBlockUser getUserBlock(String blockName) {
+        parseBody();
+        return super.getUserBlock(blockName);
+    }
+
+    @Override
+    public void addUserBlock(SwiftBlockUser userBlock) {
+        parseBody();
+        super.addUserBlock(userBlock);
+    }
+
+    @Override
+    public void removeUserBlock(String blockName) {
+        parseBody();
+        super.removeUserBlock(blockName);
+    }
+
+    @Override
+    public UnparsedTextList getUnparsedTexts() {
+        parseBody();
+        return super.getUnparsedTexts();
+    }
+
+    @Override
+    public void setUnparsedTexts(UnparsedTextList texts) {
+        parseBody();
+        super.setUnparsedTexts(texts);
+    }
+
+    @Override
+    protected void unparsedTextVerify() {
+        parseBody();
+        super.unparsedTextVerify();
+    }
+
+    @Override
+    public Integer getUnparsedTextsSize() {
+        parseBody();
+        return super.getUnparsedTextsSize();
+    }
+
+    @Override
+    public Boolean unparsedTextIsMessage(Integer index) {
+        parseBody();
+        return super.unparsedTextIsMessage(index);
+    }
+
+    @Override
+    public String unparsedTextGetText(Integer index) {
+        parseBody();
+        return super.unparsedTextGetText(index);
+    }
+
+    @Override
+    public SwiftMessage unparsedTextGetAsMessage(Integer index) {
+        parseBody();
+        return super.unparsedTextGetAsMessage(index);
+    }
+
+    @Override
+    public void unparsedTextAddText(String text) {
+        parseBody();
+        super.unparsedTextAddText(text);
+    }
+
+    @Override
+    public void unparsedTextAddText(SwiftMessage message) {
+        parseBody();
+        super.unparsedTextAddText(message);
+    }
+
+    @Override
+    public void clear() {
+        content = null;
+        super.clear();
+    }
+
+    @Override
+    public Boolean isFragment() {
+        parseBody();
+        return super.isFragment();
+    }
+
+    @Override
+    public Integer fragmentCount() {
+        parseBody();
+        return super.fragmentCount();
+    }
+
+    @Override
+    public Integer fragmentNumber() {
+        parseBody();
+        return super.fragmentNumber();
+    }
+
+    @Override
+    public boolean isAck() {
+        parseBody();
+        return super.isAck();
+    }
+
+    @Override
+    public boolean isNack() {
+        parseBody();
+        return super.isNack();
+    }
+
+    @Override
+    public Boolean isLinked() {
+        parseBody();
+        return super.isLinked();
+    }
+
+    @Override
+    public List<SwiftTagListBlock> getLinkages() {
+        parseBody();
+        return super.getLinkages();
+    }
+
+    @Override
+    public List<Field> fields(String... names) {
+        parseBody();
+        return super.fields(names);
+    }
+
+    @Override
+    public List<String> getTagNames() {
+        parseBody();
+        return super.getTagNames();
+    }
+
+    @Override
+    public SwiftMessage removeEmptyBlocks() {
+        parseBody();
+        return super.removeEmptyBlocks();
+    }
+
+    @Override
+    public String getMUR() {
+        parseBody();
+        return super.getMUR();
+    }
+
+    @Override
+    public String getPDE() {
+        parseBody();
+        return super.getPDE();
+    }
+
+    @Override
+    public SwiftMessage setPDE() {
+        parseBody();
+        return super.setPDE();
+    }
+
+    @Override
+    public String getPDM() {
+        parseBody();
+        return super.getPDM();
+    }
+
+    @Override
+    public void visit(IMessageVisitor visitor) {
+        parseBody();
+        super.visit(visitor);
+    }
+
+    /**
+     * The JSON serialization is registered for the {@link SwiftMessage} class, so it is delegated to a plain copy
+     */
+    @Override
+    public String toJson() {
+        return toSwiftMessage().toJson();
+    }
+
+    /**
+     * Both messages are parsed before the comparison, since the fields compared are only set once parsed
+     */
+    @Override
+    public boolean equals(Object o) {
+        parseBody();
+        if (o instanceof LazySwiftMessage) {
+            ((LazySwiftMessage) o).parseBody();
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        parseBody();
+        return super.hashCode();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        parseBody();
+        out.defaultWriteObject();
+    }
+
+}
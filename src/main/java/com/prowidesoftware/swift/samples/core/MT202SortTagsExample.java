@@ -21,7 +21,6 @@ import com.prowidesoftware.swift.model.mt.mt2xx.MT202;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * This example shows how to sort the tags in a message according to the specification structure.
@@ -53,6 +52,12 @@ public class MT202SortTagsExample {
             "72;_;"
     );
 
+    /**
+     * The structure is compiled once into a table indexed by field number and letter option, the
+     * {@link TagOrderSchema#of(String)} method provides the cached schemas of the MT103, MT202, MT202COV and MT205
+     */
+    static final TagOrderSchema mt202Schema = TagOrderSchema.compile(mt202Structure);
+
     static String unsortedFin =
             "{1:F01BWJWDKD0AXXX0000000000}{2:I202CATAHKHXXXXXN}{3:{121:0911115d-2828-4ed6-8d0a-074f67027c52}}{4:\r\n"
                     + ":20:5931700\r\n"
@@ -97,39 +102,7 @@ public class MT202SortTagsExample {
     }
 
     private static List<Tag> sortTags(List<Tag> tags) {
-        List<Tag> sortedTags = new ArrayList<>();
-        for (String fieldDesc : mt202Structure) {
-            String[] parts = fieldDesc.split(";");
-            String fieldName = parts[0];
-            boolean isRepetitiveField = "R".equals(parts[1]);
-            String[] fieldLetterOptions = (parts.length > 2) ? parts[2].split(",") : null;
-
-            Tag currentTag;
-            do {
-                currentTag = getTag(tags, fieldName, fieldLetterOptions);
-                if (currentTag != null) sortedTags.add(currentTag);
-            } while (isRepetitiveField && currentTag != null);
-        }
-        return sortedTags;
-    }
-
-    private static Tag getTag(List<Tag> tags, String fieldName, String[] fieldLetterOptions) {
-        if (fieldLetterOptions != null) {
-            for (String letterOpt : fieldLetterOptions) {
-                Optional<Tag> tagOpt = tags.stream().filter(tag -> tag.getName().equals(fieldName + letterOpt)).findFirst();
-                if (tagOpt.isPresent()) {
-                    tags.remove(tagOpt.get());
-                    return tagOpt.get();
-                }
-            }
-        } else {
-            Optional<Tag> tagOpt = tags.stream().filter(tag -> tag.getName().equals(fieldName)).findFirst();
-            if (tagOpt.isPresent()) {
-                tags.remove(tagOpt.get());
-                return tagOpt.get();
-            }
-        }
-        return null;
+        return mt202Schema.sort(tags);
     }
 
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.mt.mt5xx.MT537;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a large MT537 statement into pages whose FIN serialization does not exceed a maximum length.
+ * <p>
+ * This is the {@link MessagePaginator#mt537()} configuration, where every page contains the headers (blocks 1,
+ * 2, 3 and 5) and sequence A of the original message, sequences B, C and D are distributed in order and sequences
+ * E close the last page. Field 28E is set to the page number with the MORE, LAST or ONLY continuation indicator,
+ * and field 13A STAT to the page number.
+ * <p>
+ * The serialized length of every sequence is computed once from its tags, so the split time grows linearly with
+ * the size of the original statement.
+ */
+public class MT537Splitter {
+
+    /**
+     * Maximum length of a FIN message in characters
+     */
+    public static final int DEFAULT_MAX_LENGTH = MessagePaginator.DEFAULT_MAX_LENGTH;
+
+    /**
+     * Maximum number of pages, since the page number in field 13A has 3 digits
+     */
+    public static final int MAX_PAGES = 999;
+
+    private final MessagePaginator paginator;
+
+    public MT537Splitter() {
+        this(DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param maxLength maximum length in characters of each resulting FIN message
+     */
+    public MT537Splitter(int maxLength) {
+        this.paginator = MessagePaginator.mt537()
+                .setPageNumber("13A", (value, page, last) -> {
+                    if (page > MAX_PAGES) {
+                        throw new IllegalArgumentException("the statement needs more than " + MAX_PAGES
+                                + " pages, field 13A STAT//3!c cannot hold page " + page);
+                    }
+                    return ":STAT//" + String.format("%03d", page);
+                })
+                .setMaxLength(maxLength);
+    }
+
+    /**
+     * Splits the message into size bounded pages.
+     *
+     * @param original the MT537 to split, it is not modified
+     * @return the list of pages, with a single element if the message already fits into the maximum length
+     * @throws IllegalArgumentException if the message needs more than {@link #MAX_PAGES} pages
+     */
+    public List<MT537> split(MT537 original) {
+        List<MT537> result = new ArrayList<>();
+        paginator.paginate(original, page -> result.add(new MT537(page)));
+        return result;
+    }
+
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field21P;
+import com.prowidesoftware.swift.model.field.Field21S;
+import com.prowidesoftware.swift.model.field.Field27A;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Reassembles the transactions sent as several MT798, where each part carries its index and the total number of
+ * parts in the sub-message field 27A, for example an index message 1/3 followed by two detail messages 2/3 and 3/3.
+ * <p>
+ * The parts are grouped by a key, by default the sender with the first sub-message reference found among 21P, 21S
+ * and 20, and when all the parts of a group have arrived the group is passed to the completion callback with the
+ * parts in index order. A message without 27A, or with 1/1, is a complete group by itself.
+ * <p>
+ * The number of pending groups is bounded: when the limit is reached the oldest group is evicted, and groups
+ * whose first part arrived longer than the timeout ago are expired. Both are passed to the incomplete callback,
+ * by default they are logged. The timeouts are checked on each call to {@link #add(MT798)}, there is no background
+ * thread, so {@link #expire()} should be called periodically when the parts may stop arriving.
+ * <p>
+ * The assembler is thread safe, so several inbound channels can add parts concurrently. The pending groups are
+ * guarded by a single lock, and the callbacks are called from the thread adding the part, or calling expire, after
+ * the lock has been released.
+ */
+public class MT798Assembler {
+    private static final Logger log = Logger.getLogger(MT798Assembler.class.getName());
+
+    /**
+     * Final state of a group passed to the callbacks
+     */
+    public enum Status {
+        /**
+         * All parts arrived
+         */
+        COMPLETE,
+        /**
+         * The timeout elapsed before all parts arrived
+         */
+        EXPIRED,
+        /**
+         * Removed to make room for a new group before all parts arrived
+         */
+        EVICTED
+    }
+
+    private final Consumer<Group> onComplete;
+    private Consumer<Group> onIncomplete = group -> log.warning("Incomplete MT798 " + group.getKey() + " " + group.getStatus()
+            + " with " + group.getReceivedCount() + " of " + group.getTotal() + " parts");
+    private Function<MT798View, String> key = MT798Assembler::defaultKey;
+    private long timeoutNanos = TimeUnit.HOURS.toNanos(1);
+    private int maxGroups = 10000;
+    private int maxParts = 10;
+    private final LinkedHashMap<String, Group> pending = new LinkedHashMap<>();
+
+    /**
+     * @param onComplete receives the groups with all their parts
+     */
+    public MT798Assembler(Consumer<Group> onComplete) {
+        this.onComplete = Objects.requireNonNull(onComplete, "onComplete must not be null");
+    }
+
+    /**
+     * @param onIncomplete receives the groups expired or evicted before all their parts arrived
+     */
+    public MT798Assembler setOnIncomplete(Consumer<Group> onIncomplete) {
+        this.onIncomplete = Objects.requireNonNull(onIncomplete, "onIncomplete must not be null");
+        return this;
+    }
+
+    /**
+     * @param key returns the key grouping the parts of a transaction
+     */
+    public MT798Assembler setKey(Function<MT798View, String> key) {
+        this.key = Objects.requireNonNull(key, "key must not be null");
+        return this;
+    }
+
+    /**
+     * @param timeout maximum time from the first part of a group to its completion, one hour by default
+     * @param unit    the timeout unit
+     */
+    public MT798Assembler setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * @param maxGroups maximum number of pending groups, 10000 by default
+     */
+    public MT798Assembler setMaxGroups(int maxGroups) {
+        this.maxGroups = maxGroups;
+        return this;
+    }
+
+    /**
+     * @param maxParts maximum number of parts of a group, 10 by default; parts with a greater total are rejected
+     */
+    public MT798Assembler setMaxParts(int maxParts) {
+        this.maxParts = maxParts;
+        return this;
+    }
+
+    /**
+     * Adds a part, completing its group if it is the last one missing. Pending groups that have timed out are
+     * expired first, and if a new group exceeds the maximum the oldest pending group is evicted.
+     *
+     * @param part an MT798
+     * @throws IllegalArgumentException if the field 27A is invalid, or its total does not match the one of the
+     *                                  other parts of the group
+     */
+    public void add(MT798 part) {
+        Objects.requireNonNull(part, "part must not be null");
+        final MT798View view = new MT798View(part);
+        final String index = indexOf(view);
+        int number = 1;
+        int total = 1;
+        if (index != null) {
+            final int slash = index.indexOf('/');
+            try {
+                number = Integer.parseInt(index.substring(0, slash).trim());
+                total = Integer.parseInt(index.substring(slash + 1).trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid field 27A " + index, e);
+            }
+            if (total < 1 || total > maxParts || number < 1 || number > total) {
+                throw new IllegalArgumentException("invalid field 27A " + index);
+            }
+        }
+        final String groupKey = key.apply(view);
+        if (total == 1) {
+            final Group group = new Group(groupKey, 1, System.nanoTime());
+            group.add(1, part);
+            group.status = Status.COMPLETE;
+            onComplete.accept(group);
+            return;
+        }
+
+        final List<Group> incomplete = new ArrayList<>(0);
+        Group completed = null;
+        // the groups removed are delivered even if the part is rejected
+        try {
+            synchronized (pending) {
+                final long now = System.nanoTime();
+                expire(now, incomplete);
+                Group group = pending.get(groupKey);
+                if (group == null) {
+                    group = new Group(groupKey, total, now);
+                    pending.put(groupKey, group);
+                } else if (group.getTotal() != total) {
+                    throw new IllegalArgumentException("field 27A " + index + " does not match the total " + group.getTotal()
+                            + " of the other parts of " + groupKey);
+                }
+                if (!group.add(number, part)) {
+                    log.warning("Duplicate part " + index + " of MT798 " + groupKey + " ignored");
+                }
+                if (group.getReceivedCount() == total) {
+                    pending.remove(groupKey);
+                    group.status = Status.COMPLETE;
+                    completed = group;
+                }
+                final Iterator<Group> oldest = pending.values().iterator();
+                while (pending.size() > maxGroups && oldest.hasNext()) {
+                    final Group evicted = oldest.next();
+                    oldest.remove();
+                    evicted.status = Status.EVICTED;
+                    incomplete.add(evicted);
+                }
+            }
+        } finally {
+            incomplete.forEach(onIncomplete);
+        }
+        if (completed != null) {
+            onComplete.accept(completed);
+        }
+    }
+
+    /**
+     * Expires the pending groups whose timeout has elapsed, passing them to the incomplete callback.
+     *
+     * @return the number of groups expired
+     */
+    public int expire() {
+        final List<Group> expired = new ArrayList<>(0);
+        synchronized (pending) {
+            expire(System.nanoTime(), expired);
+        }
+        expired.forEach(onIncomplete);
+        return expired.size();
+    }
+
+    /**
+     * @return the number of groups waiting for parts
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Removes the expired groups, that are the first ones in the map as it is kept in arrival order
+     */
+    private void expire(long now, List<Group> expired) {
+        final Iterator<Group> it = pending.values().iterator();
+        while (it.hasNext()) {
+            final Group group = it.next();
+            if (now - group.created < timeoutNanos) {
+                break;
+            }
+            it.remove();
+            group.status = Status.EXPIRED;
+            expired.add(group);
+        }
+    }
+
+    /**
+     * @return the value of the sub-message field 27A, or null if not present
+     */
+    private static String indexOf(MT798View view) {
+        for (Tag tag : view.getSubMessageTags()) {
+            if (Field27A.NAME.equals(tag.getName())) {
+                return tag.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The sender of the envelope with the first sub-message reference found among 21P, 21S and 20, or the envelope
+     * field 20 if there is none
+     */
+    private static String defaultKey(MT798View view) {
+        String reference = null;
+        int rank = Integer.MAX_VALUE;
+        for (Tag tag : view.getSubMessageTags()) {
+            final String name = tag.getName();
+            if (Field21P.NAME.equals(name)) {
+                reference = tag.getValue();
+                break;
+            } else if (Field21S.NAME.equals(name) && rank > 1) {
+                reference = tag.getValue();
+                rank = 1;
+            } else if (Field20.NAME.equals(name) && rank > 2) {
+                reference = tag.getValue();
+                rank = 2;
+            }
+        }
+        if (reference == null && view.getField20() != null) {
+            reference = view.getField20().getValue();
+        }
+        return view.getEnvelope().getSender() + "/" + reference;
+    }
+
+    /**
+     * The parts of a transaction
+     */
+    public static final class Group {
+        private final String key;
+        private final MT798[] parts;
+        private final long created;
+        private int received;
+        private Status status;
+
+        Group(String key, int total, long created) {
+            this.key = key;
+            this.parts = new MT798[total];
+            this.created = created;
+        }
+
+        /**
+         * @return false if the part was already received
+         */
+        boolean add(int number, MT798 part) {
+            if (parts[number - 1] != null) {
+                return false;
+            }
+            parts[number - 1] = part;
+            received++;
+            return true;
+        }
+
+        /**
+         * @return the key of the parts
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return the total number of parts from field 27A
+         */
+        public int getTotal() {
+            return parts.length;
+        }
+
+        /**
+         * @return the number of parts received
+         */
+        public int getReceivedCount() {
+            return received;
+        }
+
+        /**
+         * @return how the group was completed, expired or evicted
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return true if all parts were received
+         */
+        public boolean isComplete() {
+            return received == parts.length;
+        }
+
+        /**
+         * @return the parts received in index order, without the missing ones
+         */
+        public List<MT798> getParts() {
+            final List<MT798> result = new ArrayList<>(received);
+            for (MT798 part : parts) {
+                if (part != null) {
+                    result.add(part);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        /**
+         * @return the sub-messages of the parts received in index order, backed by the tags of each part; use
+         * {@link SwiftMessage#toMT()} to get the ones with a specific MT class
+         * @see MT798View#getSubMessage()
+         */
+        public List<SwiftMessage> getSubMessages() {
+            final List<SwiftMessage> result = new ArrayList<>(received);
+            for (MT798 part : parts) {
+                if (part != null) {
+                    result.add(new MT798View(part).getSubMessage());
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+    }
+
+}
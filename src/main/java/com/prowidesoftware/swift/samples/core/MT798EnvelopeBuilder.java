@@ -0,0 +1,132 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.field.Field12;
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field77E;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Builds MT798 envelopes around existing messages, writing the FIN content of each envelope directly into a
+ * buffer, without creating an MT798 nor copying the tags of the sub-message.
+ * <p>
+ * The envelope is identical to the one built with the model API in {@link MessageCreationMT798Example}: the
+ * blocks 1 and 2 of a new MT798 with the sender and receiver of the sub-message, and a block 4 with the fields 20,
+ * 12 with the sub-message type and 77E, followed by all the tags of the sub-message. The headers are created with
+ * the model API once for each sender and receiver pair and then reused as text, the fields 20, 12 and 77E are
+ * written from the template where only the reference and the type change, and the tags of the sub-message are
+ * written as they are.
+ * <p>
+ * A batch of sub-messages can be written to a file with {@link #write(Iterator, AbstractChannelWriter)}, where
+ * every envelope is built into the same reusable buffer. Example:
+ * <pre>
+ *     MT798EnvelopeBuilder builder = new MT798EnvelopeBuilder(mt -&gt; nextReference());
+ *     try (BufferedRJEWriter writer = new BufferedRJEWriter(file)) {
+ *         builder.write(subMessages, writer);
+ *     }
+ * </pre>
+ * The builder is not thread safe, use one instance per thread.
+ */
+public class MT798EnvelopeBuilder {
+
+    private final Function<? super AbstractMT, String> reference;
+    private String field77E = "";
+    private final Map<String, Map<String, String>> headers = new HashMap<>();
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    /**
+     * @param reference returns the envelope field 20 for each sub-message
+     */
+    public MT798EnvelopeBuilder(Function<? super AbstractMT, String> reference) {
+        this.reference = Objects.requireNonNull(reference, "reference must not be null");
+    }
+
+    /**
+     * @param field77E value of the envelope field 77E, empty by default
+     */
+    public MT798EnvelopeBuilder setField77E(String field77E) {
+        this.field77E = field77E;
+        return this;
+    }
+
+    /**
+     * Writes the FIN content of the envelope of the sub-message.
+     *
+     * @param subMessage the message to wrap, it is not modified
+     * @param out        the buffer where the envelope is appended
+     * @return the buffer
+     */
+    public StringBuilder append(AbstractMT subMessage, StringBuilder out) {
+        Objects.requireNonNull(subMessage, "subMessage must not be null");
+        out.append(header(subMessage.getSender(), subMessage.getReceiver())).append("{4:\r\n");
+        FinWriter.appendTag(out, Field20.NAME, reference.apply(subMessage));
+        FinWriter.appendTag(out, Field12.NAME, subMessage.getMessageType());
+        FinWriter.appendTag(out, Field77E.NAME, field77E);
+        final SwiftBlock4 b4 = subMessage.getSwiftMessage().getBlock4();
+        if (b4 != null) {
+            FinWriter.appendTags(out, b4.getTags());
+        }
+        return out.append("-}");
+    }
+
+    /**
+     * @param subMessage the message to wrap, it is not modified
+     * @return the FIN content of the envelope
+     */
+    public String build(AbstractMT subMessage) {
+        buffer.setLength(0);
+        return append(subMessage, buffer).toString();
+    }
+
+    /**
+     * Wraps all the sub-messages, writing each envelope as soon as it is built.
+     *
+     * @param subMessages the messages to wrap
+     * @param writer      the destination writer
+     * @return the number of envelopes written
+     * @throws IOException if an error occurs writing the envelopes
+     */
+    public long write(Iterator<? extends AbstractMT> subMessages, AbstractChannelWriter writer) throws IOException {
+        Objects.requireNonNull(subMessages, "subMessages must not be null");
+        Objects.requireNonNull(writer, "writer must not be null");
+        long count = 0;
+        while (subMessages.hasNext()) {
+            buffer.setLength(0);
+            writer.write(append(subMessages.next(), buffer));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the blocks 1 and 2 of an MT798 from the sender to the receiver
+     */
+    private String header(String sender, String receiver) {
+        return headers.computeIfAbsent(sender, k -> new HashMap<>())
+                .computeIfAbsent(receiver, k -> new MT798(sender, receiver).message());
+    }
+
+}
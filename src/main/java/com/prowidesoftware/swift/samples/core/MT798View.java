@@ -0,0 +1,191 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock2;
+import com.prowidesoftware.swift.model.SwiftBlock2Input;
+import com.prowidesoftware.swift.model.SwiftBlock2Output;
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field12;
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field77E;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * View of an MT798 envelope and its embedded message, backed by the tags of the envelope.
+ * <p>
+ * The envelope fields 20, 12 and 77E are located once, reading the tags up to the first 77E, so the payload is
+ * never scanned to get them. The embedded message is a {@link SwiftMessage} with the same content as
+ * {@link MT798#getSubMessage()}, but instead of copying the tags following 77E its block 4 is a view of them in the
+ * envelope tag list, and it shares the blocks 1 and 3 of the envelope; only the block 2 is created, to set the
+ * message type of field 12. The typed message returned by {@link #getSubMessageMT()} wraps that same message, so
+ * getting a typed MT700 or MT760 from a large envelope neither copies nor parses its tags.
+ * <p>
+ * As the view shares the tags, the envelope must not be structurally modified, adding or removing tags, while the
+ * view is in use; changes to the embedded message tags are made in the envelope. As the {@link SwiftMessage} this
+ * class is not thread safe. Example:
+ * <pre>
+ *     MT798View view = new MT798View(MT798.parse(fin));
+ *     if ("760".equals(view.getSubMessageType())) {
+ *         MT760 mt = (MT760) view.getSubMessageMT();
+ *     }
+ * </pre>
+ */
+public class MT798View {
+
+    private final SwiftMessage envelope;
+    private final List<Tag> tags;
+    private final int field20;
+    private final int field12;
+    private final int field77E;
+    private SwiftMessage subMessage;
+    private AbstractMT subMessageMT;
+
+    /**
+     * @param mt798 the envelope
+     */
+    public MT798View(MT798 mt798) {
+        this(Objects.requireNonNull(mt798, "mt798 must not be null").getSwiftMessage());
+    }
+
+    /**
+     * @param envelope the envelope, an MT798 as a generic message
+     */
+    public MT798View(SwiftMessage envelope) {
+        this.envelope = Objects.requireNonNull(envelope, "envelope must not be null");
+        this.tags = envelope.getBlock4() != null ? envelope.getBlock4().getTags() : Collections.emptyList();
+        int f20 = -1;
+        int f12 = -1;
+        int f77E = -1;
+        for (int i = 0; i < tags.size() && f77E < 0; i++) {
+            final String name = tags.get(i).getName();
+            if (Field20.NAME.equals(name) && f20 < 0) {
+                f20 = i;
+            } else if (Field12.NAME.equals(name) && f12 < 0) {
+                f12 = i;
+            } else if (Field77E.NAME.equals(name)) {
+                f77E = i;
+            }
+        }
+        this.field20 = f20;
+        this.field12 = f12;
+        this.field77E = f77E;
+    }
+
+    /**
+     * Parses the envelope and creates a view of it.
+     *
+     * @param fin the FIN content of the MT798
+     * @return the view
+     */
+    public static MT798View parse(String fin) {
+        return new MT798View(MT798.parse(fin));
+    }
+
+    /**
+     * @return the envelope message
+     */
+    public SwiftMessage getEnvelope() {
+        return envelope;
+    }
+
+    /**
+     * @return the envelope field 20, or null if not present
+     */
+    public Field20 getField20() {
+        return field20 < 0 ? null : new Field20(tags.get(field20).getValue());
+    }
+
+    /**
+     * @return the envelope field 12, or null if not present
+     */
+    public Field12 getField12() {
+        return field12 < 0 ? null : new Field12(tags.get(field12).getValue());
+    }
+
+    /**
+     * @return the envelope field 77E, or null if not present
+     */
+    public Field77E getField77E() {
+        return field77E < 0 ? null : new Field77E(tags.get(field77E).getValue());
+    }
+
+    /**
+     * @return the type of the embedded message from field 12, or null if not present
+     */
+    public String getSubMessageType() {
+        return field12 < 0 ? null : tags.get(field12).getValue();
+    }
+
+    /**
+     * @return the tags of the embedded message, as a view of the envelope tags following 77E; an empty list if the
+     * envelope has no field 77E
+     */
+    public List<Tag> getSubMessageTags() {
+        return field77E < 0 ? Collections.emptyList() : tags.subList(field77E + 1, tags.size());
+    }
+
+    /**
+     * Creates the embedded message the first time it is called.
+     *
+     * @return the embedded message backed by the envelope tags, or null if the envelope has no field 12
+     * @see MT798#getSubMessage()
+     */
+    public SwiftMessage getSubMessage() {
+        if (subMessage == null && field12 >= 0) {
+            final SwiftMessage sm = new SwiftMessage(false);
+            sm.setBlock1(envelope.getBlock1());
+            final SwiftBlock2 b2 = envelope.getBlock2();
+            if (b2 instanceof SwiftBlock2Input) {
+                final SwiftBlock2Input input = new SwiftBlock2Input(b2.getValue());
+                input.setMessageType(getSubMessageType());
+                sm.setBlock2(input);
+            } else if (b2 instanceof SwiftBlock2Output) {
+                final SwiftBlock2Output output = new SwiftBlock2Output(b2.getValue());
+                output.setMessageType(getSubMessageType());
+                sm.setBlock2(output);
+            }
+            sm.setBlock3(envelope.getBlock3());
+            final SwiftBlock4 b4 = new SwiftBlock4();
+            b4.setTags(getSubMessageTags());
+            sm.setBlock4(b4);
+            subMessage = sm;
+        }
+        return subMessage;
+    }
+
+    /**
+     * Creates the embedded message in its specific MT class the first time it is called.
+     *
+     * @return the embedded message, for example an MT760, or null if the envelope has no field 12 or its type is
+     * not supported
+     * @see SwiftMessage#toMT()
+     */
+    public AbstractMT getSubMessageMT() {
+        if (subMessageMT == null && getSubMessage() != null) {
+            subMessageMT = subMessage.toMT();
+        }
+        return subMessageMT;
+    }
+
+}
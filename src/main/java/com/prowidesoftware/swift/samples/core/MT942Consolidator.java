@@ -0,0 +1,518 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Streaming consolidation of interim MT942 statements into MT940 customer statements, one statement per account.
+ * <p>
+ * The MT942 are read in sequence, for example from a {@link MappedRJEReader}, and grouped by their account
+ * identification in field 25, so the statements of different accounts can be interleaved in the input. The
+ * statement lines, 61 with its optional 86, are copied as they are to the MT940 of the account in the input order,
+ * and the balance is updated with the amount of each line as read by a {@link StatementLineCursor}: a fixed-point
+ * long with the largest scale found, so the messages are not parsed and no BigDecimal is created.
+ * <p>
+ * The MT940 is paginated as it is written. When the next line would exceed the maximum length, the page is closed
+ * with the intermediate balance 62M and the next page is opened with the same balance as 60M; the last page of each
+ * account is closed with the final balance 62F when the input ends. Field 28C carries the statement number with the
+ * page as sequence number, as {@link MessagePaginator.PageNumberFormat#STATEMENT_SEQUENCE}. The pages are written
+ * directly in FIN format, with the blocks 1 and 2 of the first MT942 of the account, and handed to the consumer as
+ * soon as they are complete, so the memory in use is one page per account regardless of the number of MT942.
+ * <p>
+ * The accounts are distributed among the worker threads by the hash of their identification, so the statements of
+ * each account are consolidated in order by the same thread while different accounts are consolidated in parallel.
+ * The consumer is called from the worker threads, so it must be thread safe, and the page content passed to it is
+ * reused once it returns.
+ * <p>
+ * MT942 that cannot be consolidated, for example without field 25, are passed to the error handler and skipped, by
+ * default the error is logged.
+ * <p>
+ * Example:
+ * <pre>
+ *     try (MappedRJEReader reader = new MappedRJEReader(file)) {
+ *         new MT942Consolidator(openingBalances::get).consolidate(reader, page -&gt; {
+ *             synchronized (writer) {
+ *                 writer.write(page);
+ *             }
+ *         });
+ *     }
+ * </pre>
+ */
+public class MT942Consolidator {
+    private static final Logger log = Logger.getLogger(MT942Consolidator.class.getName());
+
+    /**
+     * Maximum length of a FIN message in characters
+     */
+    public static final int DEFAULT_MAX_LENGTH = MessagePaginator.DEFAULT_MAX_LENGTH;
+
+    private static final int BATCH_SIZE = 32;
+    private static final CharSequence[] END = new CharSequence[0];
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Function<String, String> openingBalance;
+    private Function<String, String> reference;
+    private Function<String, String> statementNumber = account -> "1";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxPending = 256;
+    private int maxLength = DEFAULT_MAX_LENGTH;
+    private BiConsumer<CharSequence, Exception> errorHandler =
+            (content, e) -> log.warning("Error consolidating statement: " + e.getMessage());
+
+    /**
+     * @param openingBalance returns the opening balance of each account as a field 60F value, for example
+     *                       C191020EUR10000,00; the closing balances are written with the same date and currency
+     */
+    public MT942Consolidator(Function<String, String> openingBalance) {
+        this.openingBalance = Objects.requireNonNull(openingBalance, "openingBalance must not be null");
+    }
+
+    /**
+     * @param reference returns the field 20 of the MT940 of each account, by default the field 20 of its first
+     *                  MT942 is used
+     */
+    public MT942Consolidator setReference(Function<String, String> reference) {
+        this.reference = reference;
+        return this;
+    }
+
+    /**
+     * @param statementNumber returns the statement number of each account for field 28C, 1 by default
+     */
+    public MT942Consolidator setStatementNumber(Function<String, String> statementNumber) {
+        this.statementNumber = Objects.requireNonNull(statementNumber, "statementNumber must not be null");
+        return this;
+    }
+
+    /**
+     * @param threads number of worker threads, the number of available processors by default; with a single
+     *                thread the statements are consolidated in the calling thread
+     */
+    public MT942Consolidator setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param maxPending maximum number of MT942 waiting to be consolidated by each thread, 256 by default; the
+     *                   MT942 are handed over to the threads in batches of 32
+     */
+    public MT942Consolidator setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    /**
+     * @param maxLength maximum length in characters of each MT940 page
+     */
+    public MT942Consolidator setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    /**
+     * @param errorHandler receives the content and the exception of the MT942 that cannot be consolidated
+     */
+    public MT942Consolidator setErrorHandler(BiConsumer<CharSequence, Exception> errorHandler) {
+        this.errorHandler = Objects.requireNonNull(errorHandler, "errorHandler must not be null");
+        return this;
+    }
+
+    /**
+     * Consolidates all the MT942 and returns when the last page of every account has been passed to the consumer.
+     *
+     * @param statements the FIN content of the MT942 to consolidate
+     * @param consumer   receives the FIN content of the MT940 pages, from the worker threads
+     * @throws InterruptedException if the calling thread is interrupted, the consolidation is then aborted
+     */
+    public void consolidate(Iterator<? extends CharSequence> statements, Consumer<CharSequence> consumer) throws InterruptedException {
+        Objects.requireNonNull(statements, "statements must not be null");
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        if (threads <= 1) {
+            final Worker worker = new Worker(1, consumer);
+            while (worker.error == null && statements.hasNext()) {
+                worker.consolidate(statements.next());
+            }
+            worker.finish();
+            if (worker.error != null) {
+                throw worker.error;
+            }
+            return;
+        }
+        final Worker[] workers = new Worker[threads];
+        final CharSequence[][] batches = new CharSequence[threads][BATCH_SIZE];
+        final int[] sizes = new int[threads];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(Math.max(maxPending / BATCH_SIZE, 1), consumer);
+            Thread thread = new Thread(workers[i], "statement-consolidator-" + (i + 1));
+            thread.setDaemon(true);
+            workers[i].thread = thread;
+            thread.start();
+        }
+        boolean done = false;
+        try {
+            while (statements.hasNext()) {
+                final CharSequence content = statements.next();
+                final int w = Math.floorMod(accountHash(content), workers.length);
+                batches[w][sizes[w]++] = content;
+                if (sizes[w] == BATCH_SIZE) {
+                    workers[w].queue.put(batches[w]);
+                    batches[w] = new CharSequence[BATCH_SIZE];
+                    sizes[w] = 0;
+                }
+            }
+            for (int w = 0; w < workers.length; w++) {
+                if (sizes[w] > 0) {
+                    workers[w].queue.put(batches[w]);
+                }
+                workers[w].queue.put(END);
+            }
+            for (Worker worker : workers) {
+                worker.thread.join();
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                for (Worker worker : workers) {
+                    worker.thread.interrupt();
+                }
+            }
+        }
+        for (Worker worker : workers) {
+            if (worker.error != null) {
+                throw worker.error;
+            }
+        }
+    }
+
+    /**
+     * Consolidates the statements of the accounts assigned to a thread
+     */
+    private final class Worker implements Runnable {
+        private final BlockingQueue<CharSequence[]> queue;
+        private final Consumer<CharSequence> consumer;
+        private final Map<String, Account> accounts = new LinkedHashMap<>();
+        private final StatementLineCursor cursor = new StatementLineCursor("");
+        private final StringBuilder page = new StringBuilder(maxLength);
+        private Thread thread;
+        private volatile RuntimeException error;
+
+        Worker(int capacity, Consumer<CharSequence> consumer) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                CharSequence[] batch;
+                while ((batch = queue.take()) != END) {
+                    for (int i = 0; i < batch.length && batch[i] != null && error == null; i++) {
+                        consolidate(batch[i]);
+                    }
+                }
+                finish();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Writes the last page of every account
+         */
+        private void finish() {
+            for (Account account : accounts.values()) {
+                if (error == null) {
+                    account.writePage(true);
+                }
+            }
+        }
+
+        private void consolidate(CharSequence content) {
+            try {
+                final int start = valueStart(content, ":25:");
+                if (start < 0) {
+                    throw new IllegalArgumentException("field 25 not found");
+                }
+                final String id = FinScanner.text(content, start, lineEnd(content, start));
+                Account account = accounts.get(id);
+                if (account == null) {
+                    account = new Account(this, id, content);
+                    accounts.put(id, account);
+                }
+                cursor.reset(content);
+                while (error == null && cursor.next()) {
+                    account.add(cursor);
+                }
+            } catch (Exception e) {
+                errorHandler.accept(content, e);
+            }
+        }
+
+        private void emit() {
+            try {
+                consumer.accept(page);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+    }
+
+    /**
+     * Statement of an account, with the lines of its current page
+     */
+    private final class Account {
+        private final Worker worker;
+        private final String header;
+        private final String reference;
+        private final String id;
+        private final String statementNumber;
+        private final String date;
+        private final String currency;
+        private final StringBuilder lines = new StringBuilder();
+        private String openingTag = "60F";
+        private String opening;
+        private int page = 1;
+        private int lineCount;
+        private long balance;
+        private int scale;
+
+        Account(Worker worker, String id, CharSequence content) {
+            this.worker = worker;
+            this.id = id;
+            this.header = header(content);
+            if (MT942Consolidator.this.reference != null) {
+                this.reference = MT942Consolidator.this.reference.apply(id);
+            } else {
+                final int start = valueStart(content, ":20:");
+                this.reference = start < 0 ? "NONREF" : FinScanner.text(content, start, lineEnd(content, start));
+            }
+            this.statementNumber = MT942Consolidator.this.statementNumber.apply(id);
+            this.opening = openingBalance.apply(id);
+            if (opening == null || opening.length() < 11 || (opening.charAt(0) != 'C' && opening.charAt(0) != 'D')) {
+                throw new IllegalArgumentException("invalid opening balance for account " + id + ": " + opening);
+            }
+            this.date = opening.substring(1, 7);
+            this.currency = opening.substring(7, 10);
+            int s = -1;
+            for (int i = 10; i < opening.length(); i++) {
+                final char c = opening.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    balance = Math.addExact(Math.multiplyExact(balance, 10), c - '0');
+                    if (s >= 0) {
+                        s++;
+                    }
+                } else if (c == ',' && s < 0) {
+                    s = 0;
+                } else {
+                    throw new IllegalArgumentException("invalid opening balance for account " + id + ": " + opening);
+                }
+            }
+            this.scale = Math.max(s, 0);
+            if (opening.charAt(0) == 'D') {
+                balance = -balance;
+            }
+        }
+
+        /**
+         * Adds the current line of the cursor to the page, writing the page first if the line does not fit
+         */
+        void add(StatementLineCursor line) {
+            long amount = line.getAmountUnscaled();
+            if (line.getAmountScale() > scale) {
+                balance = Math.multiplyExact(balance, POWERS_OF_TEN[line.getAmountScale() - scale]);
+                scale = line.getAmountScale();
+            } else {
+                amount = Math.multiplyExact(amount, POWERS_OF_TEN[scale - line.getAmountScale()]);
+            }
+            final long updated = line.isDebit() ? Math.subtractExact(balance, amount) : Math.addExact(balance, amount);
+
+            final CharSequence information = line.getInformationToAccountOwner();
+            final boolean hasInformation = information.length() > 0;
+            int length = FinWriter.tagLength("61", line.getStatementLine());
+            if (hasInformation) {
+                length += FinWriter.tagLength("86", information);
+            }
+            if (lineCount > 0 && pageLength() + length + balanceLength(updated) > maxLength) {
+                writePage(false);
+            }
+            FinWriter.appendTag(lines, "61", line.getStatementLine());
+            if (hasInformation) {
+                FinWriter.appendTag(lines, "86", information);
+            }
+            balance = updated;
+            lineCount++;
+        }
+
+        /**
+         * Writes the current page, closed with the final balance if it is the last one, or the intermediate
+         * balance otherwise, in which case a new page is started
+         */
+        void writePage(boolean last) {
+            final StringBuilder sb = worker.page;
+            sb.setLength(0);
+            sb.append(header).append("{4:\r\n");
+            FinWriter.appendTag(sb, "20", reference);
+            FinWriter.appendTag(sb, "25", id);
+            sb.append(":28C:").append(statementNumber).append('/').append(page).append("\r\n");
+            FinWriter.appendTag(sb, openingTag, opening);
+            sb.append(lines);
+            sb.append(last ? ":62F:" : ":62M:");
+            appendBalance(sb, balance);
+            sb.append("\r\n-}");
+            worker.emit();
+            if (!last) {
+                final StringBuilder value = new StringBuilder(32);
+                appendBalance(value, balance);
+                opening = value.toString();
+                openingTag = "60M";
+                page++;
+                lines.setLength(0);
+                lineCount = 0;
+            }
+        }
+
+        /**
+         * @return length of the page without its closing balance
+         */
+        private int pageLength() {
+            return header.length() + 5
+                    + FinWriter.tagLength("20", reference)
+                    + FinWriter.tagLength("25", id)
+                    + 7 + statementNumber.length() + 1 + digits(page)
+                    + FinWriter.tagLength(openingTag, opening)
+                    + lines.length()
+                    + 2;
+        }
+
+        /**
+         * @return length of the closing balance tag 62a
+         */
+        private int balanceLength(long value) {
+            return 5 + 1 + date.length() + currency.length() + amountLength(value) + 2;
+        }
+
+        private void appendBalance(StringBuilder sb, long value) {
+            sb.append(value < 0 ? 'D' : 'C').append(date).append(currency);
+            final long unscaled = value < 0 ? Math.negateExact(value) : value;
+            long fraction = unscaled % POWERS_OF_TEN[scale];
+            int fractionDigits = scale;
+            while (fractionDigits > 0 && fraction % 10 == 0) {
+                fraction /= 10;
+                fractionDigits--;
+            }
+            sb.append(unscaled / POWERS_OF_TEN[scale]).append(',');
+            for (int i = fractionDigits - 1; i >= 0; i--) {
+                sb.append((char) ('0' + fraction / POWERS_OF_TEN[i] % 10));
+            }
+        }
+
+        private int amountLength(long value) {
+            final long unscaled = value < 0 ? Math.negateExact(value) : value;
+            long fraction = unscaled % POWERS_OF_TEN[scale];
+            int fractionDigits = scale;
+            while (fractionDigits > 0 && fraction % 10 == 0) {
+                fraction /= 10;
+                fractionDigits--;
+            }
+            return digits(unscaled / POWERS_OF_TEN[scale]) + 1 + fractionDigits;
+        }
+    }
+
+    /**
+     * @return the hash of the field 25 value, computed without creating the account String
+     */
+    private static int accountHash(CharSequence fin) {
+        final int start = valueStart(fin, ":25:");
+        if (start < 0) {
+            return 0;
+        }
+        int hash = 0;
+        for (int i = start, end = lineEnd(fin, start); i < end; i++) {
+            hash = 31 * hash + fin.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * @param tag the tag prefix, for example :25:
+     * @return the index of the value of the first tag with the prefix at the start of a line, or -1 if not found
+     */
+    private static int valueStart(CharSequence fin, String tag) {
+        int i = FinScanner.indexOf(fin, tag, 0, fin.length());
+        while (i > 0 && fin.charAt(i - 1) != '\n') {
+            i = FinScanner.indexOf(fin, tag, i + 1, fin.length());
+        }
+        return i < 0 ? -1 : i + tag.length();
+    }
+
+    private static int lineEnd(CharSequence fin, int from) {
+        int i = from;
+        while (i < fin.length() && fin.charAt(i) != '\r' && fin.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the blocks 1 and 2 of the MT942 with the message type in block 2 changed to 940
+     */
+    private static String header(CharSequence fin) {
+        final StringBuilder sb = new StringBuilder(64);
+        int i = FinScanner.skipBlanks(fin, 0);
+        while (i < fin.length() && fin.charAt(i) == '{' && !FinScanner.startsWith(fin, i, "{4:")) {
+            final int end = FinScanner.blockEnd(fin, i);
+            if (FinScanner.startsWith(fin, i, "{1:")) {
+                sb.append(fin, i, end);
+            } else if (FinScanner.startsWith(fin, i, "{2:")) {
+                final int type = sb.length() + 4;
+                sb.append(fin, i, end);
+                if (FinScanner.startsWith(fin, i + 4, "942")) {
+                    sb.replace(type, type + 3, "940");
+                }
+            }
+            i = FinScanner.skipBlanks(fin, end);
+        }
+        return sb.toString();
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+}
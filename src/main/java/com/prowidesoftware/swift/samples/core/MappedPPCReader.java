@@ -0,0 +1,87 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.PPCReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * DOS-PCC file reader over a memory mapped file, that returns each message as a {@link MessageSlice} of the
+ * mapped content.
+ * <p>
+ * In the DOS-PCC format each message starts with a 0x01 byte and ends with a 0x03 byte, followed by blank
+ * padding up to the end of the 512 bytes sector. The frames are found with a byte scan of the mapped memory and
+ * the padding is skipped without decoding it. As in {@link PPCReader} the content of each message is trimmed.
+ *
+ * @see AbstractMappedReader
+ * @see BufferedPPCWriter
+ */
+public class MappedPPCReader extends AbstractMappedReader {
+
+    static final byte BEGIN = 0x01;
+    static final byte END = 0x03;
+
+    /**
+     * @param file the DOS-PCC file to read, decoded as UTF-8
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedPPCReader(File file) throws IOException {
+        this(file, null, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file       the DOS-PCC file to read
+     * @param charset    the charset to decode the messages, UTF-8 if null
+     * @param windowSize size in bytes of the mapped regions of the file, it must be greater than any message
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedPPCReader(File file, Charset charset, int windowSize) throws IOException {
+        super(file, charset, windowSize);
+    }
+
+    @Override
+    protected int frame(ByteBuffer window, int from, int limit, boolean last) {
+        /*
+         * Skip padding up to the start of the next message
+         */
+        int start = from;
+        while (start < limit && window.get(start) != BEGIN) {
+            start++;
+        }
+        if (start == limit) {
+            return last || start > from ? limit : -1;
+        }
+        int end = start + 1;
+        while (end < limit && window.get(end) != END) {
+            end++;
+        }
+        if (end < limit) {
+            setFrame(start + 1, end);
+            return end + 1;
+        }
+        if (last) {
+            // unterminated message at the end of the file
+            setFrame(start + 1, limit);
+            return limit;
+        }
+        return start > from ? start : -1;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.io.RJEReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * RJE file reader over a memory mapped file, that returns each message as a {@link MessageSlice} of the
+ * mapped content.
+ * <p>
+ * The message delimiters are found with a byte scan of the mapped memory. As in {@link RJEReader} the content of
+ * each message is trimmed, and empty messages are skipped.
+ *
+ * @see AbstractMappedReader
+ */
+public class MappedRJEReader extends AbstractMappedReader {
+
+    private byte splitChar = RJEReader.SPLITCHAR;
+
+    /**
+     * @param file the RJE file to read, decoded as UTF-8
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedRJEReader(File file) throws IOException {
+        this(file, null, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file       the RJE file to read
+     * @param charset    the charset to decode the messages, UTF-8 if null
+     * @param windowSize size in bytes of the mapped regions of the file, it must be greater than any message
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedRJEReader(File file, Charset charset, int windowSize) throws IOException {
+        super(file, charset, windowSize);
+    }
+
+    /**
+     * @param splitChar the message delimiter, $ by default
+     */
+    public void setSplitChar(char splitChar) {
+        this.splitChar = (byte) splitChar;
+    }
+
+    @Override
+    protected int frame(ByteBuffer window, int from, int limit, boolean last) {
+        int end = from;
+        while (end < limit && window.get(end) != splitChar) {
+            end++;
+        }
+        if (end < limit) {
+            setFrame(from, end);
+            return end + 1;
+        }
+        if (last) {
+            setFrame(from, limit);
+            return limit;
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field23B;
+import com.prowidesoftware.swift.model.field.Field32A;
+import com.prowidesoftware.swift.model.field.Field50A;
+import com.prowidesoftware.swift.model.field.Field59;
+import com.prowidesoftware.swift.model.field.Field70;
+import com.prowidesoftware.swift.model.field.Field71A;
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+
+/**
+ * Example of a high volume message creation, where the MT103 of {@link MessageCreation1Example} is created once
+ * as a template and then a {@link ReusableMessage} is refilled in place for every payment, instead of creating
+ * the message, its blocks and fields each time.
+ * <p>
+ * Running this program produces the following SWIFT FIN messages content:
+ * <pre>
+ * {1:F01FOOSEDR0AXXX0000000000}{2:I103FOORECV0XXXXN}{3:{121:4ea37e81-98ec-4014-b7a4-1ff4611b3fca}}{4:
+ * :20:REFERENCE1
+ * :23B:CRED
+ * :32A:141031EUR1234567,89
+ * :50A:/12345678901234567890
+ * FOOBANKXXXXX
+ * :59:/12345678901234567890
+ * JOE DOE
+ * :70:INVOICE 1
+ * :71A:OUR
+ * -}
+ * {1:F01FOOSEDR0AXXX0000000000}{2:I103BARRECV0XXXXN}{3:{121:8e9c3c3a-2a2c-4b8d-9e43-3c1d5f1a7e2b}}{4:
+ * :20:REFERENCE2
+ * :23B:CRED
+ * :32A:141031USD1000,
+ * :50A:/12345678901234567890
+ * FOOBANKXXXXX
+ * :59:/98765432109876543210
+ * JANE DOE
+ * :71A:OUR
+ * -}
+ * </pre>
+ */
+public class MessageCreationReusableExample {
+
+    public static void main(String[] args) {
+        /*
+         * Create the template with the model API, with all the fields of the message in order; the values that
+         * are the same for all payments are set here and the others are placeholders
+         */
+        final MT103 template = new MT103();
+        template.setSender("FOOSEDR0AXXX");
+        template.setReceiver("FOORECV0XXXX");
+        template.addField(new Field20("REFERENCE"));
+        template.addField(new Field23B("CRED"));
+        template.addField(new Field32A("141031EUR0,"));
+        template.addField(new Field50A().setAccount("12345678901234567890").setBIC("FOOBANKXXXXX"));
+        template.addField(new Field59().setAccount("ACCOUNT").setNameAndAddress("NAME"));
+        template.addField(new Field70("REMITTANCE"));
+        template.addField(new Field71A("OUR"));
+
+        /*
+         * The pool keeps the idle messages of each thread, so the payment threads can share it
+         */
+        final ReusableMessage.Pool pool = new ReusableMessage.Pool(template);
+
+        /*
+         * Fill and print the first payment, values can be set as text or with the field API
+         */
+        try (ReusableMessage m = pool.acquire()) {
+            m.setUETR("4ea37e81-98ec-4014-b7a4-1ff4611b3fca")
+                    .set(Field20.NAME, "REFERENCE1")
+                    .set(Field70.NAME, "INVOICE 1");
+            m.<Field32A>field(Field32A.NAME).setAmount("1234567,89");
+            m.<Field59>field(Field59.NAME).setAccount("12345678901234567890").setNameAndAddress("JOE DOE");
+            System.out.println(m.message());
+        }
+
+        /*
+         * The second payment reuses the same message instance, reset to the template values, with another
+         * receiver and without the optional field 70
+         */
+        try (ReusableMessage m = pool.acquire()) {
+            m.setUETR("8e9c3c3a-2a2c-4b8d-9e43-3c1d5f1a7e2b")
+                    .setReceiver("BARRECV0XXXX")
+                    .set(Field20.NAME, "REFERENCE2")
+                    .omit(Field70.NAME);
+            m.<Field32A>field(Field32A.NAME).setCurrency("USD").setAmount("1000,");
+            m.<Field59>field(Field59.NAME).setAccount("98765432109876543210").setNameAndAddress("JANE DOE");
+            System.out.println(m.message());
+        }
+    }
+}
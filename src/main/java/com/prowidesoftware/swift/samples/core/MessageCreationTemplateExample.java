@@ -0,0 +1,91 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field23B;
+import com.prowidesoftware.swift.model.field.Field32A;
+import com.prowidesoftware.swift.model.field.Field50A;
+import com.prowidesoftware.swift.model.field.Field59;
+import com.prowidesoftware.swift.model.field.Field71A;
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Example of a high volume message creation with a {@link FinTemplate}, where the MT103 of
+ * {@link MessageCreation1Example} is compiled once with placeholders for the values that change, and each payment
+ * is serialized by copying the template segments and the values into a reusable buffer.
+ * <p>
+ * Running this program produces the following SWIFT FIN message content:
+ * <pre>
+ * {1:F01FOOSEDR0AXXX0000000000}{2:I103FOORECV0XXXXN}{3:{121:4ea37e81-98ec-4014-b7a4-1ff4611b3fca}}{4:
+ * :20:REFERENCE1
+ * :23B:CRED
+ * :32A:141031EUR1234567,89
+ * :50A:/12345678901234567890
+ * FOOBANKXXXXX
+ * :59:/12345678901234567890
+ * JOE DOE
+ * :71A:OUR
+ * -}
+ * </pre>
+ */
+public class MessageCreationTemplateExample {
+
+    public static void main(String[] args) {
+        /*
+         * The template is created with the model API, the values that change are set as placeholders with the
+         * tag helpers, a field value can contain several placeholders
+         */
+        final MT103 mt103 = new MT103("FOOSEDR0AXXX", "FOORECV0XXXX");
+        mt103.getSwiftMessage().setUETR("${uetr}");
+        mt103.append(Field20.tag("${reference}"));
+        mt103.append(Field23B.tag("CRED"));
+        mt103.append(Field32A.tag("${date}${currency}${amount}"));
+        mt103.append(Field50A.tag("/${orderingAccount}\nFOOBANKXXXXX"));
+        mt103.append(Field59.tag("/${account}\n${name}"));
+        mt103.append(Field71A.tag("${charges}"));
+        final FinTemplate template = new FinTemplate(mt103);
+
+        /*
+         * The slot positions are resolved once, and the writer is reused for all the messages of a thread,
+         * a field value can also be written as a date or an amount
+         */
+        final int uetr = template.slot("uetr");
+        final int reference = template.slot("reference");
+        final int date = template.slot("date");
+        final int currency = template.slot("currency");
+        final int amount = template.slot("amount");
+        final int orderingAccount = template.slot("orderingAccount");
+        final int account = template.slot("account");
+        final int name = template.slot("name");
+        final int charges = template.slot("charges");
+        final FinTemplate.Writer writer = template.writer();
+
+        writer.set(uetr, "4ea37e81-98ec-4014-b7a4-1ff4611b3fca")
+                .set(reference, "REFERENCE1")
+                .setDate(date, LocalDate.of(2014, 10, 31))
+                .set(currency, "EUR")
+                .setAmount(amount, new BigDecimal("1234567.89"))
+                .set(orderingAccount, "12345678901234567890")
+                .set(account, "12345678901234567890")
+                .set(name, "JOE DOE")
+                .set(charges, "OUR");
+        System.out.println(writer);
+    }
+}
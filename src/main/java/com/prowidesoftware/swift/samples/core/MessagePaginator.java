@@ -0,0 +1,656 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock1;
+import com.prowidesoftware.swift.model.SwiftBlock2;
+import com.prowidesoftware.swift.model.SwiftBlock2Input;
+import com.prowidesoftware.swift.model.SwiftBlock2Output;
+import com.prowidesoftware.swift.model.SwiftBlock3;
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftBlock5;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.SwiftTagListBlock;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field61;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Declarative, size bounded pagination of multi-page MT messages.
+ * <p>
+ * The paginator is configured with the sections that repeat in the message body and the fields carrying the
+ * page number, and splits the block 4 of any message in regions:
+ * <ul>
+ *     <li>header: the tags preceding the first repetitive section, written at the start of every page</li>
+ *     <li>body: the repetitive sections, distributed in order among the pages</li>
+ *     <li>trailer: the configured trailer tags (for example the closing balance 62a) and the 16S tags closing
+ *     the sequences opened in the header, written at the end of every page</li>
+ *     <li>footer: the rest of the tags following the last repetitive section, written after the body in the
+ *     last page, or pages if it does not fit in one</li>
+ * </ul>
+ * The FIN length of every section is computed once from its tags, and the sections are packed into pages in a
+ * single pass over the message; each page is handed over as soon as it is complete, and no candidate page is
+ * ever parsed or serialized to check its size.
+ * <p>
+ * A single section that does not fit in an empty page is not split, it is written to a page of its own.
+ * <p>
+ * For statements, a running balance can be configured so that every page but the last is closed with an
+ * intermediate balance computed from the statement lines, and the next page is opened with the same balance.
+ * <p>
+ * Example:
+ * <pre>
+ *     List&lt;SwiftMessage&gt; pages = MessagePaginator.mt940().setMaxLength(2000).paginate(mt940);
+ * </pre>
+ */
+public class MessagePaginator {
+
+    /**
+     * Maximum length of a FIN message in characters
+     */
+    public static final int DEFAULT_MAX_LENGTH = 10000;
+
+    /**
+     * Serialized length of the block 4 delimiters: "{4:\r\n" and "-}"
+     */
+    private static final int BLOCK4_OVERHEAD = 7;
+
+    private final List<Section> repetitive = new ArrayList<>();
+    private final Set<String> trailer = new HashSet<>();
+    private final Map<String, PageNumberFormat> pageNumbers = new LinkedHashMap<>();
+    private String openingBalance;
+    private String closingBalance;
+    private int maxLength = DEFAULT_MAX_LENGTH;
+
+    /**
+     * Paginator for MT535 statements of holdings, split by sub-safekeeping account sequences B
+     */
+    public static MessagePaginator mt535() {
+        return new MessagePaginator()
+                .setRepetitive(Section.sequence("SUBSAFE"))
+                .setPageNumber("28E", PageNumberFormat.CONTINUATION_INDICATOR);
+    }
+
+    /**
+     * Paginator for MT536 statements of transactions, split by sub-safekeeping account sequences B
+     */
+    public static MessagePaginator mt536() {
+        return new MessagePaginator()
+                .setRepetitive(Section.sequence("SUBSAFE"))
+                .setPageNumber("28E", PageNumberFormat.CONTINUATION_INDICATOR);
+    }
+
+    /**
+     * Paginator for MT537 statements of pending transactions, split by sequences B, C and D
+     */
+    public static MessagePaginator mt537() {
+        return new MessagePaginator()
+                .setRepetitive(Section.sequence("STAT"), Section.sequence("TRANS"), Section.sequence("PENA"))
+                .setPageNumber("28E", PageNumberFormat.CONTINUATION_INDICATOR);
+    }
+
+    /**
+     * Paginator for MT548 settlement status advices, split by the status sequences A2; the message has no page
+     * number field.
+     */
+    public static MessagePaginator mt548() {
+        return new MessagePaginator()
+                .setRepetitive(Section.sequence("STAT"));
+    }
+
+    /**
+     * Paginator for MT940 customer statements, split by statement lines 61 with their optional 86.
+     * <p>
+     * The first page keeps the opening balance 60F and the last page the closing balance 62F, every other page
+     * is closed with the intermediate balance 62M and the next page opened with the same balance as 60M.
+     */
+    public static MessagePaginator mt940() {
+        return new MessagePaginator()
+                .setRepetitive(Section.group("61", "86"))
+                .setTrailer("62F", "62M")
+                .setRunningBalance("60", "62")
+                .setPageNumber("28C", PageNumberFormat.STATEMENT_SEQUENCE);
+    }
+
+    /**
+     * Paginator for MT950 statements, split by statement lines 61.
+     * <p>
+     * The first page keeps the opening balance 60F and the last page the closing balance 62F, every other page
+     * is closed with the intermediate balance 62M and the next page opened with the same balance as 60M.
+     */
+    public static MessagePaginator mt950() {
+        return new MessagePaginator()
+                .setRepetitive(Section.group("61"))
+                .setTrailer("62F", "62M")
+                .setRunningBalance("60", "62")
+                .setPageNumber("28C", PageNumberFormat.STATEMENT_SEQUENCE);
+    }
+
+    /**
+     * @param sections the sections that can be distributed among pages, in any order
+     */
+    public MessagePaginator setRepetitive(Section... sections) {
+        this.repetitive.clear();
+        this.repetitive.addAll(Arrays.asList(sections));
+        return this;
+    }
+
+    /**
+     * @param tagNames names of the tags following the body that must be present in every page
+     */
+    public MessagePaginator setTrailer(String... tagNames) {
+        this.trailer.clear();
+        this.trailer.addAll(Arrays.asList(tagNames));
+        return this;
+    }
+
+    /**
+     * Sets the balance fields of a statement, to close every page but the last with an intermediate balance and
+     * open the next page with the same balance. The intermediate balance is the opening balance of the page plus
+     * the amounts of the statement lines 61 written in it, with the date and currency of the original closing
+     * balance.
+     * <p>
+     * The opening balance is the first tag of the header with the given field number and letter option F or M,
+     * and the closing balance the first tag with the given field number among the trailer tags. If any of them is
+     * not present the balances are copied as they are to every page.
+     *
+     * @param opening field number of the opening balance, for example 60, written as 60M in all pages but the first
+     * @param closing field number of the closing balance, for example 62, written as 62M in all pages but the last
+     */
+    public MessagePaginator setRunningBalance(String opening, String closing) {
+        this.openingBalance = opening;
+        this.closingBalance = closing;
+        return this;
+    }
+
+    /**
+     * Adds a page number field. The first tag with the given name in the header is updated in every page.
+     *
+     * @param tagName name of the page number field, for example 28E
+     * @param format  how to create the field value for each page
+     */
+    public MessagePaginator setPageNumber(String tagName, PageNumberFormat format) {
+        this.pageNumbers.put(tagName, format);
+        return this;
+    }
+
+    /**
+     * @param maxLength maximum length in characters of each resulting FIN message
+     */
+    public MessagePaginator setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Splits the message into size bounded pages.
+     *
+     * @param mt the message to split, it is not modified
+     * @return the list of pages, with a single element if the message fits into the maximum length
+     */
+    public List<SwiftMessage> paginate(AbstractMT mt) {
+        List<SwiftMessage> result = new ArrayList<>();
+        paginate(mt, result::add);
+        return result;
+    }
+
+    /**
+     * Splits the message into size bounded pages, passing each page to the consumer as soon as it is complete.
+     *
+     * @param mt       the message to split, it is not modified
+     * @param consumer receives the pages in order
+     */
+    public void paginate(AbstractMT mt, Consumer<SwiftMessage> consumer) {
+        final SwiftMessage original = mt.getSwiftMessage();
+        final List<Tag> tags = original.getBlock4() != null ? original.getBlock4().getTags() : new ArrayList<>();
+
+        /*
+         * Header, up to the first repetitive section, tracking the sequences left open
+         */
+        int index = 0;
+        Deque<String> openSequences = new ArrayDeque<>();
+        while (index < tags.size() && sectionEnd(tags, index) < 0) {
+            Tag tag = tags.get(index++);
+            if ("16R".equals(tag.getName())) {
+                openSequences.push(tag.getValue());
+            } else if ("16S".equals(tag.getName()) && !openSequences.isEmpty()) {
+                openSequences.pop();
+            }
+        }
+        final List<Tag> header = tags.subList(0, index);
+
+        /*
+         * Body and footer, as tag index ranges with their serialized lengths
+         */
+        List<int[]> body = new ArrayList<>();
+        List<int[]> footer = new ArrayList<>();
+        List<Tag> trailerTags = new ArrayList<>();
+        while (index < tags.size()) {
+            int end = sectionEnd(tags, index);
+            Tag tag = tags.get(index);
+            if (end > 0 && footer.isEmpty()) {
+                body.add(new int[]{index, end, finLength(tags, index, end)});
+            } else if (trailer.contains(tag.getName())
+                    || ("16S".equals(tag.getName()) && footer.isEmpty() && tag.getValue().equals(openSequences.peek()))) {
+                if ("16S".equals(tag.getName())) {
+                    openSequences.pop();
+                }
+                trailerTags.add(tag);
+                end = index + 1;
+            } else {
+                end = footerEnd(tags, index);
+                footer.add(new int[]{index, end, finLength(tags, index, end)});
+            }
+            index = end;
+        }
+        final int footerStart = footer.isEmpty() ? tags.size() : footer.get(0)[0];
+        final int trailerLength = finLength(trailerTags, 0, trailerTags.size());
+        final int fixedLength = headerLength(original) + BLOCK4_OVERHEAD + trailerLength;
+
+        /*
+         * Running balance, from the opening balance and updated with the statement lines of each page
+         */
+        final Tag opening = openingBalance != null ? findBalance(header, openingBalance) : null;
+        final Tag closing = closingBalance != null ? findBalance(trailerTags, closingBalance) : null;
+        final boolean running = opening != null && closing != null;
+        BigDecimal balance = running ? balance(opening.getValue()) : null;
+
+        /*
+         * Single pass packing the sections into pages
+         */
+        List<int[]> sections = new ArrayList<>(body.size() + footer.size());
+        sections.addAll(body);
+        sections.addAll(footer);
+        List<int[]> page = new ArrayList<>();
+        int pageNumber = 1;
+        Tag pageOpening = null;
+        int pageLength = fixedLength + headerLength(header, pageNumber, opening, pageOpening);
+        for (int[] section : sections) {
+            BigDecimal updated = balance;
+            int closingLength = 0;
+            if (running) {
+                // the page may be closed with the intermediate balance after this section instead of the original
+                updated = balance.add(amount(tags, section[0], section[1]));
+                closingLength = Math.max(0, finLength(balanceTag(closing, closing, updated)) - finLength(closing));
+            }
+            if (!page.isEmpty() && pageLength + section[2] + closingLength > maxLength) {
+                final Tag pageClosing = running ? balanceTag(closing, closing, balance) : null;
+                consumer.accept(createPage(original, tags, header, page, trailerTags, footerStart, pageNumber, false,
+                        opening, pageOpening, closing, pageClosing));
+                page.clear();
+                pageNumber++;
+                pageOpening = running ? balanceTag(opening, closing, balance) : null;
+                pageLength = fixedLength + headerLength(header, pageNumber, opening, pageOpening);
+            }
+            page.add(section);
+            pageLength += section[2];
+            balance = updated;
+        }
+        consumer.accept(createPage(original, tags, header, page, trailerTags, footerStart, pageNumber, true,
+                opening, pageOpening, closing, null));
+    }
+
+    /**
+     * Builds a page copying the tags, so that pages are independent of the original message
+     *
+     * @param pageOpening replacement of the opening balance tag, or null to copy it
+     * @param pageClosing replacement of the closing balance tag, or null to copy it
+     */
+    private SwiftMessage createPage(SwiftMessage original, List<Tag> tags, List<Tag> header, List<int[]> sections,
+                                    List<Tag> trailerTags, int footerStart, int pageNumber, boolean last,
+                                    Tag opening, Tag pageOpening, Tag closing, Tag pageClosing) {
+        SwiftBlock4 block4 = new SwiftBlock4();
+        Set<String> pending = new HashSet<>(pageNumbers.keySet());
+        for (Tag tag : header) {
+            Tag copy = new Tag(tag == opening && pageOpening != null ? pageOpening : tag);
+            if (pending.remove(tag.getName())) {
+                copy.setValue(pageNumbers.get(tag.getName()).format(tag.getValue(), pageNumber, last));
+            }
+            block4.append(copy);
+        }
+        boolean trailerWritten = false;
+        for (int[] section : sections) {
+            if (!trailerWritten && section[0] >= footerStart) {
+                appendCopy(block4, trailerTags, closing, pageClosing);
+                trailerWritten = true;
+            }
+            appendCopy(block4, tags.subList(section[0], section[1]), null, null);
+        }
+        if (!trailerWritten) {
+            appendCopy(block4, trailerTags, closing, pageClosing);
+        }
+        return copyHeader(original, block4);
+    }
+
+    /**
+     * Appends a copy of the tags, writing the replacement instead of the given tag if not null
+     */
+    private static void appendCopy(SwiftBlock4 block4, List<Tag> tags, Tag replaced, Tag replacement) {
+        for (Tag tag : tags) {
+            block4.append(new Tag(tag == replaced && replacement != null ? replacement : tag));
+        }
+    }
+
+    /**
+     * @return the first balance tag with the field number and letter option F or M, or null if not found
+     */
+    private static Tag findBalance(List<Tag> tags, String number) {
+        for (Tag tag : tags) {
+            final String name = tag.getName();
+            if (name.length() == number.length() + 1 && name.startsWith(number)
+                    && (name.endsWith("F") || name.endsWith("M"))) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param value a balance field value, for example C191020EUR10000,00
+     * @return the signed amount
+     */
+    private static BigDecimal balance(String value) {
+        final BigDecimal amount = new BigDecimal(value.substring(10).replace(',', '.'));
+        return value.charAt(0) == 'D' ? amount.negate() : amount;
+    }
+
+    /**
+     * @param tag     the balance tag to replace
+     * @param closing the original closing balance, whose date and currency are used
+     * @param balance the amount
+     * @return the intermediate balance M replacing the tag
+     */
+    private static Tag balanceTag(Tag tag, Tag closing, BigDecimal balance) {
+        final String value = closing.getValue();
+        String amount = balance.abs().toPlainString().replace('.', ',');
+        if (amount.indexOf(',') < 0) {
+            amount += ",";
+        }
+        return new Tag(tag.getName().substring(0, tag.getName().length() - 1) + "M",
+                (balance.signum() < 0 ? "D" : "C") + value.substring(1, 10) + amount);
+    }
+
+    /**
+     * @return the sum of the statement lines 61 amounts in the range, credits as positive and debits as negative,
+     * as in {@link StatementLineCursor#isDebit(CharSequence)}
+     */
+    private static BigDecimal amount(List<Tag> tags, int from, int to) {
+        BigDecimal result = BigDecimal.ZERO;
+        for (int i = from; i < to; i++) {
+            final Tag tag = tags.get(i);
+            if (Field61.NAME.equals(tag.getName())) {
+                final Field61 line = new Field61(tag.getValue());
+                final BigDecimal amount = line.getAmountAsBigDecimal();
+                if (amount != null) {
+                    result = StatementLineCursor.isDebit(line.getDebitCreditMark())
+                            ? result.subtract(amount) : result.add(amount);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the end index (exclusive) of the repetitive section starting at the given index, or -1 if no
+     * repetitive section starts there
+     */
+    private int sectionEnd(List<Tag> tags, int index) {
+        for (Section section : repetitive) {
+            int end = section.end(tags, index);
+            if (end > 0) {
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Footer sections are the top level 16R/16S sequences, or single tags outside sequences
+     */
+    private static int footerEnd(List<Tag> tags, int index) {
+        Tag tag = tags.get(index);
+        if ("16R".equals(tag.getName())) {
+            int end = Section.sequence(tag.getValue()).end(tags, index);
+            if (end > 0) {
+                return end;
+            }
+        }
+        return index + 1;
+    }
+
+    /**
+     * Length of the header tags with the page number fields and the opening balance set for the given page
+     */
+    private int headerLength(List<Tag> header, int pageNumber, Tag opening, Tag pageOpening) {
+        Set<String> pending = new HashSet<>(pageNumbers.keySet());
+        int length = 0;
+        for (Tag tag : header) {
+            if (tag == opening && pageOpening != null) {
+                length += finLength(pageOpening);
+            } else if (pending.remove(tag.getName())) {
+                PageNumberFormat format = pageNumbers.get(tag.getName());
+                Tag page = new Tag(tag.getName(), format.format(tag.getValue(), pageNumber, false));
+                Tag last = new Tag(tag.getName(), format.format(tag.getValue(), pageNumber, true));
+                length += Math.max(finLength(page), finLength(last));
+            } else {
+                length += finLength(tag);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Length of the message blocks other than block 4, serialized once per message
+     */
+    private static int headerLength(SwiftMessage original) {
+        return copyHeader(original, null).message().length();
+    }
+
+    /**
+     * Creates a new message with a copy of the blocks 1, 2, 3 and 5 of the original message
+     *
+     * @param original the message to copy the header blocks from
+     * @param block4   the block 4 for the new message
+     * @return a new message
+     */
+    static SwiftMessage copyHeader(SwiftMessage original, SwiftBlock4 block4) {
+        SwiftMessage result = new SwiftMessage(false);
+        if (original.getBlock1() != null) {
+            result.setBlock1(new SwiftBlock1(original.getBlock1()));
+        }
+        SwiftBlock2 block2 = original.getBlock2();
+        if (block2 instanceof SwiftBlock2Input) {
+            result.setBlock2(new SwiftBlock2Input((SwiftBlock2Input) block2));
+        } else if (block2 instanceof SwiftBlock2Output) {
+            result.setBlock2(new SwiftBlock2Output((SwiftBlock2Output) block2));
+        }
+        if (original.getBlock3() != null) {
+            result.setBlock3(new SwiftBlock3(copy(original.getBlock3().getTags())));
+        }
+        result.setBlock4(block4);
+        if (original.getBlock5() != null) {
+            result.setBlock5(new SwiftBlock5(copy(original.getBlock5().getTags())));
+        }
+        return result;
+    }
+
+    private static List<Tag> copy(List<Tag> tags) {
+        List<Tag> result = new ArrayList<>(tags.size());
+        for (Tag tag : tags) {
+            result.add(new Tag(tag));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the length of the tags as written by {@link SwiftMessage#message()} in the FIN block 4, this is
+     * ":name:value" followed by a CRLF, where any line break inside the value is also written as CRLF.
+     *
+     * @param block a list of tags
+     * @return the number of characters of the tags serialization
+     */
+    public static int finLength(SwiftTagListBlock block) {
+        return finLength(block.getTags(), 0, block.size());
+    }
+
+    private static int finLength(List<Tag> tags, int from, int to) {
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            length += finLength(tags.get(i));
+        }
+        return length;
+    }
+
+    /**
+     * @param tag a block 4 tag
+     * @return the number of characters of the tag serialization, including its trailing CRLF
+     * @see #finLength(SwiftTagListBlock)
+     */
+    public static int finLength(Tag tag) {
+        String value = tag.getValue();
+        int length = tag.getName().length() + 4;
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\n') {
+                    length += 2;
+                } else if (c == '\r') {
+                    length += 2;
+                    if (i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                } else {
+                    length++;
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * A section of block 4 that can be moved as a whole to a page
+     */
+    public interface Section {
+
+        /**
+         * @param tags  the block 4 tags
+         * @param index the position to check
+         * @return the end index (exclusive) of the section if it starts at the given index, -1 otherwise
+         */
+        int end(List<Tag> tags, int index);
+
+        /**
+         * A sequence delimited by 16R and 16S with the given name, including its nested sequences
+         *
+         * @param name the sequence name, for example PENA
+         */
+        static Section sequence(String name) {
+            return (tags, index) -> {
+                Tag start = tags.get(index);
+                if (!"16R".equals(start.getName()) || !name.equals(start.getValue())) {
+                    return -1;
+                }
+                for (int i = index + 1; i < tags.size(); i++) {
+                    Tag tag = tags.get(i);
+                    if ("16S".equals(tag.getName()) && name.equals(tag.getValue())) {
+                        return i + 1;
+                    }
+                }
+                return -1;
+            };
+        }
+
+        /**
+         * A group of tags starting with a given field followed by any number of the other fields, for example
+         * the statement line 61 with its optional 86
+         *
+         * @param first     the name of the first tag of the group
+         * @param following the names of the tags that may follow the first one in the group
+         */
+        static Section group(String first, String... following) {
+            final Set<String> names = new HashSet<>(Arrays.asList(following));
+            return (tags, index) -> {
+                if (!first.equals(tags.get(index).getName())) {
+                    return -1;
+                }
+                int end = index + 1;
+                while (end < tags.size() && names.contains(tags.get(end).getName())) {
+                    end++;
+                }
+                return end;
+            };
+        }
+    }
+
+    /**
+     * Creates the page number field value for each page
+     */
+    @FunctionalInterface
+    public interface PageNumberFormat {
+
+        /**
+         * Field 28E page number with 5 digits and the continuation indicator, for example 00002/MORE
+         */
+        PageNumberFormat CONTINUATION_INDICATOR = (value, page, last) -> {
+            String number = String.valueOf(page);
+            StringBuilder sb = new StringBuilder(10);
+            for (int i = number.length(); i < 5; i++) {
+                sb.append('0');
+            }
+            sb.append(number).append('/');
+            if (last) {
+                sb.append(page == 1 ? "ONLY" : "LAST");
+            } else {
+                sb.append("MORE");
+            }
+            return sb.toString();
+        };
+
+        /**
+         * Field 28C statement number, kept from the original value, and the page as sequence number, for
+         * example 255/2
+         */
+        PageNumberFormat STATEMENT_SEQUENCE = (value, page, last) -> {
+            int slash = value.indexOf('/');
+            String statement = slash >= 0 ? value.substring(0, slash) : value;
+            return statement + "/" + page;
+        };
+
+        /**
+         * @param value the field value in the original message
+         * @param page  the page number starting at 1
+         * @param last  true if this is the last page
+         * @return the field value for the page
+         */
+        String format(String value, int page, boolean last);
+    }
+
+}
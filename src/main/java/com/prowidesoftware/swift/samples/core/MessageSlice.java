@@ -0,0 +1,156 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * A message content as a region of a byte buffer, typically a memory mapped file, that is only decoded into a
+ * String when needed.
+ * <p>
+ * The slice is a {@link CharSequence} over the raw bytes, one char per byte, so the content can be inspected
+ * without decoding it as long as it is written with the SWIFT character sets, which are all single byte. Use
+ * {@link #toString()} to get the content decoded with the slice charset.
+ * <p>
+ * The slice does not copy the content, it keeps a reference to the buffer region it was created from.
+ */
+public class MessageSlice implements CharSequence {
+    private static final Logger log = Logger.getLogger(MessageSlice.class.getName());
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int length;
+    private final long position;
+    private final Charset charset;
+
+    /**
+     * @param buffer   the buffer holding the content, its position and limit are not used nor modified
+     * @param start    index of the first byte of the message in the buffer
+     * @param length   number of bytes of the message
+     * @param position offset of the message in the source file, for reference
+     * @param charset  the charset to decode the content, UTF-8 if null
+     */
+    public MessageSlice(ByteBuffer buffer, int start, int length, long position, Charset charset) {
+        this.buffer = Objects.requireNonNull(buffer, "buffer must not be null");
+        this.start = start;
+        this.length = length;
+        this.position = position;
+        this.charset = charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * @return offset of the message in the source file
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return the byte at the index as a char, without charset decoding
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + " out of range for length " + length);
+        }
+        return (char) (buffer.get(start + index) & 0xFF);
+    }
+
+    /**
+     * @return a slice over the same buffer, the content is not copied
+     */
+    @Override
+    public MessageSlice subSequence(int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of range for length " + length);
+        }
+        return new MessageSlice(buffer, start + from, to - from, position + from, charset);
+    }
+
+    /**
+     * Copies the raw content into the destination array.
+     *
+     * @param dst    destination array
+     * @param offset position in the destination array
+     */
+    public void getBytes(byte[] dst, int offset) {
+        buffer.duplicate().position(start).get(dst, offset, length);
+    }
+
+    /**
+     * @return the content as a read only buffer over the same memory
+     */
+    public ByteBuffer asByteBuffer() {
+        ByteBuffer result = buffer.asReadOnlyBuffer();
+        result.limit(start + length).position(start);
+        return result.slice();
+    }
+
+    /**
+     * Decodes the content, this is the only method creating a copy of the message.
+     */
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        getBytes(bytes, 0);
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Decodes and parses the content.
+     *
+     * @return the parsed message
+     * @throws IOException if the content cannot be parsed
+     */
+    public SwiftMessage toSwiftMessage() throws IOException {
+        return SwiftMessage.parse(toString());
+    }
+
+    /**
+     * Decodes and parses the content into its specific MT class, skipping an ACK/NAK service message preceding the
+     * actual message, with the same semantic as {@link com.prowidesoftware.swift.io.RJEReader#nextMT()}. Only the
+     * content after the ACK/NAK is decoded and parsed.
+     *
+     * @return the parsed message or null if the content is a service message other than an ACK/NAK
+     * @throws IOException if the content cannot be parsed
+     */
+    public AbstractMT toMT() throws IOException {
+        AckEnvelope ack = new AckEnvelope();
+        if (ack.wrap(this)) {
+            return ack.parseMT();
+        }
+        SwiftMessage sm = toSwiftMessage();
+        if (sm.isServiceMessage()) {
+            log.warning("toMT in " + getClass().getName() + " is not intended for service messages, use toSwiftMessage() instead");
+            return null;
+        }
+        return sm.toMT();
+    }
+
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.*;
+import com.prowidesoftware.swift.model.field.Field;
+import com.prowidesoftware.swift.utils.SafeXmlUtils;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Reader of the messages XML representation with StAX, the reverse of {@link MessageXMLWriter}.
+ * <p>
+ * This is the XML created by {@link com.prowidesoftware.swift.io.ConversionService#getXml(SwiftMessage, boolean)}
+ * (the proprietary XML format, not the SWIFT MX), in both flavours: with block 4 fields as tag name and value (the
+ * tag element) or as field components (the field element). The result is the same message created by
+ * {@link com.prowidesoftware.swift.io.ConversionService#getMessageFromXML(String)}, but the document is read as a
+ * stream of events instead of being loaded into a DOM tree.
+ * <p>
+ * The document may contain any number of message elements, at any depth, for example within the root element
+ * written by {@link MessageXMLWriter}. Each message is created when it is read, so the memory used does not depend
+ * on the number of messages.
+ * <p>
+ * A message with invalid content, such as a tag without name or an unknown field, is read until its end and
+ * reported with an exception, the reader can continue with the next messages. Errors in the XML syntax stop the
+ * reading.
+ *
+ * @see MessageXMLWriter
+ */
+public class MessageXMLReader implements Iterator<SwiftMessage>, Iterable<SwiftMessage>, Closeable {
+    private static final Logger log = Logger.getLogger(MessageXMLReader.class.getName());
+
+    private static final String MESSAGE = "message";
+
+    private final XMLStreamReader xml;
+    private final Closeable input;
+    private SwiftMessage nextMessage;
+    private boolean usedAsIterable = false;
+    private long count = 0;
+
+    /**
+     * @param reader the XML content, closed when this reader is closed
+     * @throws IOException if the XML cannot be read
+     */
+    public MessageXMLReader(Reader reader) throws IOException {
+        this(create(Objects.requireNonNull(reader, "reader must not be null")), reader);
+    }
+
+    /**
+     * @param in the XML content, with the encoding of its XML declaration or UTF-8 by default, closed when this
+     *           reader is closed
+     * @throws IOException if the XML cannot be read
+     */
+    public MessageXMLReader(InputStream in) throws IOException {
+        this(create(Objects.requireNonNull(in, "in must not be null")), in);
+    }
+
+    /**
+     * @param xml the XML content; it is closed but its underlying input is not closed when this reader is closed
+     */
+    public MessageXMLReader(XMLStreamReader xml) {
+        this(Objects.requireNonNull(xml, "xml must not be null"), null);
+    }
+
+    private MessageXMLReader(XMLStreamReader xml, Closeable input) {
+        this.xml = xml;
+        this.input = input;
+    }
+
+    private static XMLStreamReader create(Object input) throws IOException {
+        try {
+            return input instanceof Reader ? SafeXmlUtils.inputFactory().createXMLStreamReader((Reader) input)
+                    : SafeXmlUtils.inputFactory().createXMLStreamReader((InputStream) input);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * @return number of messages read
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if there is another message element
+     * @throws UncheckedIOException if the XML cannot be read or the message content is invalid
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextMessage == null) {
+            try {
+                nextMessage = nextSwiftMessage();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextMessage != null;
+    }
+
+    /**
+     * @throws UncheckedIOException if the XML cannot be read or the message content is invalid
+     */
+    @Override
+    public SwiftMessage next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SwiftMessage result = nextMessage;
+        nextMessage = null;
+        return result;
+    }
+
+    /**
+     * @return the next message, or null if there are no more messages
+     * @throws IOException if the XML cannot be read or the message content is invalid
+     */
+    public SwiftMessage nextSwiftMessage() throws IOException {
+        if (nextMessage != null) {
+            SwiftMessage result = nextMessage;
+            nextMessage = null;
+            return result;
+        }
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && MESSAGE.equals(xml.getLocalName())) {
+                    SwiftMessage result = read(xml);
+                    count++;
+                    return result;
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Iterator<SwiftMessage> iterator() {
+        if (usedAsIterable) {
+            throw new IllegalStateException("This reader has already been used as Iterator and the implementation does not support multiple iterations, create another reader instance instead");
+        }
+        usedAsIterable = true;
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            if (input != null) {
+                input.close();
+            }
+        }
+    }
+
+    /**
+     * Reads a message element. The stream must be positioned at the message start element and it is left at its
+     * end element, also when the content is invalid.
+     *
+     * @param xml the XML stream
+     * @return the message
+     * @throws XMLStreamException if the XML cannot be read or the message content is invalid
+     */
+    public static SwiftMessage read(XMLStreamReader xml) throws XMLStreamException {
+        Objects.requireNonNull(xml, "xml must not be null");
+        xml.require(XMLStreamConstants.START_ELEMENT, null, MESSAGE);
+        return new MessageEvents(xml).message();
+    }
+
+    /**
+     * Creates the message from the events of a message element, with the same semantic of the DOM based
+     * {@link com.prowidesoftware.swift.io.parser.XMLParser}: element names are case insensitive and unknown
+     * elements are ignored
+     */
+    private static final class MessageEvents {
+        private final XMLStreamReader xml;
+        private final StringBuilder text = new StringBuilder();
+        private String error;
+
+        MessageEvents(XMLStreamReader xml) {
+            this.xml = xml;
+        }
+
+        SwiftMessage message() throws XMLStreamException {
+            SwiftMessage msg = new SwiftMessage(false);
+            while (nextChild()) {
+                final String name = xml.getLocalName();
+                if (name.equalsIgnoreCase("block1")) {
+                    msg.setBlock1(block1());
+                } else if (name.equalsIgnoreCase("block2")) {
+                    msg.setBlock2(block2());
+                } else if (name.equalsIgnoreCase("unparsedtexts")) {
+                    msg.setUnparsedTexts(unparsedTexts());
+                } else {
+                    SwiftTagListBlock block = tagListBlock(name);
+                    if (block != null) {
+                        msg.addBlock(block);
+                    }
+                }
+            }
+            if (error != null) {
+                throw new XMLStreamException(error, xml.getLocation());
+            }
+            return msg;
+        }
+
+        private SwiftBlock1 block1() throws XMLStreamException {
+            SwiftBlock1 b = new SwiftBlock1();
+            while (nextChild()) {
+                final String name = xml.getLocalName();
+                if (name.equalsIgnoreCase("applicationId")) {
+                    b.setApplicationId(text());
+                } else if (name.equalsIgnoreCase("serviceId")) {
+                    b.setServiceId(text());
+                } else if (name.equalsIgnoreCase("logicalTerminal")) {
+                    b.setLogicalTerminal(text());
+                } else if (name.equalsIgnoreCase("sessionNumber")) {
+                    b.setSessionNumber(text());
+                } else if (name.equalsIgnoreCase("sequenceNumber")) {
+                    b.setSequenceNumber(text());
+                } else if (name.equalsIgnoreCase("unparsedtexts")) {
+                    b.setUnparsedTexts(unparsedTexts());
+                } else {
+                    skip();
+                }
+            }
+            return b;
+        }
+
+        private SwiftBlock2 block2() throws XMLStreamException {
+            final String type = xml.getAttributeValue(null, "type");
+            if ("input".equals(type)) {
+                return block2Input();
+            }
+            if ("output".equals(type)) {
+                return block2Output();
+            }
+            log.severe("expected attribute 'type' with value input or output at <block2> but found " + type);
+            skip();
+            return null;
+        }
+
+        private SwiftBlock2Input block2Input() throws XMLStreamException {
+            SwiftBlock2Input b = new SwiftBlock2Input();
+            while (nextChild()) {
+                final String name = xml.getLocalName();
+                if (name.equalsIgnoreCase("messageType")) {
+                    b.setMessageType(text());
+                } else if (name.equalsIgnoreCase("receiverAddress")) {
+                    b.setReceiverAddress(text());
+                } else if (name.equalsIgnoreCase("messagePriority")) {
+                    b.setMessagePriority(text());
+                } else if (name.equalsIgnoreCase("deliveryMonitoring")) {
+                    b.setDeliveryMonitoring(text());
+                } else if (name.equalsIgnoreCase("obsolescencePeriod")) {
+                    b.setObsolescencePeriod(text());
+                } else if (name.equalsIgnoreCase("unparsedtexts")) {
+                    b.setUnparsedTexts(unparsedTexts());
+                } else {
+                    skip();
+                }
+            }
+            return b;
+        }
+
+        private SwiftBlock2Output block2Output() throws XMLStreamException {
+            SwiftBlock2Output b = new SwiftBlock2Output();
+            while (nextChild()) {
+                final String name = xml.getLocalName();
+                if (name.equalsIgnoreCase("messageType")) {
+                    b.setMessageType(text());
+                } else if (name.equalsIgnoreCase("senderInputTime")) {
+                    b.setSenderInputTime(text());
+                } else if (name.equalsIgnoreCase("MIRDate")) {
+                    b.setMIRDate(text());
+                } else if (name.equalsIgnoreCase("MIRLogicalTerminal")) {
+                    b.setMIRLogicalTerminal(text());
+                } else if (name.equalsIgnoreCase("MIRSessionNumber")) {
+                    b.setMIRSessionNumber(text());
+                } else if (name.equalsIgnoreCase("MIRSequenceNumber")) {
+                    b.setMIRSequenceNumber(text());
+                } else if (name.equalsIgnoreCase("receiverOutputDate")) {
+                    b.setReceiverOutputDate(text());
+                } else if (name.equalsIgnoreCase("receiverOutputTime")) {
+                    b.setReceiverOutputTime(text());
+                } else if (name.equalsIgnoreCase("messagePriority")) {
+                    b.setMessagePriority(text());
+                } else if (name.equalsIgnoreCase("unparsedtexts")) {
+                    b.setUnparsedTexts(unparsedTexts());
+                } else {
+                    skip();
+                }
+            }
+            return b;
+        }
+
+        private SwiftTagListBlock tagListBlock(String element) throws XMLStreamException {
+            final SwiftTagListBlock b;
+            if (element.equalsIgnoreCase("block3")) {
+                b = new SwiftBlock3();
+            } else if (element.equalsIgnoreCase("block4")) {
+                b = new SwiftBlock4();
+            } else if (element.equalsIgnoreCase("block5")) {
+                b = new SwiftBlock5();
+            } else if (element.equalsIgnoreCase("block")) {
+                final String name = xml.getAttributeValue(null, "name");
+                b = name != null ? new SwiftBlockUser(name) : new SwiftBlockUser();
+            } else {
+                skip();
+                return null;
+            }
+            while (nextChild()) {
+                final String name = xml.getLocalName();
+                if (name.equalsIgnoreCase("tag")) {
+                    Tag t = tag();
+                    if (t != null) {
+                        b.append(t);
+                    }
+                } else if (name.equalsIgnoreCase("field")) {
+                    Field f = field();
+                    if (f != null) {
+                        b.append(f);
+                    }
+                } else if (name.equalsIgnoreCase("unparsedtexts")) {
+                    b.setUnparsedTexts(unparsedTexts());
+                } else {
+                    skip();
+                }
+            }
+            return b;
+        }
+
+        private Tag tag() throws XMLStreamException {
+            Tag t = new Tag();
+            boolean named = false;
+            while (nextChild()) {
+                final String name = xml.getLocalName();
+                if (name.equalsIgnoreCase("name")) {
+                    final String value = text();
+                    if (value != null) {
+                        t.setName(value);
+                        named = true;
+                    }
+                } else if (name.equalsIgnoreCase("value")) {
+                    t.setValue(crlf(text()));
+                } else if (name.equalsIgnoreCase("unparsedtexts")) {
+                    t.setUnparsedTexts(unparsedTexts());
+                } else {
+                    skip();
+                }
+            }
+            if (!named) {
+                return invalid("tag without name");
+            }
+            return t;
+        }
+
+        private Field field() throws XMLStreamException {
+            String name = null;
+            List<String> components = new ArrayList<>();
+            while (nextChild()) {
+                final String element = xml.getLocalName();
+                if (element.equalsIgnoreCase("name")) {
+                    final String value = text();
+                    if (name == null) {
+                        name = value;
+                    }
+                } else if (element.equalsIgnoreCase("component")) {
+                    final String number = xml.getAttributeValue(null, "number");
+                    final String value = text();
+                    if (isNumeric(number)) {
+                        components.add(number);
+                        components.add(crlf(value));
+                    }
+                } else {
+                    skip();
+                }
+            }
+            if (name == null) {
+                return invalid("field without name");
+            }
+            Field f = Field.getField(name, null);
+            if (f == null) {
+                return invalid("unknown field " + name);
+            }
+            for (int i = 0; i < components.size(); i += 2) {
+                f.setComponent(Integer.parseInt(components.get(i)), components.get(i + 1));
+            }
+            return f;
+        }
+
+        private UnparsedTextList unparsedTexts() throws XMLStreamException {
+            UnparsedTextList texts = new UnparsedTextList();
+            while (nextChild()) {
+                if (xml.getLocalName().equalsIgnoreCase("text")) {
+                    texts.addText(text());
+                } else {
+                    skip();
+                }
+            }
+            return texts;
+        }
+
+        /**
+         * The XML parsing normalizes line breaks to LF, the FIN values use CRLF
+         */
+        private static String crlf(String value) {
+            return value == null || value.indexOf('\n') < 0 ? value : value.replace("\n", "\r\n");
+        }
+
+        private static boolean isNumeric(String value) {
+            if (value == null || value.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (!Character.isDigit(value.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Records the first invalid content of the message, to be reported once the message element is read
+         */
+        private <T> T invalid(String message) {
+            if (error == null) {
+                error = "Invalid message content: " + message;
+            }
+            return null;
+        }
+
+        /**
+         * Moves to the next child element of the current element
+         *
+         * @return true if positioned at a child start element, false if positioned at the end of the current element
+         */
+        private boolean nextChild() throws XMLStreamException {
+            while (true) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    return true;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Reads the text of the current element up to its end or its first nested element, as the first text node
+         * of the DOM element. CDATA sections are read as text.
+         *
+         * @return the text, or null if the element has no text
+         */
+        private String text() throws XMLStreamException {
+            String result = null;
+            text.setLength(0);
+            while (true) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                    if (result == null) {
+                        result = xml.getText();
+                    } else {
+                        if (text.length() == 0) {
+                            text.append(result);
+                        }
+                        text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                    }
+                } else if (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT) {
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        skip();
+                        skip();
+                    }
+                    return text.length() > 0 ? text.toString() : result;
+                }
+            }
+        }
+
+        /**
+         * Skips the current element and its content
+         */
+        private void skip() throws XMLStreamException {
+            int depth = 0;
+            while (true) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT && depth-- == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+}
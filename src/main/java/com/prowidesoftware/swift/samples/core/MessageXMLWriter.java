@@ -0,0 +1,502 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.ProwideException;
+import com.prowidesoftware.swift.io.writer.XMLWriterVisitor;
+import com.prowidesoftware.swift.model.*;
+import com.prowidesoftware.swift.model.field.Field;
+import com.prowidesoftware.swift.utils.IMessageVisitor;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writer of the messages XML representation directly into an output, without creating the XML as a String.
+ * <p>
+ * This is the same XML created by {@link com.prowidesoftware.swift.io.ConversionService#getXml(SwiftMessage, boolean)}
+ * (the proprietary XML format, not the SWIFT MX), written message by message into a {@link Writer}, an
+ * {@link OutputStream} or a {@link XMLStreamWriter}. Several messages can be written into the same output, within a
+ * root element.
+ * <p>
+ * Since each message is written as soon as it is parsed and then discarded, the memory used does not depend on the
+ * number of messages; converting a large RJE file is a matter of iterating it with a {@link MappedRJEReader} or
+ * {@link com.prowidesoftware.swift.io.RJEReader} and passing each message to {@link #write(CharSequence)}.
+ * <p>
+ * When writing to a Writer or OutputStream the content is written by the {@link XMLWriterVisitor}, so each message
+ * is identical to the getXml output, including its indentation; notice the field values are not escaped. When
+ * writing to a {@link XMLStreamWriter} the same elements are created as StAX events, without indentation, and the
+ * text is escaped by the stream writer.
+ */
+public class MessageXMLWriter implements Closeable {
+    private static final String EOL = System.getProperty("line.separator", "\n");
+
+    /**
+     * Default root element for the messages
+     */
+    public static final String DEFAULT_ROOT = "messages";
+
+    private final Writer writer;
+    private final XMLStreamWriter xml;
+    private final boolean declaration;
+    private boolean useField = false;
+    private String root = DEFAULT_ROOT;
+    private boolean started = false;
+    private long count = 0;
+
+    /**
+     * @param writer the output for the XML, closed when this writer is closed
+     */
+    public MessageXMLWriter(Writer writer) {
+        this(Objects.requireNonNull(writer, "writer must not be null"), null, false);
+    }
+
+    /**
+     * The XML is written with UTF-8 encoding and an XML declaration.
+     *
+     * @param out the output for the XML, closed when this writer is closed
+     */
+    public MessageXMLWriter(OutputStream out) {
+        this(new BufferedWriter(new OutputStreamWriter(Objects.requireNonNull(out, "out must not be null"), StandardCharsets.UTF_8), 64 * 1024), null, true);
+    }
+
+    /**
+     * @param xml the output for the XML; it is ended and flushed but not closed when this writer is closed
+     */
+    public MessageXMLWriter(XMLStreamWriter xml) {
+        this(null, Objects.requireNonNull(xml, "xml must not be null"), true);
+    }
+
+    private MessageXMLWriter(Writer writer, XMLStreamWriter xml, boolean declaration) {
+        this.writer = writer;
+        this.xml = xml;
+        this.declaration = declaration;
+    }
+
+    /**
+     * @param useField true to write block 4 fields with their components (the field element), false to write the
+     *                 tag name and value (the tag element); false by default
+     */
+    public MessageXMLWriter setUseField(boolean useField) {
+        this.useField = useField;
+        return this;
+    }
+
+    /**
+     * @param root name of the element wrapping all messages, {@link #DEFAULT_ROOT} by default, or null to write the
+     *             message elements without a root, for a single message or to embed them into another document
+     */
+    public MessageXMLWriter setRootElement(String root) {
+        if (started) {
+            throw new IllegalStateException("The root element cannot be changed once started");
+        }
+        this.root = root;
+        return this;
+    }
+
+    /**
+     * @return number of messages written
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Parses the message and writes its XML.
+     *
+     * @param fin the message in FIN format, for example a {@link MessageSlice}
+     * @throws IOException if the message cannot be parsed or written
+     */
+    public void write(CharSequence fin) throws IOException {
+        write(SwiftMessage.parse(fin.toString()));
+    }
+
+    /**
+     * Writes the XML of the message.
+     *
+     * @param message the message to write
+     * @throws IOException if an error occurs writing the XML
+     */
+    public void write(SwiftMessage message) throws IOException {
+        Objects.requireNonNull(message, "message must not be null");
+        start();
+        try {
+            if (xml != null) {
+                write(message, xml, useField);
+            } else {
+                message.visit(new XMLWriterVisitor(writer, useField));
+                writer.write(EOL);
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } catch (ProwideException e) {
+            // the XMLWriterVisitor wraps the output errors
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        count++;
+    }
+
+    /**
+     * Writes the XML of all messages.
+     *
+     * @param messages the messages in FIN format, for example from a {@link MappedRJEReader}
+     * @return number of messages written
+     * @throws IOException if a message cannot be parsed or written
+     */
+    public long writeAll(Iterator<? extends CharSequence> messages) throws IOException {
+        long written = 0;
+        while (messages.hasNext()) {
+            write(messages.next());
+            written++;
+        }
+        return written;
+    }
+
+    private void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        try {
+            if (xml != null) {
+                if (declaration) {
+                    xml.writeStartDocument();
+                }
+                if (root != null) {
+                    xml.writeStartElement(root);
+                }
+            } else {
+                if (declaration) {
+                    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + EOL);
+                }
+                if (root != null) {
+                    writer.write("<" + root + ">" + EOL);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Ends the root element and flushes the output, an empty root is written if no messages were written.
+     */
+    @Override
+    public void close() throws IOException {
+        start();
+        try {
+            if (xml != null) {
+                if (root != null) {
+                    xml.writeEndElement();
+                }
+                if (declaration) {
+                    xml.writeEndDocument();
+                }
+                xml.flush();
+            } else {
+                if (root != null) {
+                    writer.write("</" + root + ">" + EOL);
+                }
+                writer.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes the XML elements of a single message into the stream writer.
+     *
+     * @param message  the message to write
+     * @param xml      the output
+     * @param useField true to write block 4 fields with their components, false to write the tag name and value
+     * @throws XMLStreamException if an error occurs writing the XML
+     */
+    public static void write(SwiftMessage message, XMLStreamWriter xml, boolean useField) throws XMLStreamException {
+        try {
+            message.visit(new StaxVisitor(xml, useField));
+        } catch (ProwideException e) {
+            if (e.getCause() instanceof XMLStreamException) {
+                throw (XMLStreamException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the same elements of the {@link XMLWriterVisitor} as StAX events
+     */
+    private static class StaxVisitor implements IMessageVisitor {
+        private final XMLStreamWriter xml;
+        private final boolean useField;
+
+        StaxVisitor(XMLStreamWriter xml, boolean useField) {
+            this.xml = xml;
+            this.useField = useField;
+        }
+
+        @Override
+        public void startMessage(SwiftMessage m) {
+            start("message");
+        }
+
+        @Override
+        public void endMessage(SwiftMessage m) {
+            unparsed(m.getUnparsedTexts());
+            end();
+        }
+
+        @Override
+        public void startBlock1(SwiftBlock1 b) {
+            start("block1");
+        }
+
+        @Override
+        public void value(SwiftBlock1 b, String v) {
+            if (b.isEmpty()) {
+                return;
+            }
+            element("applicationId", b.getApplicationId());
+            element("serviceId", b.getServiceId());
+            element("logicalTerminal", b.getLogicalTerminal());
+            optional("sessionNumber", b.getSessionNumber());
+            optional("sequenceNumber", b.getSequenceNumber());
+        }
+
+        @Override
+        public void endBlock1(SwiftBlock1 b) {
+            endBlock(b);
+        }
+
+        @Override
+        public void startBlock2(SwiftBlock2 b) {
+            start("block2");
+            if (!b.isEmpty()) {
+                if (b instanceof SwiftBlock2Input) {
+                    attribute("type", "input");
+                } else if (b instanceof SwiftBlock2Output) {
+                    attribute("type", "output");
+                }
+            }
+        }
+
+        @Override
+        public void value(SwiftBlock2 b, String v) {
+            if (v == null || v.isEmpty()) {
+                return;
+            }
+            if (b instanceof SwiftBlock2Input) {
+                SwiftBlock2Input input = (SwiftBlock2Input) b;
+                element("messageType", input.getMessageType());
+                element("receiverAddress", input.getReceiverAddress());
+                optional("messagePriority", input.getMessagePriority());
+                optional("deliveryMonitoring", input.getDeliveryMonitoring());
+                optional("obsolescencePeriod", input.getObsolescencePeriod());
+            } else if (b instanceof SwiftBlock2Output) {
+                SwiftBlock2Output output = (SwiftBlock2Output) b;
+                element("messageType", output.getMessageType());
+                element("senderInputTime", output.getSenderInputTime());
+                element("MIRDate", output.getMIRDate());
+                element("MIRLogicalTerminal", output.getMIRLogicalTerminal());
+                element("MIRSessionNumber", output.getMIRSessionNumber());
+                element("MIRSequenceNumber", output.getMIRSequenceNumber());
+                element("receiverOutputDate", output.getReceiverOutputDate());
+                element("receiverOutputTime", output.getReceiverOutputTime());
+                optional("messagePriority", output.getMessagePriority());
+            }
+        }
+
+        @Override
+        public void endBlock2(SwiftBlock2 b) {
+            endBlock(b);
+        }
+
+        @Override
+        public void startBlock3(SwiftBlock3 b) {
+            start("block3");
+        }
+
+        @Override
+        public void tag(SwiftBlock3 b, Tag t) {
+            tag(t);
+        }
+
+        @Override
+        public void endBlock3(SwiftBlock3 b) {
+            endBlock(b);
+        }
+
+        @Override
+        public void startBlock4(SwiftBlock4 b) {
+            start("block4");
+        }
+
+        @Override
+        public void tag(SwiftBlock4 b, Tag t) {
+            if (useField) {
+                field(t);
+            } else {
+                tag(t);
+            }
+        }
+
+        @Override
+        public void endBlock4(SwiftBlock4 b) {
+            endBlock(b);
+        }
+
+        @Override
+        public void startBlock5(SwiftBlock5 b) {
+            start("block5");
+        }
+
+        @Override
+        public void tag(SwiftBlock5 b, Tag t) {
+            tag(t);
+        }
+
+        @Override
+        public void endBlock5(SwiftBlock5 b) {
+            endBlock(b);
+        }
+
+        @Override
+        public void startBlockUser(SwiftBlockUser b) {
+            start("block");
+            attribute("name", b.getName());
+        }
+
+        @Override
+        public void tag(SwiftBlockUser b, Tag t) {
+            tag(t);
+        }
+
+        @Override
+        public void endBlockUser(SwiftBlockUser b) {
+            endBlock(b);
+        }
+
+        private void tag(Tag t) {
+            start("tag");
+            element("name", t.getName());
+            element("value", t.getValue());
+            unparsed(t.getUnparsedTexts());
+            end();
+        }
+
+        private void field(Tag t) {
+            if (t == null) {
+                return;
+            }
+            Field f = t.asField();
+            if (f == null) {
+                tag(t);
+                return;
+            }
+            start("field");
+            element("name", f.getName());
+            List<String> components = f.getComponents();
+            for (int i = 0; i < components.size(); i++) {
+                if (components.get(i) != null) {
+                    start("component");
+                    attribute("number", String.valueOf(i + 1));
+                    text(components.get(i));
+                    end();
+                }
+            }
+            end();
+        }
+
+        private void endBlock(SwiftBlock b) {
+            unparsed(b.getUnparsedTexts());
+            end();
+        }
+
+        private void unparsed(UnparsedTextList texts) {
+            if (texts == null || texts.size() == 0) {
+                return;
+            }
+            start("unparsedTexts");
+            for (int i = 0; i < texts.size(); i++) {
+                start("text");
+                text(texts.getText(i));
+                end();
+            }
+            end();
+        }
+
+        private void optional(String name, String value) {
+            if (value != null) {
+                element(name, value);
+            }
+        }
+
+        private void element(String name, String value) {
+            start(name);
+            text(value);
+            end();
+        }
+
+        private void start(String name) {
+            try {
+                xml.writeStartElement(name);
+            } catch (XMLStreamException e) {
+                throw new ProwideException(e);
+            }
+        }
+
+        private void attribute(String name, String value) {
+            try {
+                xml.writeAttribute(name, value);
+            } catch (XMLStreamException e) {
+                throw new ProwideException(e);
+            }
+        }
+
+        private void text(String value) {
+            if (value == null) {
+                return;
+            }
+            try {
+                xml.writeCharacters(value);
+            } catch (XMLStreamException e) {
+                throw new ProwideException(e);
+            }
+        }
+
+        private void end() {
+            try {
+                xml.writeEndElement();
+            } catch (XMLStreamException e) {
+                throw new ProwideException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Conversion of an NDJSON file, one message per line as created by {@link NDJSONWriter} or by
+ * {@link com.prowidesoftware.swift.model.SwiftMessage#toJson()} without pretty printing, into an RJE file.
+ * <p>
+ * Each line is decoded directly into its FIN content with a {@link JsonMessageDecoder} and written with a
+ * {@link BufferedRJEWriter}. With a single thread the lines are decoded in the reading thread reusing the same
+ * buffers for all messages, with more threads they are decoded by a pool of workers with a
+ * {@link ParallelMessageParser} and written in the same order of the input. Empty lines are skipped.
+ * <p>
+ * Lines that cannot be decoded are logged and skipped, the number of skipped lines is available after the
+ * conversion.
+ */
+public class NDJSONToRJEConverter {
+    private static final Logger log = Logger.getLogger(NDJSONToRJEConverter.class.getName());
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long converted;
+    private final AtomicLong errors = new AtomicLong();
+    private long elapsedMillis;
+
+    /**
+     * @param threads number of decoder threads, the number of available processors by default
+     */
+    public NDJSONToRJEConverter setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Converts all messages of the NDJSON file.
+     *
+     * @param ndjson the NDJSON file to read, encoded as UTF-8
+     * @param rje    the RJE file to write, created or truncated
+     * @return number of messages written
+     * @throws IOException if an error occurs reading or writing the files
+     */
+    public long convert(File ndjson, File rje) throws IOException {
+        converted = 0;
+        errors.set(0);
+        final long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(ndjson.toPath(), StandardCharsets.UTF_8);
+             BufferedRJEWriter writer = new BufferedRJEWriter(rje)) {
+            if (threads <= 1) {
+                convert(reader, writer);
+            } else {
+                convertParallel(reader, writer);
+            }
+            converted = writer.getMessageCount();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+        return converted;
+    }
+
+    private void convert(BufferedReader reader, BufferedRJEWriter writer) throws IOException {
+        final JsonMessageDecoder decoder = new JsonMessageDecoder();
+        final StringBuilder fin = new StringBuilder(8 * 1024);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            fin.setLength(0);
+            try {
+                decoder.appendFin(line, fin);
+            } catch (RuntimeException e) {
+                error(e);
+                continue;
+            }
+            writer.write(fin);
+        }
+    }
+
+    private void convertParallel(BufferedReader reader, BufferedRJEWriter writer) {
+        final ThreadLocal<JsonMessageDecoder> decoders = ThreadLocal.withInitial(JsonMessageDecoder::new);
+        ParallelMessageParser<String> parser = new ParallelMessageParser<>(line -> decoders.get().toFin(line))
+                .setThreads(threads)
+                .setErrorHandler((line, e) -> error(e));
+        Iterator<String> lines = reader.lines().filter(line -> !line.trim().isEmpty()).iterator();
+        try (Stream<String> messages = parser.stream(lines)) {
+            messages.forEach(fin -> {
+                try {
+                    writer.write(fin);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void error(Exception e) {
+        errors.incrementAndGet();
+        log.warning("Error converting message: " + e.getMessage());
+    }
+
+    /**
+     * @return number of messages written by the last conversion
+     */
+    public long getConverted() {
+        return converted;
+    }
+
+    /**
+     * @return number of lines skipped by the last conversion because they could not be decoded
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return duration of the last conversion in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return throughput of the last conversion in messages per second
+     */
+    public double getMessagesPerSecond() {
+        return elapsedMillis > 0 ? converted * 1000.0 / elapsedMillis : 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File ndjson = new File(args.length > 0 ? args[0] : "/tmp/corpus.ndjson");
+        File rje = new File(args.length > 1 ? args[1] : "/tmp/corpus.rje");
+        NDJSONToRJEConverter converter = new NDJSONToRJEConverter();
+        converter.convert(ndjson, rje);
+        System.out.printf("Converted %d messages (%d errors) in %d ms, %.0f messages/s%n", converter.getConverted(),
+                converter.getErrors(), converter.getElapsedMillis(), converter.getMessagesPerSecond());
+    }
+
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.*;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writer of messages in newline delimited JSON (NDJSON), one message per line in the same JSON structure of
+ * {@link SwiftMessage#toJson()}, without the pretty printing.
+ * <p>
+ * The JSON is created directly from the message blocks into a line buffer that is reused for all messages, and
+ * then copied into the output, so no intermediate JSON tree nor String are created per message. The few messages
+ * with unparsed texts within the blocks, which are not covered by the direct serialization, are serialized with
+ * toJson and compacted.
+ * <p>
+ * Notice toJson does not include the user blocks nor the unparsed texts of the message, and neither does this
+ * writer. The timestamp is the time of the serialization with a precision of seconds.
+ * <p>
+ * This class is not thread safe, for parallel conversion see {@link RJEToNDJSONConverter}.
+ */
+public class NDJSONWriter implements Closeable, Flushable {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneOffset.UTC);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int JSON_VERSION = 2;
+    private static final String[] TAG_BLOCKS = {"block3", "block4", "block5"};
+
+    private static volatile Timestamp timestamp = new Timestamp(-1, null);
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(8 * 1024);
+    private char[] chars = new char[8 * 1024];
+    private long count = 0;
+
+    /**
+     * @param writer the output for the JSON lines, closed when this writer is closed
+     */
+    public NDJSONWriter(Writer writer) {
+        this.writer = Objects.requireNonNull(writer, "writer must not be null");
+    }
+
+    /**
+     * @param out the output for the JSON lines, encoded as UTF-8, closed when this writer is closed
+     */
+    public NDJSONWriter(OutputStream out) {
+        this(new BufferedWriter(new OutputStreamWriter(Objects.requireNonNull(out, "out must not be null"), StandardCharsets.UTF_8), 64 * 1024));
+    }
+
+    /**
+     * @return number of lines written
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Parses the message and writes its JSON line.
+     *
+     * @param fin the message in FIN format, for example a {@link MessageSlice}
+     * @throws IOException if the message cannot be parsed or written
+     */
+    public void write(CharSequence fin) throws IOException {
+        write(SwiftMessage.parse(fin.toString()));
+    }
+
+    /**
+     * Writes the JSON line of the message.
+     *
+     * @param mt the message to write
+     * @throws IOException if an error occurs writing the output
+     */
+    public void write(AbstractMT mt) throws IOException {
+        Objects.requireNonNull(mt, "message to write cannot be null");
+        write(mt.getSwiftMessage());
+    }
+
+    /**
+     * Writes the JSON line of the message.
+     *
+     * @param msg the message to write
+     * @throws IOException if an error occurs writing the output
+     */
+    public void write(SwiftMessage msg) throws IOException {
+        Objects.requireNonNull(msg, "message to write cannot be null");
+        line.setLength(0);
+        appendJson(msg, line);
+        writeLine(line);
+    }
+
+    /**
+     * Writes a JSON already serialized, for example by {@link #appendJson(SwiftMessage, StringBuilder)},
+     * followed by a new line.
+     *
+     * @param json the JSON content, it must not contain new lines
+     * @throws IOException if an error occurs writing the output
+     */
+    public void writeLine(CharSequence json) throws IOException {
+        final int length = json.length();
+        if (json instanceof StringBuilder) {
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            ((StringBuilder) json).getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+        } else {
+            writer.append(json);
+        }
+        writer.write('\n');
+        count++;
+    }
+
+    /**
+     * Writes the JSON lines of all messages.
+     *
+     * @param messages the messages in FIN format, for example from a {@link MappedRJEReader}
+     * @return number of messages written
+     * @throws IOException if a message cannot be parsed or written
+     */
+    public long writeAll(Iterator<? extends CharSequence> messages) throws IOException {
+        long written = 0;
+        while (messages.hasNext()) {
+            write(messages.next());
+            written++;
+        }
+        return written;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Appends the JSON of the message, as created by {@link SwiftMessage#toJson()} without pretty printing. This
+     * method is thread safe.
+     *
+     * @param msg the message to serialize
+     * @param out where to append the JSON
+     */
+    public static void appendJson(SwiftMessage msg, StringBuilder out) {
+        final int start = out.length();
+        if (!appendDirect(msg, timestamp(), out)) {
+            out.setLength(start);
+            compact(msg.toJson(), out);
+        }
+    }
+
+    /**
+     * Appends the JSON removing the pretty printing whitespace, outside the string values
+     */
+    private static void compact(String json, StringBuilder out) {
+        boolean inString = false;
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                out.append(c);
+                if (c == '\\') {
+                    out.append(json.charAt(++i));
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+                out.append(c);
+            } else if (!Character.isWhitespace(c)) {
+                out.append(c);
+            }
+        }
+    }
+
+    /**
+     * @return the current time formatted as the toJson timestamp, formatted once per second
+     */
+    private static String timestamp() {
+        final long now = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second != now) {
+            current = new Timestamp(now, TIMESTAMP.format(Instant.ofEpochSecond(now)));
+            timestamp = current;
+        }
+        return current.text;
+    }
+
+    /**
+     * Serializes the message with the same structure of the toJson adapters
+     *
+     * @return false if the message has content that must be serialized with toJson, in which case the builder
+     * content is incomplete
+     */
+    private static boolean appendDirect(SwiftMessage msg, String timestamp, StringBuilder out) {
+        out.append("{\"timestamp\":");
+        string(out, timestamp);
+        out.append(",\"version\":").append(JSON_VERSION).append(",\"data\":{");
+        boolean first = true;
+
+        SwiftBlock1 b1 = msg.getBlock1();
+        if (b1 != null) {
+            if (unsupported(b1)) {
+                return false;
+            }
+            out.append("\"block1\":{");
+            boolean empty = true;
+            empty = property(out, "applicationId", b1.getApplicationId(), empty);
+            empty = property(out, "serviceId", b1.getServiceId(), empty);
+            empty = property(out, "logicalTerminal", b1.getLogicalTerminal(), empty);
+            empty = property(out, "sessionNumber", b1.getSessionNumber(), empty);
+            empty = property(out, "sequenceNumber", b1.getSequenceNumber(), empty);
+            property(out, "blockType", b1.getBlockType(), empty);
+            out.append('}');
+            first = false;
+        }
+
+        SwiftBlock2 b2 = msg.getBlock2();
+        if (b2 != null) {
+            if (unsupported(b2)) {
+                return false;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            out.append("\"block2\":{");
+            boolean empty = true;
+            if (b2 instanceof SwiftBlock2Input) {
+                SwiftBlock2Input input = (SwiftBlock2Input) b2;
+                empty = property(out, "receiverAddress", input.getReceiverAddress(), empty);
+                empty = property(out, "deliveryMonitoring", input.getDeliveryMonitoring(), empty);
+                empty = property(out, "obsolescencePeriod", input.getObsolescencePeriod(), empty);
+            } else if (b2 instanceof SwiftBlock2Output) {
+                SwiftBlock2Output output = (SwiftBlock2Output) b2;
+                empty = property(out, "senderInputTime", output.getSenderInputTime(), empty);
+                empty = property(out, "MIRDate", output.getMIRDate(), empty);
+                empty = property(out, "MIRLogicalTerminal", output.getMIRLogicalTerminal(), empty);
+                empty = property(out, "MIRSessionNumber", output.getMIRSessionNumber(), empty);
+                empty = property(out, "MIRSequenceNumber", output.getMIRSequenceNumber(), empty);
+                empty = property(out, "receiverOutputDate", output.getReceiverOutputDate(), empty);
+                empty = property(out, "receiverOutputTime", output.getReceiverOutputTime(), empty);
+            } else {
+                return false;
+            }
+            empty = property(out, "messagePriority", b2.getMessagePriority(), empty);
+            empty = property(out, "messageType", b2.getMessageType(), empty);
+            empty = property(out, "blockType", b2.getBlockType(), empty);
+            property(out, "direction", b2.isInput() ? "I" : "O", empty);
+            out.append('}');
+            first = false;
+        }
+
+        SwiftTagListBlock[] blocks = {msg.getBlock3(), msg.getBlock4(), msg.getBlock5()};
+        for (int i = 0; i < blocks.length; i++) {
+            if (blocks[i] != null) {
+                if (!tags(out, TAG_BLOCKS[i], blocks[i], first)) {
+                    return false;
+                }
+                first = false;
+            }
+        }
+        out.append("}}");
+        return true;
+    }
+
+    /**
+     * Content that toJson serializes by reflection and is not written by the direct serialization
+     */
+    private static boolean unsupported(SwiftBlock b) {
+        return b.getUnparsedTextsSize() > 0;
+    }
+
+    private static boolean tags(StringBuilder out, String name, SwiftTagListBlock b, boolean first) {
+        if (unsupported(b)) {
+            return false;
+        }
+        if (!first) {
+            out.append(',');
+        }
+        out.append('"').append(name).append("\":{\"tags\":[");
+        List<Tag> tags = b.getTags();
+        for (int i = 0; i < tags.size(); i++) {
+            Tag t = tags.get(i);
+            if (t == null || t.getUnparsedTextsSize() > 0) {
+                return false;
+            }
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('{');
+            boolean empty = property(out, "name", t.getName(), true);
+            property(out, "value", t.getValue(), empty);
+            out.append('}');
+        }
+        out.append(']');
+        property(out, "blockType", b.getBlockType(), false);
+        out.append('}');
+        return true;
+    }
+
+    /**
+     * Appends the property if the value is not null
+     *
+     * @return true if the object is still empty
+     */
+    private static boolean property(StringBuilder out, String name, String value, boolean empty) {
+        if (value == null) {
+            return empty;
+        }
+        if (!empty) {
+            out.append(',');
+        }
+        out.append('"').append(name).append("\":");
+        string(out, value);
+        return false;
+    }
+
+    /**
+     * Appends the value as a JSON string, escaped as Gson does by default (HTML safe)
+     */
+    private static void string(StringBuilder out, String value) {
+        out.append('"');
+        int last = 0;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c < 0x20 || c == '"' || c == '\\' || c == '<' || c == '>' || c == '&' || c == '=' || c == '\'') {
+                replacement = c == '"' ? "\\\"" : c == '\\' ? "\\\\" : c == '\n' ? "\\n" : c == '\r' ? "\\r" : c == '\t' ? "\\t"
+                        : c == '\b' ? "\\b" : c == '\f' ? "\\f" : null;
+            } else if (c == 0x2028 || c == 0x2029) {
+                replacement = null;
+            } else {
+                continue;
+            }
+            out.append(value, last, i);
+            if (replacement != null) {
+                out.append(replacement);
+            } else {
+                out.append("\\u").append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF]).append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+            }
+            last = i + 1;
+        }
+        out.append(value, last, length).append('"');
+    }
+
+    private static final class Timestamp {
+        private final long second;
+        private final String text;
+
+        Timestamp(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+
+}
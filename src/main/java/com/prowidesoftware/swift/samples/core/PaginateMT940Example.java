@@ -0,0 +1,85 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.mt.mt9xx.MT940;
+
+import java.util.List;
+
+/**
+ * This example shows how to split a long MT940 statement into several pages with the {@link MessagePaginator}.
+ * <p>
+ * The statement lines (61 with its optional 86) are distributed among the pages, while the header fields are
+ * repeated in all of them, and field 28C is set with the page number as sequence number. The first page keeps the
+ * opening balance 60F and is closed with the intermediate balance 62M after its statement lines, the next page is
+ * opened with the same balance as 60M, and the last page keeps the closing balance 62F.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * Page 255/1 with 4 statement lines and 400 characters
+ * :60F:C011223USD175768,92
+ * :62M:C011021USD56075879,84
+ * Page 255/2 with 4 statement lines and 385 characters
+ * :60M:C011021USD56075879,84
+ * :62F:C011021USD56094179,84
+ * </pre>
+ */
+public class PaginateMT940Example {
+
+    public static void main(String[] args) {
+        MT940 mt = MT940.parse("{1:F01AAAABB99BSMK3513951576}" +
+                "{2:O9400934081223BBBBAA33XXXX03592332770812230834N}" +
+                "{4:\n" +
+                ":20:0112230000000890\n" +
+                ":25:SAKG800030155USD\n" +
+                ":28C:255\n" +
+                ":60F:C011223USD175768,92\n" +
+                ":61:0112201223CD110,92NDIVNONREF//08 IL053309\n" +
+                ":61:980623C50000000,NTRFNONREF//9999234\n" +
+                ":61:980626C200000,NDIVNONREF//9999543\n" +
+                ":86:DIVIDEND FOO CORP\n" +
+                ":61:980625C5700000,NFEX036960//8954321\n" +
+                ":86:FOO INC\n" +
+                ":61:980626D1500,NCHGNONREF//9999544\n" +
+                ":61:980627C18000,NTRFNONREF//9999545\n" +
+                ":86:TRANSFER FROM ACCOUNT 4001400010\n" +
+                ":61:980628C2500,NINTNONREF//9999546\n" +
+                ":61:980629D700,NCHGNONREF//9999547\n" +
+                ":62F:C011021USD56094179,84\n" +
+                "-}");
+
+        /*
+         * Split using the MT940 configuration with a small maximum length, just for the purpose of the example
+         */
+        List<SwiftMessage> pages = MessagePaginator.mt940()
+                .setMaxLength(400)
+                .paginate(mt);
+
+        for (SwiftMessage page : pages) {
+            System.out.println("Page " + page.getBlock4().getTagValue("28C")
+                    + " with " + page.getBlock4().getTagsByName("61").length + " statement lines and "
+                    + page.message().length() + " characters");
+            for (Tag tag : page.getBlock4().getTags()) {
+                if (tag.getName().startsWith("60") || tag.getName().startsWith("62")) {
+                    System.out.println(":" + tag.getName() + ":" + tag.getValue());
+                }
+            }
+        }
+    }
+
+}
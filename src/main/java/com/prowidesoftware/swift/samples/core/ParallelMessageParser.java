@@ -0,0 +1,385 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Batch parsing pipeline that parses the messages of a file in parallel.
+ * <p>
+ * A splitter thread iterates the messages content, for example from a {@link MappedRJEReader} or an
+ * {@link com.prowidesoftware.swift.io.RJEReader}, and a pool of workers decodes and parses them. The results are
+ * returned as a {@link Stream} or passed to a callback, either in the same order of the input or as soon as each
+ * message is parsed.
+ * <p>
+ * The number of messages being parsed or waiting to be consumed is bounded; when the limit is reached the splitter
+ * waits for the consumer, so memory usage does not depend on the speed of the consumer or the file size.
+ * <p>
+ * Messages that cannot be parsed are passed to the error handler and skipped, by default the error is logged.
+ *
+ * @param <T> the parsed message type
+ */
+public class ParallelMessageParser<T> {
+    private static final Logger log = Logger.getLogger(ParallelMessageParser.class.getName());
+
+    private final MessageParser<T> parser;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxPending = 0;
+    private boolean ordered = true;
+    private BiConsumer<CharSequence, Exception> errorHandler =
+            (content, e) -> log.warning("Error parsing message: " + e.getMessage());
+
+    /**
+     * @param parser the function to parse each message content
+     */
+    public ParallelMessageParser(MessageParser<T> parser) {
+        this.parser = Objects.requireNonNull(parser, "parser must not be null");
+    }
+
+    /**
+     * Parser into {@link SwiftMessage}
+     */
+    public static ParallelMessageParser<SwiftMessage> swiftMessages() {
+        return new ParallelMessageParser<>(content -> SwiftMessage.parse(content.toString()));
+    }
+
+    /**
+     * Parser into the specific MT classes, skipping ACK/NAK service messages preceding the actual messages as in
+     * {@link com.prowidesoftware.swift.io.RJEReader#nextMT()}; other service messages are ignored.
+     */
+    public static ParallelMessageParser<AbstractMT> mts() {
+        return new ParallelMessageParser<>(content -> {
+            AckEnvelope ack = new AckEnvelope();
+            if (ack.wrap(content)) {
+                return ack.parseMT();
+            }
+            SwiftMessage sm = SwiftMessage.parse(content.toString());
+            return sm.isServiceMessage() ? null : sm.toMT();
+        });
+    }
+
+    /**
+     * @param threads number of parser threads, the number of available processors by default
+     */
+    public ParallelMessageParser<T> setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param maxPending maximum number of messages being parsed or parsed and not yet consumed, 64 per thread by
+     *                   default
+     */
+    public ParallelMessageParser<T> setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    /**
+     * @param ordered true to return the messages in the input order (default), false to return them as soon as
+     *                they are parsed
+     */
+    public ParallelMessageParser<T> setOrdered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * @param errorHandler receives the content and the exception of messages that cannot be parsed
+     */
+    public ParallelMessageParser<T> setErrorHandler(BiConsumer<CharSequence, Exception> errorHandler) {
+        this.errorHandler = Objects.requireNonNull(errorHandler, "errorHandler must not be null");
+        return this;
+    }
+
+    /**
+     * Parses all messages passing them to the callback, from the calling thread, and returns when all messages
+     * have been consumed.
+     *
+     * @param messages the content of the messages to parse
+     * @param callback receives the parsed messages
+     */
+    public void parse(Iterator<? extends CharSequence> messages, Consumer<T> callback) {
+        try (Stream<T> stream = stream(messages)) {
+            stream.forEach(callback);
+        }
+    }
+
+    /**
+     * Starts parsing the messages in background and returns the results as a sequential stream. The stream must be
+     * closed, or fully consumed, to release the threads.
+     *
+     * @param messages the content of the messages to parse
+     * @return the parsed messages
+     */
+    public Stream<T> stream(Iterator<? extends CharSequence> messages) {
+        final int capacity = maxPending > 0 ? maxPending : threads * 64;
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "message-parser-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        final Results<T> results = ordered ? new OrderedResults<>(capacity) : new UnorderedResults<>(capacity);
+
+        Thread splitter = new Thread(() -> {
+            int count = 0;
+            try {
+                while (messages.hasNext() && !Thread.currentThread().isInterrupted()) {
+                    final CharSequence content = messages.next();
+                    final Result<T> result = results.submit();
+                    count++;
+                    workers.execute(() -> {
+                        T value = null;
+                        try {
+                            value = parser.parse(content);
+                        } catch (Exception e) {
+                            errorHandler.accept(content, e);
+                        } finally {
+                            result.complete(value);
+                        }
+                    });
+                }
+                results.end(count, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                results.end(count, e);
+            }
+        }, "message-splitter");
+        splitter.setDaemon(true);
+        splitter.start();
+
+        Iterator<T> iterator = new Iterator<T>() {
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (next == null) {
+                        Result<T> result = results.take();
+                        if (result == null) {
+                            workers.shutdown();
+                            return false;
+                        }
+                        next = result.get();
+                    }
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result = next;
+                next = null;
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, ordered ? Spliterator.ORDERED : 0), false)
+                .onClose(() -> {
+                    splitter.interrupt();
+                    workers.shutdownNow();
+                });
+    }
+
+    /**
+     * Parses the content of a single message
+     *
+     * @param <T> the parsed message type
+     */
+    @FunctionalInterface
+    public interface MessageParser<T> {
+
+        /**
+         * @param content the message content
+         * @return the parsed message, or null to skip the message
+         * @throws Exception if the message cannot be parsed
+         */
+        T parse(CharSequence content) throws Exception;
+    }
+
+    /**
+     * Placeholder of a message result, completed by a worker
+     */
+    private static class Result<T> {
+        private T value;
+        private boolean done;
+        private final Consumer<Result<T>> onComplete;
+
+        Result(Consumer<Result<T>> onComplete) {
+            this.onComplete = onComplete;
+        }
+
+        void complete(T value) {
+            synchronized (this) {
+                this.value = value;
+                this.done = true;
+                notifyAll();
+            }
+            if (onComplete != null) {
+                onComplete.accept(this);
+            }
+        }
+
+        synchronized T get() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Hand over of results between the splitter, the workers and the consumer
+     */
+    private interface Results<T> {
+
+        /**
+         * Called by the splitter for each message, blocks while the pending limit is reached
+         */
+        Result<T> submit() throws InterruptedException;
+
+        /**
+         * Called by the splitter when there are no more messages, or the input failed
+         */
+        void end(int count, RuntimeException error);
+
+        /**
+         * Called by the consumer, blocks until a result is available
+         *
+         * @return the next result or null when all results have been consumed
+         */
+        Result<T> take() throws InterruptedException;
+    }
+
+    /**
+     * Results in input order, the placeholders are queued as they are submitted and the consumer waits for each
+     * one to be completed
+     */
+    private static class OrderedResults<T> implements Results<T> {
+        private final BlockingQueue<Result<T>> queue;
+        private final Result<T> end = new Result<>(null);
+        private volatile RuntimeException error;
+
+        OrderedResults(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public Result<T> submit() throws InterruptedException {
+            Result<T> result = new Result<>(null);
+            queue.put(result);
+            return result;
+        }
+
+        @Override
+        public void end(int count, RuntimeException error) {
+            this.error = error;
+            try {
+                queue.put(end);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public Result<T> take() throws InterruptedException {
+            Result<T> result = queue.take();
+            if (result == end) {
+                queue.put(end);
+                if (error != null) {
+                    throw error;
+                }
+                return null;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Results in completion order, the workers queue the results when done and the number of pending messages is
+     * bounded with a semaphore
+     */
+    private static class UnorderedResults<T> implements Results<T> {
+        private final BlockingQueue<Result<T>> queue;
+        private final Semaphore pending;
+        private final Result<T> end = new Result<>(null);
+        private volatile int total = -1;
+        private volatile RuntimeException error;
+        private int consumed;
+
+        UnorderedResults(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity + 1);
+            this.pending = new Semaphore(capacity);
+        }
+
+        @Override
+        public Result<T> submit() throws InterruptedException {
+            pending.acquire();
+            return new Result<>(queue::add);
+        }
+
+        @Override
+        public void end(int count, RuntimeException error) {
+            this.error = error;
+            this.total = count;
+            queue.add(end);
+        }
+
+        @Override
+        public Result<T> take() throws InterruptedException {
+            while (true) {
+                if (total >= 0 && consumed == total) {
+                    if (error != null) {
+                        throw error;
+                    }
+                    return null;
+                }
+                Result<T> result = queue.take();
+                if (result != end) {
+                    consumed++;
+                    pending.release();
+                    return result;
+                }
+            }
+        }
+    }
+
+}
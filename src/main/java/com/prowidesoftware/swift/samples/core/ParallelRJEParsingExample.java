@@ -0,0 +1,64 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This example shows how to parse all messages in an RJE file using all the available processors, with the
+ * {@link ParallelMessageParser} reading from a {@link MappedRJEReader}.
+ * <p>
+ * The file to read can be passed as argument, by default the example file with two MT103 is used.
+ * <p>
+ * Running this program produces an output like:
+ * <pre>
+ * Parsed 2 messages in 132 ms
+ * MT103: 2
+ * </pre>
+ */
+public class ParallelRJEParsingExample {
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        File file = args.length > 0 ? new File(args[0])
+                : new File(ParallelRJEParsingExample.class.getResource("/mt103.rje").toURI());
+
+        /*
+         * Messages are split in the calling thread and parsed by one worker per processor, the results are
+         * returned in any order as soon as they are parsed
+         */
+        ParallelMessageParser<AbstractMT> parser = ParallelMessageParser.mts()
+                .setThreads(Runtime.getRuntime().availableProcessors())
+                .setOrdered(false);
+
+        Map<String, Integer> countByType = new TreeMap<>();
+        long start = System.nanoTime();
+        try (MappedRJEReader reader = new MappedRJEReader(file)) {
+            parser.parse(reader, mt -> countByType.merge("MT" + mt.getMessageType(), 1, Integer::sum));
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Parsed " + countByType.values().stream().mapToInt(Integer::intValue).sum()
+                + " messages in " + millis + " ms");
+        countByType.forEach((type, count) -> System.out.println(type + ": " + count));
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+import com.prowidesoftware.swift.utils.Lib;
+
+import java.io.IOException;
+
+/**
+ * This example shows how to parse messages with the {@link LazySwiftMessage}, when most of the messages are
+ * routed or discarded based on their headers and only a few need the content of the text block.
+ * <p>
+ * The headers are parsed right away, while the text block is parsed when accessed.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * system.txt: service message 21, body parsed: false
+ * mt103.txt: MT103 from ESPBESMMAXXX, body parsed: false
+ * Reference: 0061350113089908
+ * mt103.txt: body parsed: true
+ * </pre>
+ */
+public class ParseLazyMessageExample {
+
+    public static void main(String[] args) throws IOException {
+        /*
+         * A service message, only the headers are needed to discard it
+         */
+        LazySwiftMessage msg = LazySwiftMessage.parse(Lib.readResource("system.txt"));
+        if (msg.isServiceMessage()) {
+            System.out.println("system.txt: service message " + msg.getBlock1().getServiceId() + ", body parsed: " + msg.isBodyParsed());
+        }
+
+        /*
+         * A user message, the text block is parsed when the message is specialized
+         */
+        msg = LazySwiftMessage.parse(Lib.readResource("mt103.txt"));
+        if (msg.isType(103)) {
+            System.out.println("mt103.txt: MT" + msg.getType() + " from " + msg.getSender() + ", body parsed: " + msg.isBodyParsed());
+
+            MT103 mt = new MT103(msg);
+            System.out.println("Reference: " + mt.getField20().getValue());
+            System.out.println("mt103.txt: body parsed: " + msg.isBodyParsed());
+        }
+    }
+
+}
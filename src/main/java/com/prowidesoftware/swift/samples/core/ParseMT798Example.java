@@ -15,7 +15,6 @@
  */
 package com.prowidesoftware.swift.samples.core;
 
-import com.prowidesoftware.swift.model.SwiftMessage;
 import com.prowidesoftware.swift.model.field.Field;
 import com.prowidesoftware.swift.model.field.Field20;
 import com.prowidesoftware.swift.model.field.Field61;
@@ -106,15 +105,11 @@ public class ParseMT798Example {
         MT798 mt798 = MT798.parse(fin);
 
         /*
-         * Get the sub-message (content after field 77E) as another model object
+         * Get the sub-message (content after field 77E) converted and cast to MT760
+         * (the type of the inner message is indicated in field 12 of the MT798); the view does not copy the
+         * sub-message tags, they are read from the envelope
          */
-        SwiftMessage subMessage = mt798.getSubMessage();
-
-        /*
-         * Convert and cast to MT760
-         * (the type of the inner message is indicated in field 12 of the MT798)
-         */
-        MT760 mt = (MT760) subMessage.toMT();
+        MT760 mt = (MT760) new MT798View(mt798).getSubMessageMT();
 
         /*
          * Print the sub-message
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+/**
+ * This example shows how to read the statement lines of an MT940, the fields 61 with their field 86, directly
+ * from the FIN content with a {@link StatementLineCursor}, without parsing the message into objects.
+ * <p>
+ * The amounts are read as unscaled longs and added in cents, so the totals are computed without creating any
+ * object per line.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * 0112201223 C 110,92 NDIV NONREF 08 IL053309
+ * 980623 C 50000000, NTRF NONREF 9999234
+ * 980626 D 200000, NDIV NONREF 9999543 DIVIDEND FOO CORP
+ * PREFERRED STOCK 1ST QUARTER 1998
+ * 980625 RD 5700000, NFEX 036960 8954321 FOO INC
+ * Lines: 4, credits: 55700110.92, debits: 200000.00
+ * </pre>
+ */
+public class ParseMT940StatementLinesExample {
+
+    public static void main(String[] args) {
+        /*
+         * A simple String containing the message content to parse
+         */
+        String msg = "{1:F01AAAABB99BSMK3513951576}" +
+                "{2:O9400934081223BBBBAA33XXXX03592332770812230834N}" +
+                "{4:\n" +
+                ":20:0112230000000890\n" +
+                ":25:SAKG800030155USD\n" +
+                ":28C:255/1\n" +
+                ":60F:C011223USD175768,92\n" +
+                ":61:0112201223C110,92NDIVNONREF//08 IL053309\n" +
+                "/GB/2542049/SHS/312,\n" +
+                ":61:980623C50000000,NTRFNONREF//9999234\n" +
+                ":61:980626D200000,NDIVNONREF//9999543\n" +
+                ":86:DIVIDEND FOO CORP\n" +
+                "PREFERRED STOCK 1ST QUARTER 1998\n" +
+                ":61:980625RD5700000,NFEX036960//8954321\n" +
+                ":86:FOO INC\n" +
+                ":62F:C011021USD175879,84\n" +
+                "-}";
+
+        long credits = 0;
+        long debits = 0;
+        StatementLineCursor cursor = new StatementLineCursor(msg);
+        while (cursor.next()) {
+            System.out.println(cursor.getValueDate() + "" + cursor.getEntryDate()
+                    + " " + cursor.getDebitCreditMark()
+                    + " " + cursor.getAmount()
+                    + " " + cursor.getTransactionType() + cursor.getIdentificationCode()
+                    + " " + cursor.getReferenceForTheAccountOwner()
+                    + " " + cursor.getReferenceOfTheAccountServicingInstitution()
+                    + (cursor.getInformationToAccountOwner().length() > 0 ? " " + cursor.getInformationToAccountOwner() : ""));
+
+            /*
+             * The amount in cents, from its digits and number of decimals, the reversal of a credit RC is a debit
+             * and the reversal of a debit RD is a credit
+             */
+            long cents = cursor.getAmountUnscaled();
+            for (int i = cursor.getAmountScale(); i < 2; i++) {
+                cents *= 10;
+            }
+            if (cursor.isDebit()) {
+                debits += cents;
+            } else {
+                credits += cents;
+            }
+        }
+        System.out.printf("Lines: %d, credits: %d.%02d, debits: %d.%02d%n",
+                cursor.getCount(), credits / 100, credits % 100, debits / 100, debits % 100);
+    }
+}
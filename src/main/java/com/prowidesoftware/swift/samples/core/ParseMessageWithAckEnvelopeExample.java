@@ -0,0 +1,77 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+
+import java.io.IOException;
+
+/**
+ * This example shows how to split a message preceded by its ACK or NAK with the {@link AckEnvelope}.
+ * <p>
+ * Instead of parsing the service message and then its unparsed texts, as in {@link ParseMessageWithAckExample},
+ * the envelope reads the acknowledgement fields directly from the content and the actual message is parsed once.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * ACK at 1608140809 for MT940 USD940NO1
+ * NAK at 1608140815 with error code H25 for MT940 USD940NO2
+ * </pre>
+ */
+public class ParseMessageWithAckEnvelopeExample {
+
+    public static void main(String[] args) throws IOException {
+        final String ack = "{1:F21FOOLHKH0AXXX0304009999}{4:{177:1608140809}{451:0}}{1:F01FOOLHKH0AXXX0304009999}{2:I940FOOLHKH0XXXXN}{4:\n" +
+                ":20:USD940NO1\n" +
+                ":25:USD234567\n" +
+                ":28C:1/1\n" +
+                ":60F:C160418USD672,\n" +
+                ":62F:C160418USD672,\n" +
+                "-}{5:{CHK:0FEC1E4AEC53}}";
+        final String nak = "{1:F21FOOLHKH0AXXX0304009999}{4:{177:1608140815}{451:1}{405:H25}}{1:F01FOOLHKH0AXXX0304009999}{2:I940FOOLHKH0XXXXN}{4:\n" +
+                ":20:USD940NO2\n" +
+                ":25:USD234567\n" +
+                ":28C:2/1\n" +
+                ":60F:C160418USD672,\n" +
+                ":62F:C160418USD672,\n" +
+                "-}{5:{CHK:0FEC1E4AEC54}}";
+
+        /*
+         * The envelope can be reused for all messages
+         */
+        AckEnvelope envelope = new AckEnvelope();
+        for (String fin : new String[]{ack, nak}) {
+            if (envelope.wrap(fin)) {
+                /*
+                 * The acknowledgement fields are available without parsing
+                 */
+                StringBuilder result = new StringBuilder(envelope.isAck() ? "ACK" : "NAK")
+                        .append(" at ").append(envelope.getDateTime());
+                if (envelope.isNack()) {
+                    result.append(" with error code ").append(envelope.getErrorCode());
+                }
+
+                /*
+                 * Only the acknowledged message is parsed
+                 */
+                SwiftMessage sm = envelope.parseMessage();
+                result.append(" for MT").append(sm.getType()).append(" ").append(sm.getBlock4().getTagValue("20"));
+                System.out.println(result);
+            }
+        }
+    }
+
+}
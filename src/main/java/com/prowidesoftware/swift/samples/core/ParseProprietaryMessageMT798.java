@@ -88,9 +88,10 @@ public class ParseProprietaryMessageMT798 {
          *
          * There will be no specific getters for these in the MT798 because
          * the inner message can have a variable structure. So we use the
-         * generic API to retrieve the inner message block
+         * generic API to retrieve the inner message block, as a view of the
+         * envelope tags after 77E
          */
-        SwiftTagListBlock block = mt.getSwiftMessage().getBlock4().getSubBlockAfterFirst("77E", false);
+        SwiftTagListBlock block = new MT798View(mt).getSubMessage().getBlock4();
 
         /*
          * We iterate through all fields in the block
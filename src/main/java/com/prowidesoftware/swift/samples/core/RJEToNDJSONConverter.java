@@ -0,0 +1,138 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Parallel conversion of an RJE file into an NDJSON file, one JSON line per message.
+ * <p>
+ * The RJE file is memory mapped and split with a {@link MappedRJEReader}, the messages are parsed and serialized
+ * into JSON by a pool of workers with a {@link ParallelMessageParser}, and the lines are written in the same order
+ * of the input by a single {@link NDJSONWriter}. The number of messages in flight is bounded, so the memory used
+ * does not depend on the file size.
+ * <p>
+ * Messages that cannot be parsed are logged and skipped, the number of skipped messages is available after the
+ * conversion.
+ */
+public class RJEToNDJSONConverter {
+    private static final Logger log = Logger.getLogger(RJEToNDJSONConverter.class.getName());
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long converted;
+    private final AtomicLong errors = new AtomicLong();
+    private long elapsedMillis;
+
+    /**
+     * @param threads number of parser threads, the number of available processors by default
+     */
+    public RJEToNDJSONConverter setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Converts all messages of the RJE file.
+     *
+     * @param rje    the RJE file to read
+     * @param ndjson the NDJSON file to write, created or truncated
+     * @return number of messages written
+     * @throws IOException if an error occurs reading or writing the files
+     */
+    public long convert(File rje, File ndjson) throws IOException {
+        converted = 0;
+        errors.set(0);
+        final long start = System.nanoTime();
+        final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(8 * 1024));
+        ParallelMessageParser<String> parser = new ParallelMessageParser<>(content -> {
+            /*
+             * the line is serialized into a buffer of the worker thread and copied into a String to hand it over
+             * to the writer thread
+             */
+            SwiftMessage msg = SwiftMessage.parse(content.toString());
+            StringBuilder line = buffers.get();
+            line.setLength(0);
+            NDJSONWriter.appendJson(msg, line);
+            return line.toString();
+        }).setThreads(threads).setErrorHandler((content, e) -> {
+            errors.incrementAndGet();
+            log.warning("Error converting message: " + e.getMessage());
+        });
+        try (MappedRJEReader reader = new MappedRJEReader(rje);
+             NDJSONWriter writer = new NDJSONWriter(new FileOutputStream(ndjson));
+             Stream<String> lines = parser.stream(reader.iterator())) {
+            lines.forEach(line -> {
+                try {
+                    writer.writeLine(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            converted = writer.getCount();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+        return converted;
+    }
+
+    /**
+     * @return number of messages written by the last conversion
+     */
+    public long getConverted() {
+        return converted;
+    }
+
+    /**
+     * @return number of messages skipped by the last conversion because they could not be parsed
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return duration of the last conversion in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return throughput of the last conversion in messages per second
+     */
+    public double getMessagesPerSecond() {
+        return elapsedMillis > 0 ? converted * 1000.0 / elapsedMillis : 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File rje = new File(args.length > 0 ? args[0] : "/tmp/corpus.rje");
+        File ndjson = new File(args.length > 1 ? args[1] : "/tmp/corpus.ndjson");
+        RJEToNDJSONConverter converter = new RJEToNDJSONConverter();
+        converter.convert(rje, ndjson);
+        System.out.printf("Converted %d messages (%d errors) in %d ms, %.0f messages/s%n", converter.getConverted(),
+                converter.getErrors(), converter.getElapsedMillis(), converter.getMessagesPerSecond());
+    }
+
+}
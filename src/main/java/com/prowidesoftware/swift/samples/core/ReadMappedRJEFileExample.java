@@ -0,0 +1,58 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+/**
+ * This example shows how to read a large RJE file with the {@link MappedRJEReader}, where the file is memory
+ * mapped instead of being loaded into a String, and messages are only decoded and parsed when needed.
+ * <p>
+ * The file to read can be passed as argument, by default the example file with two MT103 is used.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * Message at 0 of 573 bytes: MT103 FDF0510141142100
+ * Message at 576 of 367 bytes: MT103 INGDESMM
+ * Total messages: 2
+ * </pre>
+ */
+public class ReadMappedRJEFileExample {
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        File file = args.length > 0 ? new File(args[0])
+                : new File(ReadMappedRJEFileExample.class.getResource("/mt103.rje").toURI());
+
+        int count = 0;
+        try (MappedRJEReader reader = new MappedRJEReader(file)) {
+            for (MessageSlice slice : reader) {
+                /*
+                 * The slice is a view of the mapped file, the message is only decoded and parsed here
+                 */
+                AbstractMT msg = slice.toMT();
+                System.out.println("Message at " + slice.getPosition() + " of " + slice.length() + " bytes: MT"
+                        + msg.getMessageType() + " " + msg.getSwiftMessage().getBlock4().getTagValue("20"));
+                count++;
+            }
+        }
+        System.out.println("Total messages: " + count);
+    }
+
+}
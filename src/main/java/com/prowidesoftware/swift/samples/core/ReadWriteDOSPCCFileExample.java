@@ -0,0 +1,69 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftMessage;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+/**
+ * This example shows how to read the messages from a DOS-PCC file with the {@link MappedPPCReader}, and how to
+ * write them into a new DOS-PCC file with the {@link BufferedPPCWriter}.
+ * <p>
+ * The file to read can be passed as argument, by default the example file with two MT103 preceded by their ACK is used.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * Message at 1 of 423 bytes: 103 DET 12/13/3724
+ * Message at 495 of 475 bytes: 103 DET 12/13/3754
+ * Total messages: 2
+ * Written 1024 bytes to /tmp/test.dos
+ * </pre>
+ */
+public class ReadWriteDOSPCCFileExample {
+
+    public static void main(String[] args) throws IOException, URISyntaxException {
+        File file = args.length > 0 ? new File(args[0])
+                : new File(ReadWriteDOSPCCFileExample.class.getResource("/mt103.dos").toURI());
+        File output = new File("/tmp/test.dos");
+
+        AckEnvelope ack = new AckEnvelope();
+        int count = 0;
+        try (MappedPPCReader reader = new MappedPPCReader(file);
+             BufferedPPCWriter writer = new BufferedPPCWriter(output)) {
+            for (MessageSlice slice : reader) {
+                /*
+                 * The messages in the example file are preceded by their ACK, the envelope splits the ACK and
+                 * the actual user message by offset, so only the user message is parsed
+                 */
+                SwiftMessage sm = ack.wrap(slice) ? ack.parseMessage() : slice.toSwiftMessage();
+                System.out.println("Message at " + slice.getPosition() + " of " + slice.length() + " bytes: "
+                        + sm.getType() + " " + sm.getBlock4().getTagValue("20"));
+
+                /*
+                 * The slice is written as is, with the DOS-PCC framing and padding
+                 */
+                writer.write(slice);
+                count++;
+            }
+        }
+        System.out.println("Total messages: " + count);
+        System.out.println("Written " + output.length() + " bytes to " + output);
+    }
+
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock2Input;
+import com.prowidesoftware.swift.model.SwiftBlock3;
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftBlockUser;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field;
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A message created once from a template and then refilled in place for every message to send, so the hot path
+ * of the message creation does not allocate blocks, tags nor fields.
+ * <p>
+ * Every tag of the template block 4 is a slot, identified by its position, whose value is replaced for each
+ * message with {@link #set(int, String)}, or through a reusable {@link Field} instance returned by
+ * {@link #field(int)}. Slots not needed in a message, such as optional fields, can be omitted. The sender and
+ * receiver can also be changed, the blocks 1 and 2 text is only created again when they change. If the template
+ * has a UETR, a new one is generated when the message is created and on every {@link #reset()}.
+ * <p>
+ * The FIN content is identical to the {@link SwiftMessage#message()} of the same message created with the model
+ * API, as in {@link MessageCreation1Example}, and it is written directly into a reusable buffer.
+ * <p>
+ * Instances are not thread safe, they are meant to be confined to a thread and reused from a {@link Pool}:
+ * <pre>
+ *     ReusableMessage.Pool pool = new ReusableMessage.Pool(template);
+ *     ...
+ *     try (ReusableMessage m = pool.acquire()) {
+ *         m.set(reference, "REF1").set(amount, "141031EUR1234,56");
+ *         writer.write(m.message());
+ *     }
+ * </pre>
+ */
+public class ReusableMessage implements AutoCloseable {
+
+    private final SwiftMessage message;
+    private final SwiftMessage headers = new SwiftMessage(false);
+    private final boolean uetr;
+    private final String block1;
+    private final String block2;
+    private final String trailer;
+    private final Tag[] slots;
+    private final String[] defaults;
+    private final Field[] fields;
+    private final Field[] defaultFields;
+    private final boolean[] bound;
+    private final boolean[] omitted;
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private final Pool pool;
+    private String header;
+    private boolean headersChanged;
+    private boolean idle;
+
+    /**
+     * @param template the message to copy, it is not modified
+     */
+    public ReusableMessage(AbstractMT template) {
+        this(Objects.requireNonNull(template, "template must not be null").message(), null);
+    }
+
+    /**
+     * @param template the message to copy, it is not modified
+     */
+    public ReusableMessage(SwiftMessage template) {
+        this(Objects.requireNonNull(template, "template must not be null").message(), null);
+    }
+
+    private ReusableMessage(String fin, Pool pool) {
+        try {
+            this.message = SwiftMessage.parse(fin);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.pool = pool;
+        headers.setBlock1(message.getBlock1());
+        headers.setBlock2(message.getBlock2());
+        uetr = message.getUETR() != null;
+        block1 = message.getBlock1() != null ? message.getBlock1().getBlockValue() : null;
+        block2 = message.getBlock2() != null ? message.getBlock2().getBlockValue() : null;
+
+        final SwiftMessage t = new SwiftMessage(false);
+        t.setBlock5(message.getBlock5());
+        if (message.getUserBlocks() != null) {
+            for (SwiftBlockUser block : message.getUserBlocks()) {
+                t.addUserBlock(block);
+            }
+        }
+        trailer = t.message();
+
+        final SwiftBlock4 b4 = message.getBlock4();
+        final List<Tag> tags = b4 != null ? b4.getTags() : List.of();
+        slots = tags.toArray(new Tag[0]);
+        defaults = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            defaults[i] = slots[i].getValue();
+        }
+        fields = new Field[slots.length];
+        defaultFields = new Field[slots.length];
+        bound = new boolean[slots.length];
+        omitted = new boolean[slots.length];
+        if (uetr) {
+            // the copy must not keep the UETR of the template
+            message.setUETR();
+        }
+    }
+
+    /**
+     * @param name the field name
+     * @return the position of the first tag with the name in the template block 4
+     * @throws IllegalArgumentException if the template does not contain the field
+     */
+    public int slot(String name) {
+        return slot(name, 0);
+    }
+
+    /**
+     * @param name       the field name
+     * @param occurrence zero based occurrence of the field, for repetitive fields
+     * @return the position of the tag in the template block 4
+     * @throws IllegalArgumentException if the template does not contain the occurrence of the field
+     */
+    public int slot(String name, int occurrence) {
+        int count = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].getName().equals(name) && count++ == occurrence) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("field " + name + " occurrence " + occurrence + " not found in template");
+    }
+
+    /**
+     * Sets the value of a slot, replacing any previous value or field set in it, and including it in the
+     * message if it was omitted.
+     *
+     * @param slot  position of the tag
+     * @param value the tag value
+     */
+    public ReusableMessage set(int slot, String value) {
+        slots[slot].setValue(value);
+        bound[slot] = false;
+        omitted[slot] = false;
+        return this;
+    }
+
+    /**
+     * Sets the value of the first tag with the name.
+     *
+     * @see #set(int, String)
+     */
+    public ReusableMessage set(String name, String value) {
+        return set(slot(name), value);
+    }
+
+    /**
+     * @return the current value of the slot
+     */
+    public String get(int slot) {
+        return bound[slot] ? fields[slot].getValue() : slots[slot].getValue();
+    }
+
+    /**
+     * Returns the field instance of a slot, with the current value of the slot, to set its components with the
+     * field API. The instance is created once and reused for all messages, and its value is written when the
+     * message is serialized.
+     *
+     * @param slot position of the tag
+     * @param <T>  the field class for the tag name
+     * @return the field of the slot
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Field> T field(int slot) {
+        if (fields[slot] == null) {
+            fields[slot] = Field.getField(slots[slot]);
+        } else if (!bound[slot]) {
+            restore(slot);
+        }
+        bound[slot] = true;
+        omitted[slot] = false;
+        return (T) fields[slot];
+    }
+
+    /**
+     * Returns the field instance of the first tag with the name.
+     *
+     * @see #field(int)
+     */
+    public <T extends Field> T field(String name) {
+        return field(slot(name));
+    }
+
+    /**
+     * Sets the components of the slot field from its value, copying them from a field parsed once when the value
+     * is the template one, which is the common case after a reset
+     */
+    private void restore(int slot) {
+        final String value = slots[slot].getValue();
+        if (value == defaults[slot]) {
+            if (defaultFields[slot] == null) {
+                defaultFields[slot] = Field.getField(slots[slot]);
+            }
+            final List<String> components = fields[slot].getComponents();
+            final List<String> template = defaultFields[slot].getComponents();
+            if (components.size() == template.size()) {
+                Collections.copy(components, template);
+                return;
+            }
+        }
+        fields[slot].parse(value);
+    }
+
+    /**
+     * Excludes a slot from the message, until its value is set again or the message is reset.
+     *
+     * @param slot position of the tag
+     */
+    public ReusableMessage omit(int slot) {
+        omitted[slot] = true;
+        return this;
+    }
+
+    /**
+     * Excludes the first tag with the name from the message.
+     *
+     * @see #omit(int)
+     */
+    public ReusableMessage omit(String name) {
+        return omit(slot(name));
+    }
+
+    /**
+     * @param sender the sender BIC, as in {@link AbstractMT#setSender(String)}
+     */
+    public ReusableMessage setSender(String sender) {
+        message.getBlock1().setSender(sender);
+        headersChanged = true;
+        header = null;
+        return this;
+    }
+
+    /**
+     * @param receiver the receiver BIC, as in {@link AbstractMT#setReceiver(String)}
+     */
+    public ReusableMessage setReceiver(String receiver) {
+        if (message.getBlock2().isInput()) {
+            ((SwiftBlock2Input) message.getBlock2()).setReceiver(receiver);
+        }
+        headersChanged = true;
+        header = null;
+        return this;
+    }
+
+    /**
+     * @param uetr the unique end-to-end transaction reference, field 121 of block 3
+     */
+    public ReusableMessage setUETR(String uetr) {
+        message.setUETR(uetr);
+        return this;
+    }
+
+    /**
+     * Restores the values, sender and receiver of the template, and generates a new UETR if the template has one.
+     */
+    public ReusableMessage reset() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i].setValue(defaults[i]);
+        }
+        Arrays.fill(bound, false);
+        Arrays.fill(omitted, false);
+        if (headersChanged) {
+            message.getBlock1().setValue(block1);
+            message.getBlock2().setValue(block2);
+            headersChanged = false;
+            header = null;
+        }
+        if (uetr) {
+            message.setUETR();
+        }
+        return this;
+    }
+
+    /**
+     * Writes the FIN content of the message.
+     *
+     * @param out the buffer where the message is appended
+     * @return the buffer
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        if (header == null) {
+            header = headers.message();
+        }
+        out.append(header);
+        final SwiftBlock3 b3 = message.getBlock3();
+        if (b3 != null && !b3.isEmpty()) {
+            out.append("{3:");
+            final List<Tag> tags = b3.getTags();
+            for (int i = 0; i < tags.size(); i++) {
+                final Tag tag = tags.get(i);
+                out.append('{').append(tag.getName()).append(':');
+                if (tag.getValue() != null) {
+                    out.append(tag.getValue());
+                }
+                out.append('}');
+            }
+            out.append('}');
+        }
+        final int start = out.length();
+        out.append("{4:\r\n");
+        boolean empty = true;
+        for (int i = 0; i < slots.length; i++) {
+            if (!omitted[i]) {
+                FinWriter.appendTag(out, slots[i].getName(), bound[i] ? fields[i].getValue() : slots[i].getValue());
+                empty = false;
+            }
+        }
+        if (empty) {
+            out.setLength(start);
+        } else {
+            out.append("-}");
+        }
+        return out.append(trailer);
+    }
+
+    /**
+     * @return the FIN content of the message
+     */
+    public String message() {
+        buffer.setLength(0);
+        return appendTo(buffer).toString();
+    }
+
+    /**
+     * Returns the message to the pool it was acquired from, it must not be used afterwards. Closing a message not
+     * acquired from a pool has no effect.
+     */
+    @Override
+    public void close() {
+        if (pool != null && !idle) {
+            idle = true;
+            pool.release(this);
+        }
+    }
+
+    /**
+     * Pool of messages created from the same template, where each thread keeps its own idle instances so they
+     * are reused without synchronization.
+     */
+    public static class Pool {
+        private final String template;
+        private final int maxIdle;
+        private final ThreadLocal<ArrayDeque<ReusableMessage>> idle = ThreadLocal.withInitial(ArrayDeque::new);
+
+        /**
+         * @param template the message to copy, it is not modified
+         */
+        public Pool(AbstractMT template) {
+            this(template, 4);
+        }
+
+        /**
+         * @param template the message to copy, it is not modified
+         * @param maxIdle  maximum number of idle instances kept by each thread
+         */
+        public Pool(AbstractMT template, int maxIdle) {
+            this.template = Objects.requireNonNull(template, "template must not be null").message();
+            this.maxIdle = maxIdle;
+        }
+
+        /**
+         * @return an idle message of the calling thread, reset to the template values, or a new one if none is
+         * available
+         */
+        public ReusableMessage acquire() {
+            ReusableMessage m = idle.get().poll();
+            if (m == null) {
+                return new ReusableMessage(template, this);
+            }
+            m.idle = false;
+            return m.reset();
+        }
+
+        private void release(ReusableMessage m) {
+            final ArrayDeque<ReusableMessage> queue = idle.get();
+            if (queue.size() < maxIdle) {
+                queue.push(m);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftTagListBlock;
+import com.prowidesoftware.swift.model.Tag;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Boundaries of the 16R/16S sequences of a block 4, found in a single pass over its tags, as used in the
+ * securities messages such as the MT537, MT548 or MT54x.
+ * <p>
+ * Each sequence, at any nesting level, is recorded with the position of its 16R and 16S tags, its parent and its
+ * nested sequences, and can be retrieved by name or by path in constant time. The content of a sequence is a view
+ * over the indexed tag list, {@link Sequence#getTags()} and {@link Sequence#asBlock()} do not copy any tag; so
+ * where the MT getters such as {@code MT537.getSequenceDList()} scan the block and create new lists on each call,
+ * the index is built once and then the sequences are just offsets into the block.
+ * <p>
+ * The views are not valid after the indexed list changes: a new index is needed, or use
+ * {@link IndexedSwiftBlock4#getSequenceIndex()} that rebuilds it when needed. A 16S closes the innermost open
+ * sequence with the same name; the sequences without a matching 16S are not indexed, and their nested sequences
+ * are moved to the enclosing one.
+ */
+public class SequenceIndex {
+
+    private static final String START = "16R";
+    private static final String END = "16S";
+
+    private final List<Tag> tags;
+    private final List<Sequence> all;
+    private final List<Sequence> topLevel;
+    private final Map<String, List<Sequence>> byName = new HashMap<>();
+
+    private SequenceIndex(List<Tag> tags, List<Sequence> all, List<Sequence> topLevel) {
+        this.tags = tags;
+        this.all = Collections.unmodifiableList(all);
+        this.topLevel = Collections.unmodifiableList(topLevel);
+        for (Sequence sequence : all) {
+            byName.computeIfAbsent(sequence.name, k -> new ArrayList<>()).add(sequence);
+        }
+    }
+
+    /**
+     * @param block the block to index
+     * @return the sequences of the block tags
+     */
+    public static SequenceIndex of(SwiftTagListBlock block) {
+        Objects.requireNonNull(block, "block must not be null");
+        return of(block.getTags() != null ? block.getTags() : Collections.emptyList());
+    }
+
+    /**
+     * @param tags the tags to index, the list is referenced by the sequence views
+     * @return the sequences of the tags
+     */
+    public static SequenceIndex of(List<Tag> tags) {
+        Objects.requireNonNull(tags, "tags must not be null");
+        final List<Sequence> all = new ArrayList<>();
+        final List<Sequence> topLevel = new ArrayList<>();
+        final Deque<Sequence> open = new ArrayDeque<>();
+        for (int i = 0; i < tags.size(); i++) {
+            final Tag tag = tags.get(i);
+            if (tag == null || tag.getValue() == null) {
+                continue;
+            }
+            if (START.equals(tag.getName())) {
+                open.push(new Sequence(tags, tag.getValue(), i));
+            } else if (END.equals(tag.getName()) && isOpen(open, tag.getValue())) {
+                Sequence sequence = open.pop();
+                while (!sequence.name.equals(tag.getValue())) {
+                    discard(sequence, open, topLevel);
+                    sequence = open.pop();
+                }
+                sequence.end = i + 1;
+                sequence.parent = open.peek();
+                (sequence.parent != null ? sequence.parent.children : topLevel).add(sequence);
+                all.add(sequence);
+            }
+        }
+        while (!open.isEmpty()) {
+            discard(open.pop(), open, topLevel);
+        }
+        final Comparator<Sequence> byStart = Comparator.comparingInt(s -> s.start);
+        all.sort(byStart);
+        topLevel.sort(byStart);
+        for (Sequence sequence : all) {
+            sequence.children.sort(byStart);
+        }
+        return new SequenceIndex(tags, all, topLevel);
+    }
+
+    private static boolean isOpen(Deque<Sequence> open, String name) {
+        for (Sequence sequence : open) {
+            if (sequence.name.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the nested sequences of an unclosed sequence to its enclosing sequence
+     */
+    private static void discard(Sequence sequence, Deque<Sequence> open, List<Sequence> topLevel) {
+        final Sequence parent = open.peek();
+        for (Sequence child : sequence.children) {
+            child.parent = parent;
+        }
+        (parent != null ? parent.children : topLevel).addAll(sequence.children);
+    }
+
+    /**
+     * @return the indexed tags
+     */
+    public List<Tag> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return all the sequences at any nesting level, in order of their start
+     */
+    public List<Sequence> getSequences() {
+        return all;
+    }
+
+    /**
+     * @return the sequences not nested in other sequences, in order
+     */
+    public List<Sequence> getTopLevelSequences() {
+        return topLevel;
+    }
+
+    /**
+     * @param name the sequence name, the value of its 16R, for example PENA
+     * @return the sequences with the name at any nesting level, in order, or an empty list
+     */
+    public List<Sequence> getSequences(String name) {
+        final List<Sequence> result = byName.get(name);
+        return result != null ? Collections.unmodifiableList(result) : Collections.emptyList();
+    }
+
+    /**
+     * @param name the sequence name
+     * @return the first sequence with the name at any nesting level, or null if not found
+     */
+    public Sequence getSequence(String name) {
+        final List<Sequence> result = byName.get(name);
+        return result != null ? result.get(0) : null;
+    }
+
+    /**
+     * Finds the sequences by their names from the top level, for example "PENA", "PENACUR" for the sequences
+     * D1 of the MT537.
+     *
+     * @param path the names of the top level sequence and its nested sequences
+     * @return the matching sequences in order, or an empty list
+     */
+    public List<Sequence> getSequencesByPath(String... path) {
+        List<Sequence> current = topLevel;
+        for (int i = 0; i < path.length && !current.isEmpty(); i++) {
+            final List<Sequence> matching = new ArrayList<>();
+            for (Sequence sequence : i == 0 ? current : children(current)) {
+                if (sequence.name.equals(path[i])) {
+                    matching.add(sequence);
+                }
+            }
+            current = matching;
+        }
+        return current;
+    }
+
+    private static List<Sequence> children(List<Sequence> sequences) {
+        final List<Sequence> result = new ArrayList<>();
+        for (Sequence sequence : sequences) {
+            result.addAll(sequence.children);
+        }
+        return result;
+    }
+
+    /**
+     * A sequence of the indexed tags, from its 16R to its 16S tags both included
+     */
+    public static final class Sequence {
+        private final List<Tag> tags;
+        private final String name;
+        private final int start;
+        private int end;
+        private Sequence parent;
+        private final List<Sequence> children = new ArrayList<>();
+
+        private Sequence(List<Tag> tags, String name, int start) {
+            this.tags = tags;
+            this.name = name;
+            this.start = start;
+        }
+
+        /**
+         * @return the sequence name, the value of its 16R
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return position of the 16R tag in the indexed tags
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return position after the 16S tag in the indexed tags
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * @return number of tags including the 16R and 16S
+         */
+        public int size() {
+            return end - start;
+        }
+
+        /**
+         * @return the enclosing sequence, or null for a top level sequence
+         */
+        public Sequence getParent() {
+            return parent;
+        }
+
+        /**
+         * @return the sequences directly nested in this sequence, in order
+         */
+        public List<Sequence> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * @param name the sequence name
+         * @return the sequences with the name directly nested in this sequence, in order
+         */
+        public List<Sequence> getChildren(String name) {
+            final List<Sequence> result = new ArrayList<>();
+            for (Sequence child : children) {
+                if (child.name.equals(name)) {
+                    result.add(child);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return the sequence tags, from the 16R to the 16S, as a view of the indexed tags
+         */
+        public List<Tag> getTags() {
+            return tags.subList(start, end);
+        }
+
+        /**
+         * @return the sequence tags as a block over a view of the indexed tags, as returned by the MT sequence
+         * getters but without copying the tags
+         */
+        public SwiftTagListBlock asBlock() {
+            return new SwiftTagListBlock(getTags());
+        }
+
+        @Override
+        public String toString() {
+            return name + "[" + start + ", " + end + ")";
+        }
+    }
+
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Cursor over the statement lines of a raw MT940, MT942 or MT950, reading each field 61 with its following field
+ * 86 directly from the FIN content, without parsing the message nor creating any object per line.
+ * <p>
+ * The components of the current line, named as in {@link com.prowidesoftware.swift.model.field.Field61}, are
+ * returned as {@link CharSequence} views over the content, and the amount as an unscaled long with its scale, so
+ * that iterating a statement does not allocate. Each getter always returns the same view instance, updated on
+ * every call to {@link #next()}; call {@code toString()} on it to keep its value. A view can be compared without
+ * allocation with {@link String#contentEquals(CharSequence)}, for example {@code "TRF".contentEquals(getIdentificationCode())}.
+ * <p>
+ * The content can be a String or a {@link MessageSlice} over undecoded bytes, and can be the whole message or just
+ * its block 4. The lines are not validated, missing components are returned as empty views. Example:
+ * <pre>
+ *     StatementLineCursor cursor = new StatementLineCursor(fin);
+ *     while (cursor.next()) {
+ *         long amount = cursor.getAmountUnscaled();
+ *         int scale = cursor.getAmountScale();
+ *         CharSequence description = cursor.getInformationToAccountOwner();
+ *     }
+ * </pre>
+ * The cursor can be reused for other messages with {@link #reset(CharSequence)}. It is not thread safe.
+ */
+public class StatementLineCursor {
+
+    private CharSequence fin;
+    private int position;
+    private int end;
+    private int count;
+
+    private int tagStart;
+    private int valueStart;
+    private int valueEnd;
+
+    private final View statementLine = new View();
+    private final View valueDate = new View();
+    private final View entryDate = new View();
+    private final View debitCreditMark = new View();
+    private final View fundsCode = new View();
+    private final View amount = new View();
+    private final View transactionType = new View();
+    private final View identificationCode = new View();
+    private final View referenceForTheAccountOwner = new View();
+    private final View referenceOfTheAccountServicingInstitution = new View();
+    private final View supplementaryDetails = new View();
+    private final View informationToAccountOwner = new View();
+    private long amountUnscaled;
+    private int amountScale;
+    private int lineStart;
+
+    /**
+     * @param fin the message content, or its block 4
+     */
+    public StatementLineCursor(CharSequence fin) {
+        reset(fin);
+    }
+
+    /**
+     * Moves the cursor to the start of another message.
+     *
+     * @param fin the message content, or its block 4
+     * @return this cursor
+     */
+    public StatementLineCursor reset(CharSequence fin) {
+        this.fin = Objects.requireNonNull(fin, "fin must not be null");
+        this.count = 0;
+        this.lineStart = -1;
+        int i = FinScanner.skipBlanks(fin, 0);
+        while (i < fin.length() && fin.charAt(i) == '{' && !FinScanner.startsWith(fin, i, "{4:")) {
+            i = FinScanner.skipBlanks(fin, FinScanner.blockEnd(fin, i));
+        }
+        if (FinScanner.startsWith(fin, i, "{4:")) {
+            this.end = FinScanner.textBlockEnd(fin, i) - 2;
+            this.position = i + 3;
+        } else {
+            this.position = i;
+            this.end = FinScanner.indexOf(fin, "-}", i, fin.length());
+            if (this.end < 0) {
+                this.end = fin.length();
+            }
+        }
+        if (this.end < this.position) {
+            this.end = this.position;
+        }
+        return this;
+    }
+
+    /**
+     * Moves to the next statement line.
+     *
+     * @return true if there is a field 61, false at the end of the message
+     */
+    public boolean next() {
+        while (nextTag()) {
+            if (isTag("61")) {
+                final int start = tagStart;
+                final int vs = valueStart;
+                final int ve = valueEnd;
+                final int following = position;
+                if (nextTag() && isTag("86")) {
+                    informationToAccountOwner.set(fin, valueStart, valueEnd);
+                } else {
+                    informationToAccountOwner.set(fin, 0, 0);
+                    position = following;
+                }
+                lineStart = start;
+                statementLine.set(fin, vs, ve);
+                parse61(vs, ve);
+                count++;
+                return true;
+            }
+        }
+        lineStart = -1;
+        return false;
+    }
+
+    /**
+     * @return number of statement lines read
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return position of the current field 61 in the content, or -1 if there is no current line
+     */
+    public int getPosition() {
+        return lineStart;
+    }
+
+    /**
+     * @return the whole field 61 value, including the supplementary details line if present
+     */
+    public CharSequence getStatementLine() {
+        return statementLine;
+    }
+
+    /**
+     * @return the value date, YYMMDD
+     */
+    public CharSequence getValueDate() {
+        return valueDate;
+    }
+
+    /**
+     * @return the entry date, MMDD, or an empty view
+     */
+    public CharSequence getEntryDate() {
+        return entryDate;
+    }
+
+    /**
+     * @return the debit/credit mark: C, D, RC, RD, or EC, ED in the MT942
+     */
+    public CharSequence getDebitCreditMark() {
+        return debitCreditMark;
+    }
+
+    /**
+     * @return true for the debits, marks D and ED, and the reversals of credits RC
+     */
+    public boolean isDebit() {
+        return isDebit(debitCreditMark);
+    }
+
+    /**
+     * @param mark a debit/credit mark, such as the one of a {@link com.prowidesoftware.swift.model.field.Field61}
+     * @return true for the debits, marks D and ED, and the reversals of credits RC
+     */
+    public static boolean isDebit(CharSequence mark) {
+        final int length = mark != null ? mark.length() : 0;
+        if (length == 0) {
+            return false;
+        }
+        final char last = mark.charAt(length - 1);
+        return length > 1 && mark.charAt(0) == 'R' ? last == 'C' : last == 'D';
+    }
+
+    /**
+     * @return the funds code, the third character of the currency code, or an empty view
+     */
+    public CharSequence getFundsCode() {
+        return fundsCode;
+    }
+
+    /**
+     * @return the amount as written in the field, with decimal comma
+     */
+    public CharSequence getAmount() {
+        return amount;
+    }
+
+    /**
+     * @return the amount digits as a number, to be divided by 10 to the power of {@link #getAmountScale()}
+     */
+    public long getAmountUnscaled() {
+        return amountUnscaled;
+    }
+
+    /**
+     * @return number of decimal digits of the amount
+     */
+    public int getAmountScale() {
+        return amountScale;
+    }
+
+    /**
+     * Creates a BigDecimal with the amount, the only getter that allocates.
+     *
+     * @return the amount
+     */
+    public BigDecimal getAmountAsBigDecimal() {
+        return BigDecimal.valueOf(amountUnscaled, amountScale);
+    }
+
+    /**
+     * @return the transaction type, N, F or S
+     */
+    public CharSequence getTransactionType() {
+        return transactionType;
+    }
+
+    /**
+     * @return the identification code, for example TRF
+     */
+    public CharSequence getIdentificationCode() {
+        return identificationCode;
+    }
+
+    /**
+     * @return the reference for the account owner
+     */
+    public CharSequence getReferenceForTheAccountOwner() {
+        return referenceForTheAccountOwner;
+    }
+
+    /**
+     * @return the reference of the account servicing institution, or an empty view
+     */
+    public CharSequence getReferenceOfTheAccountServicingInstitution() {
+        return referenceOfTheAccountServicingInstitution;
+    }
+
+    /**
+     * @return the supplementary details, in the second line of the field, or an empty view
+     */
+    public CharSequence getSupplementaryDetails() {
+        return supplementaryDetails;
+    }
+
+    /**
+     * @return the value of the field 86 following the field 61, with its line breaks as in the content, or an
+     * empty view if the line has no field 86
+     */
+    public CharSequence getInformationToAccountOwner() {
+        return informationToAccountOwner;
+    }
+
+    /**
+     * Splits the field 61 value into its components
+     */
+    private void parse61(int from, int to) {
+        int lineEnd = from;
+        while (lineEnd < to && fin.charAt(lineEnd) != '\r' && fin.charAt(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        int i = from;
+        i = component(valueDate, i, Math.min(i + 6, lineEnd));
+        i = component(entryDate, i, digits(i, lineEnd) >= 4 ? i + 4 : i);
+        final boolean twoLetters = i < lineEnd && (fin.charAt(i) == 'R' || fin.charAt(i) == 'E');
+        i = component(debitCreditMark, i, Math.min(i + (twoLetters ? 2 : 1), lineEnd));
+        i = component(fundsCode, i, i < lineEnd && isLetter(fin.charAt(i)) ? i + 1 : i);
+
+        int amountEnd = i;
+        long unscaled = 0;
+        int scale = -1;
+        while (amountEnd < lineEnd) {
+            final char c = fin.charAt(amountEnd);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == ',' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+            amountEnd++;
+        }
+        amountUnscaled = unscaled;
+        amountScale = Math.max(scale, 0);
+        i = component(amount, i, amountEnd);
+        i = component(transactionType, i, Math.min(i + 1, lineEnd));
+        i = component(identificationCode, i, Math.min(i + 3, lineEnd));
+
+        final int slashes = FinScanner.indexOf(fin, "//", i, lineEnd);
+        if (slashes >= 0) {
+            referenceForTheAccountOwner.set(fin, i, slashes);
+            referenceOfTheAccountServicingInstitution.set(fin, slashes + 2, lineEnd);
+        } else {
+            referenceForTheAccountOwner.set(fin, i, lineEnd);
+            referenceOfTheAccountServicingInstitution.set(fin, lineEnd, lineEnd);
+        }
+
+        int details = lineEnd;
+        if (details < to && fin.charAt(details) == '\r') {
+            details++;
+        }
+        if (details < to && fin.charAt(details) == '\n') {
+            details++;
+        }
+        supplementaryDetails.set(fin, details, to);
+    }
+
+    private int component(View view, int from, int to) {
+        view.set(fin, from, to);
+        return to;
+    }
+
+    private int digits(int from, int to) {
+        int i = from;
+        while (i < to && fin.charAt(i) >= '0' && fin.charAt(i) <= '9') {
+            i++;
+        }
+        return i - from;
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private boolean isTag(String name) {
+        return valueStart - tagStart == name.length() + 2 && FinScanner.startsWith(fin, tagStart + 1, name);
+    }
+
+    /**
+     * Finds the next tag from the current position, setting its name and value ranges
+     *
+     * @return false if there are no more tags
+     */
+    private boolean nextTag() {
+        int i = position;
+        while (i < end && !isTagStart(i)) {
+            i = lineAfter(i);
+        }
+        if (i >= end) {
+            position = end;
+            return false;
+        }
+        tagStart = i;
+        valueStart = nameEnd(i) + 1;
+        i = valueStart;
+        int next = end;
+        while (i < end) {
+            i = lineAfter(i);
+            if (i < end && isTagStart(i)) {
+                next = i;
+                break;
+            }
+        }
+        int ve = next;
+        while (ve > valueStart && (fin.charAt(ve - 1) == '\n' || fin.charAt(ve - 1) == '\r')) {
+            ve--;
+        }
+        valueEnd = ve;
+        position = next;
+        return true;
+    }
+
+    /**
+     * @return the start of the line following the index
+     */
+    private int lineAfter(int i) {
+        while (i < end && fin.charAt(i) != '\n') {
+            i++;
+        }
+        return i + 1;
+    }
+
+    /**
+     * @return true if a tag, :NN: or :NNa:, starts at the index
+     */
+    private boolean isTagStart(int i) {
+        return fin.charAt(i) == ':' && nameEnd(i) > 0;
+    }
+
+    /**
+     * @return the index of the colon closing the tag name, or -1 if there is no tag name at the index
+     */
+    private int nameEnd(int i) {
+        if (i + 3 >= end || !isDigit(fin.charAt(i + 1)) || !isDigit(fin.charAt(i + 2))) {
+            return -1;
+        }
+        if (fin.charAt(i + 3) == ':') {
+            return i + 3;
+        }
+        return i + 4 < end && isLetter(fin.charAt(i + 3)) && fin.charAt(i + 4) == ':' ? i + 4 : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reusable view over a region of the content
+     */
+    private static final class View implements CharSequence {
+        private CharSequence source = "";
+        private int start;
+        private int end;
+
+        void set(CharSequence source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = Math.max(start, end);
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("index " + index + " out of range for length " + (end - start));
+            }
+            return source.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of range for length " + (end - start));
+            }
+            return source.subSequence(start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return FinScanner.text(source, start, end);
+        }
+    }
+
+}
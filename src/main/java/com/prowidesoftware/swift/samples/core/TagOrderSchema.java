@@ -0,0 +1,351 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftMessage;
+import com.prowidesoftware.swift.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order of the block 4 fields of a message type, compiled from a structure description such as the one in
+ * {@link MT202SortTagsExample}, to sort the tags of a message according to the specification.
+ * <p>
+ * Each field of the structure is a line with the field number, R if repetitive or _ otherwise, the letter options
+ * separated by comma, and optionally the sequence name, for example {@code "52;_;A,D"} or {@code "59;_;,A,F;B"}
+ * where the empty option stands for the field without letter. The description is parsed once into a table indexed
+ * by field number and letter option, so sorting a message is a single pass over its tags to find their position
+ * in the structure plus a counting sort, with no string processing.
+ * <p>
+ * The sort is stable: repeated fields keep their relative order. A field present in more than one sequence, such
+ * as 52a in the MT202COV, is assigned to the sequence of the preceding field, or else to the first sequence where
+ * it is not present yet. Tags not found in the structure are kept after the sorted fields, in their original order.
+ * <p>
+ * The schemas for the MT103, MT202, MT202COV and MT205 are available with {@link #of(String)} and created only
+ * once. Instances are immutable and can be shared between threads.
+ */
+public class TagOrderSchema {
+
+    private static final int LETTERS = 27;
+    private static final int KEYS = 100 * LETTERS;
+
+    private static final Map<String, List<String>> STRUCTURES = new HashMap<>();
+    private static final Map<String, TagOrderSchema> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        STRUCTURES.put("103", Arrays.asList(
+                "20;_;",
+                "13;R;C",
+                "23;_;B",
+                "23;R;E",
+                "26;_;T",
+                "32;_;A",
+                "33;_;B",
+                "36;_;",
+                "50;_;A,F,K",
+                "51;_;A",
+                "52;_;A,D",
+                "53;_;A,B,D",
+                "54;_;A,B,D",
+                "55;_;A,B,D",
+                "56;_;A,C,D",
+                "57;_;A,B,C,D",
+                "59;_;,A,F",
+                "70;_;",
+                "71;_;A",
+                "71;R;F",
+                "71;_;G",
+                "72;_;",
+                "77;_;B",
+                "77;_;T"));
+        final List<String> mt202 = Arrays.asList(
+                "20;_;",
+                "21;_;",
+                "13;R;C",
+                "32;_;A",
+                "52;_;A,D",
+                "53;_;A,B,D",
+                "54;_;A,B,D",
+                "56;_;A,D",
+                "57;_;A,B,D",
+                "58;_;A,D",
+                "72;_;");
+        STRUCTURES.put("202", mt202);
+        final List<String> mt202cov = new ArrayList<>(mt202);
+        mt202cov.addAll(Arrays.asList(
+                "50;_;A,F,K;B",
+                "52;_;A,D;B",
+                "56;_;A,C,D;B",
+                "57;_;A,B,C,D;B",
+                "59;_;,A,F;B",
+                "70;_;;B",
+                "72;_;;B",
+                "33;_;B;B"));
+        STRUCTURES.put("202COV", mt202cov);
+        STRUCTURES.put("205", Arrays.asList(
+                "20;_;",
+                "21;_;",
+                "13;R;C",
+                "32;_;A",
+                "52;_;A,D",
+                "53;_;A,B,D",
+                "56;_;A,D",
+                "57;_;A,B,D",
+                "58;_;A,D",
+                "72;_;"));
+    }
+
+    /**
+     * Position in the structure of each field number and letter option, null for the fields not in the structure
+     */
+    private final int[][] slotsByKey = new int[KEYS][];
+    private final int[] sequenceBySlot;
+    private final boolean[] repetitiveBySlot;
+    private boolean multiSequenceFields = false;
+
+    private TagOrderSchema(int[] sequenceBySlot, boolean[] repetitiveBySlot) {
+        this.sequenceBySlot = sequenceBySlot;
+        this.repetitiveBySlot = repetitiveBySlot;
+    }
+
+    /**
+     * Gets the cached schema of a message type.
+     *
+     * @param messageType the message type number, with the COV suffix for the cover variants, for example 202COV
+     * @return the schema or null if the message type is not supported
+     */
+    public static TagOrderSchema of(String messageType) {
+        Objects.requireNonNull(messageType, "messageType must not be null");
+        if (!STRUCTURES.containsKey(messageType)) {
+            return null;
+        }
+        return CACHE.computeIfAbsent(messageType, type -> compile(STRUCTURES.get(type)));
+    }
+
+    /**
+     * @return the structure description of a supported message type, or null
+     */
+    static List<String> structure(String messageType) {
+        return STRUCTURES.get(messageType);
+    }
+
+    /**
+     * Gets the cached schema of a message, the cover variant for a message with the validation flag COV.
+     *
+     * @param message the message
+     * @return the schema or null if the message type is not supported
+     */
+    public static TagOrderSchema of(SwiftMessage message) {
+        Objects.requireNonNull(message, "message must not be null");
+        final String type = message.getType();
+        if (type == null) {
+            return null;
+        }
+        return of(message.isCOV() ? type + "COV" : type);
+    }
+
+    /**
+     * Compiles a structure description, the result should be kept and reused.
+     *
+     * @param structure the fields in order, as described in the class documentation
+     * @return the compiled schema
+     * @throws IllegalArgumentException if a field description is invalid
+     */
+    public static TagOrderSchema compile(List<String> structure) {
+        Objects.requireNonNull(structure, "structure must not be null");
+        final int[] sequences = new int[structure.size()];
+        final boolean[] repetitive = new boolean[structure.size()];
+        final TagOrderSchema schema = new TagOrderSchema(sequences, repetitive);
+        final List<String> sequenceNames = new ArrayList<>();
+        for (int slot = 0; slot < structure.size(); slot++) {
+            final String fieldDesc = structure.get(slot);
+            final String[] parts = fieldDesc.split(";");
+            final String sequence = parts.length > 3 ? parts[3] : "";
+            if (!sequenceNames.contains(sequence)) {
+                sequenceNames.add(sequence);
+            }
+            sequences[slot] = sequenceNames.indexOf(sequence);
+            repetitive[slot] = parts.length > 1 && "R".equals(parts[1]);
+            final String[] letterOptions = parts.length > 2 ? parts[2].split(",", -1) : new String[]{""};
+            for (String letterOption : letterOptions) {
+                final int key = key(parts[0] + letterOption);
+                if (key < 0) {
+                    throw new IllegalArgumentException("invalid field description: " + fieldDesc);
+                }
+                final int[] slots = schema.slotsByKey[key];
+                if (slots == null) {
+                    schema.slotsByKey[key] = new int[]{slot};
+                } else {
+                    final int[] extended = Arrays.copyOf(slots, slots.length + 1);
+                    extended[slots.length] = slot;
+                    schema.slotsByKey[key] = extended;
+                    schema.multiSequenceFields = true;
+                }
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Sorts the tags of the message block 4, with the schema of its message type.
+     *
+     * @param message the message to sort
+     * @return true if the tags were reordered, false if they were already sorted, the message has no block 4 or
+     * its type is not supported
+     */
+    public static boolean sortTags(SwiftMessage message) {
+        final TagOrderSchema schema = of(message);
+        return schema != null && message.getBlock4() != null && schema.sort(message.getBlock4());
+    }
+
+    /**
+     * Sorts the tags of the block in place.
+     *
+     * @param block4 the block to sort
+     * @return true if the tags were reordered, false if they were already sorted
+     */
+    public boolean sort(SwiftBlock4 block4) {
+        Objects.requireNonNull(block4, "block4 must not be null");
+        final List<Tag> tags = block4.getTags();
+        final int[] slots = slots(tags);
+        if (isSorted(slots)) {
+            return false;
+        }
+        block4.setTags(sort(tags, slots));
+        return true;
+    }
+
+    /**
+     * @param tags the tags to sort, the list is not modified
+     * @return a new list with the tags sorted
+     */
+    public List<Tag> sort(List<Tag> tags) {
+        Objects.requireNonNull(tags, "tags must not be null");
+        return sort(tags, slots(tags));
+    }
+
+    /**
+     * @param tags the tags to check
+     * @return true if the tags are in the structure order and none is missing from the structure
+     */
+    public boolean isSorted(List<Tag> tags) {
+        Objects.requireNonNull(tags, "tags must not be null");
+        return isSorted(slots(tags));
+    }
+
+    private List<Tag> sort(List<Tag> tags, int[] slots) {
+        // counting sort, the last position counts the tags not found in the structure
+        final int[] start = new int[sequenceBySlot.length + 2];
+        for (int slot : slots) {
+            start[slot + 2]++;
+        }
+        for (int i = 2; i < start.length; i++) {
+            start[i] += start[i - 1];
+        }
+        final Tag[] sorted = new Tag[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            sorted[start[slots[i] + 1]++] = tags.get(i);
+        }
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    private boolean isSorted(int[] slots) {
+        final int unknown = sequenceBySlot.length;
+        int previous = 0;
+        for (int slot : slots) {
+            if (slot < previous || slot == unknown) {
+                return false;
+            }
+            previous = slot;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the position in the structure of each tag, with the number of fields for the tags not in it.
+     */
+    private int[] slots(List<Tag> tags) {
+        final int unknown = sequenceBySlot.length;
+        final int[] result = new int[tags.size()];
+        final boolean[] present = multiSequenceFields ? new boolean[unknown] : null;
+        int sequence = 0;
+        for (int i = 0; i < result.length; i++) {
+            final int key = key(tags.get(i).getName());
+            final int[] candidates = key < 0 ? null : slotsByKey[key];
+            if (candidates == null) {
+                result[i] = unknown;
+                continue;
+            }
+            final int slot = candidates.length > 1 ? select(candidates, sequence, present) : candidates[0];
+            if (present != null) {
+                present[slot] = true;
+            }
+            sequence = sequenceBySlot[slot];
+            result[i] = slot;
+        }
+        return result;
+    }
+
+    /**
+     * Selects the position of a field present in several sequences, the one in the current sequence if available,
+     * else the first one available, else the first one
+     */
+    private int select(int[] candidates, int sequence, boolean[] present) {
+        int firstAvailable = -1;
+        for (int slot : candidates) {
+            if (repetitiveBySlot[slot] || !present[slot]) {
+                if (sequenceBySlot[slot] == sequence) {
+                    return slot;
+                }
+                if (firstAvailable < 0) {
+                    firstAvailable = slot;
+                }
+            }
+        }
+        return firstAvailable >= 0 ? firstAvailable : candidates[0];
+    }
+
+    /**
+     * @return the index of a two digits field number with optional letter option, or -1 for other names
+     */
+    private static int key(String name) {
+        if (name == null || name.length() < 2 || name.length() > 3) {
+            return -1;
+        }
+        final char d1 = name.charAt(0);
+        final char d2 = name.charAt(1);
+        if (d1 < '0' || d1 > '9' || d2 < '0' || d2 > '9') {
+            return -1;
+        }
+        int letter = 0;
+        if (name.length() == 3) {
+            final char c = name.charAt(2);
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+            letter = c - 'A' + 1;
+        }
+        return ((d1 - '0') * 10 + (d2 - '0')) * LETTERS + letter;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field23B;
+import com.prowidesoftware.swift.model.field.Field32A;
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This example writes a large number of messages into an RJE file with the {@link BufferedRJEWriter}, in batches,
+ * and reports the throughput. The elapsed time includes the creation of the messages.
+ * <p>
+ * The number of messages can be passed as argument, 100000 by default.
+ * <p>
+ * Running this program produces an output similar to:
+ * <pre>
+ * Written 100000 messages in 100 batches and 5137 ms
+ * 15466885 bytes, 3010834 bytes/s, 19466 messages/s
+ * Messages read back: 100000
+ * </pre>
+ */
+public class WriteBufferedRJEFileExample {
+
+    private static final int BATCH_SIZE = 1000;
+
+    public static void main(String[] args) throws IOException {
+        final int total = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        final File file = new File("/tmp/test.rje");
+
+        /*
+         * The content is forced to the disk after each batch, and written at least every second when the
+         * messages are produced slowly
+         */
+        BufferedRJEWriter writer = new BufferedRJEWriter(file)
+                .setFsyncPolicy(BufferedRJEWriter.FsyncPolicy.PER_BATCH)
+                .setFlushInterval(1, TimeUnit.SECONDS);
+
+        int batches = 0;
+        try {
+            List<MT103> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < total; i++) {
+                batch.add(createMT103(i));
+                if (batch.size() == BATCH_SIZE || i == total - 1) {
+                    writer.writeBatch(batch);
+                    batch.clear();
+                    batches++;
+                }
+            }
+        } finally {
+            writer.close();
+        }
+
+        System.out.println("Written " + writer.getMessageCount() + " messages in " + batches + " batches and " + writer.getElapsedMillis() + " ms");
+        System.out.println(writer.getByteCount() + " bytes, " + Math.round(writer.getBytesPerSecond()) + " bytes/s, "
+                + Math.round(writer.getMessagesPerSecond()) + " messages/s");
+
+        int count = 0;
+        try (MappedRJEReader reader = new MappedRJEReader(file)) {
+            while (reader.hasNext()) {
+                reader.next();
+                count++;
+            }
+        }
+        System.out.println("Messages read back: " + count);
+    }
+
+    private static MT103 createMT103(int i) {
+        final MT103 m = new MT103();
+        m.setSender("FOOSEDR0AXXX");
+        m.setReceiver("FOORECV0XXXX");
+        m.addField(new Field20("REF" + i));
+        m.addField(new Field23B("CRED"));
+        m.addField(new Field32A()
+                .setDate(Calendar.getInstance())
+                .setCurrency("EUR")
+                .setAmount(BigDecimal.valueOf(i, 2)));
+        return m;
+    }
+
+}
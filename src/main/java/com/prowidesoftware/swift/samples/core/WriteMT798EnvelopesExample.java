@@ -0,0 +1,104 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.mt.AbstractMT;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT700;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT760;
+import com.prowidesoftware.swift.model.mt.mt7xx.MT798;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This example wraps a batch of trade finance messages into MT798 envelopes with the {@link MT798EnvelopeBuilder},
+ * writing the envelopes directly into an RJE file, as a high volume alternative to the model API used in
+ * {@link MessageCreationMT798Example}.
+ * <p>
+ * Running this program produces the following output:
+ * <pre>
+ * Written 2 envelopes, 513 bytes
+ * MT798 WRAP000001 with MT760 from AAAADEM0AXXX
+ * MT798 WRAP000002 with MT700 from PTSAUSDDAXXX
+ * </pre>
+ */
+public class WriteMT798EnvelopesExample {
+
+    public static void main(String[] args) throws IOException {
+        List<AbstractMT> subMessages = Arrays.asList(
+                MT760.parse("{1:F01AAAADEM0AXXX0000000000}{2:I760BBBBITRRXMCEN2020}{4:\n" +
+                        ":27A:2/2\n" +
+                        ":21A:2201091711320000\n" +
+                        ":15A:\n" +
+                        ":27:1/1\n" +
+                        ":22A:ISSU\n" +
+                        ":15B:\n" +
+                        ":20:Bla Blah\n" +
+                        ":30:250109\n" +
+                        ":22D:DGAR\n" +
+                        ":40C:ISPR\n" +
+                        ":23B:FIXD\n" +
+                        ":31E:250109\n" +
+                        ":35G:If things happen\n" +
+                        ":50:Mr. App\n" +
+                        "This Way\n" +
+                        "Our City\n" +
+                        ":59:Mr. Bene\n" +
+                        "In Road\n" +
+                        ":32B:USD23456789,\n" +
+                        ":24E:MAIL\n" +
+                        "-}"),
+                MT700.parse("{1:F01PTSAUSDDXXXX0000000000}{2:I700PTSAUSDDXXXXU1005}{4:\n" +
+                        ":27A:2/2\n" +
+                        ":21A:AA2015-99\n" +
+                        ":27:1/1\n" +
+                        ":40A:IRREVOCABLE\n" +
+                        ":20:FOOI102794\n" +
+                        ":31C:150827\n" +
+                        "-}"));
+
+        /*
+         * The envelope references are taken from a sequence, the envelope fields 12 and 77E and the headers are
+         * set by the builder
+         */
+        AtomicInteger sequence = new AtomicInteger();
+        MT798EnvelopeBuilder builder = new MT798EnvelopeBuilder(mt -> String.format("WRAP%06d", sequence.incrementAndGet()));
+
+        File file = File.createTempFile("mt798", ".rje");
+        file.deleteOnExit();
+        long count;
+        try (BufferedRJEWriter writer = new BufferedRJEWriter(file)) {
+            count = builder.write(subMessages.iterator(), writer);
+        }
+        System.out.println("Written " + count + " envelopes, " + file.length() + " bytes");
+
+        /*
+         * Read the envelopes back
+         */
+        try (MappedRJEReader reader = new MappedRJEReader(file)) {
+            while (reader.hasNext()) {
+                MT798 mt798 = (MT798) reader.nextMT();
+                MT798View view = new MT798View(mt798);
+                System.out.println("MT798 " + view.getField20().getValue() + " with MT" + view.getSubMessageType()
+                        + " from " + view.getSubMessageMT().getSender());
+            }
+        }
+    }
+
+}
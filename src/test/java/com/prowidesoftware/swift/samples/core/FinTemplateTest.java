@@ -0,0 +1,228 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field21;
+import com.prowidesoftware.swift.model.field.Field23B;
+import com.prowidesoftware.swift.model.field.Field32A;
+import com.prowidesoftware.swift.model.field.Field50K;
+import com.prowidesoftware.swift.model.field.Field58A;
+import com.prowidesoftware.swift.model.field.Field59;
+import com.prowidesoftware.swift.model.field.Field70;
+import com.prowidesoftware.swift.model.field.Field71A;
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+import com.prowidesoftware.swift.model.mt.mt2xx.MT202;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FinTemplateTest {
+
+    private static final String UETR = "4ea37e81-98ec-4014-b7a4-1ff4611b3fca";
+
+    /**
+     * MT103 with the reference also repeated in field 70, and multi-line 50K and 59
+     */
+    private static FinTemplate mt103Template() {
+        MT103 m = new MT103("FOOSEDR0AXXX", "FOORECV0XXXX");
+        m.getSwiftMessage().setUETR("${uetr}");
+        m.append(Field20.tag("${reference}"));
+        m.append(Field23B.tag("CRED"));
+        m.append(Field32A.tag("${date}${currency}${amount}"));
+        m.append(Field50K.tag("/${orderingAccount}\n${orderingName}"));
+        m.append(Field59.tag("/${account}\n${name}"));
+        m.append(Field70.tag("/INV/${reference}"));
+        m.append(Field71A.tag("${charges}"));
+        return new FinTemplate(m);
+    }
+
+    private static MT103 mt103(String reference, LocalDate date, String currency, BigDecimal amount,
+                               String orderingAccount, String orderingName, String account, String name, String charges) {
+        MT103 m = new MT103("FOOSEDR0AXXX", "FOORECV0XXXX");
+        m.getSwiftMessage().setUETR(UETR);
+        m.addField(new Field20(reference));
+        m.addField(new Field23B("CRED"));
+        m.addField(new Field32A().setDate(calendar(date)).setCurrency(currency).setAmount(amount));
+        m.addField(new Field50K().setAccount(orderingAccount).setNameAndAddress(orderingName));
+        m.addField(new Field59().setAccount(account).setNameAndAddress(name));
+        m.addField(new Field70("/INV/" + reference));
+        m.addField(new Field71A(charges));
+        return m;
+    }
+
+    private static FinTemplate.Writer fill(FinTemplate template, String reference, LocalDate date, String currency,
+                                           BigDecimal amount, String orderingAccount, String orderingName,
+                                           String account, String name, String charges) {
+        return template.writer()
+                .set(template.slot("uetr"), UETR)
+                .set(template.slot("reference"), reference)
+                .setDate(template.slot("date"), date)
+                .set(template.slot("currency"), currency)
+                .setAmount(template.slot("amount"), amount)
+                .set(template.slot("orderingAccount"), orderingAccount)
+                .set(template.slot("orderingName"), orderingName)
+                .set(template.slot("account"), account)
+                .set(template.slot("name"), name)
+                .set(template.slot("charges"), charges);
+    }
+
+    private static GregorianCalendar calendar(LocalDate date) {
+        return GregorianCalendar.from(date.atStartOfDay(ZoneId.systemDefault()));
+    }
+
+    @Test
+    void testMT103SingleLine() {
+        LocalDate date = LocalDate.of(2014, 10, 31);
+        BigDecimal amount = new BigDecimal("1234567.89");
+        MT103 expected = mt103("REFERENCE1", date, "EUR", amount, "12345678901234567890", "FOO CORP",
+                "98765432109876543210", "JOE DOE", "OUR");
+        FinTemplate.Writer writer = fill(mt103Template(), "REFERENCE1", date, "EUR", amount, "12345678901234567890",
+                "FOO CORP", "98765432109876543210", "JOE DOE", "OUR");
+        assertEquals(expected.message(), writer.toString());
+    }
+
+    @Test
+    void testMT103MultiLine() {
+        LocalDate date = LocalDate.of(2023, 1, 5);
+        BigDecimal amount = new BigDecimal("500");
+        String orderingName = "FOO CORP\nMAIN STREET 1\nNEW YORK";
+        String name = "JANE DOE\r\nELM STREET 2\r\nBOSTON";
+        MT103 expected = mt103("REF2", date, "USD", amount, "111", orderingName, "222", name, "SHA");
+        FinTemplate.Writer writer = fill(mt103Template(), "REF2", date, "USD", amount, "111", orderingName, "222",
+                name, "SHA");
+        assertEquals(expected.message(), writer.toString());
+    }
+
+    @Test
+    void testMT103Random() {
+        FinTemplate template = mt103Template();
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            LocalDate date = LocalDate.of(2000 + random.nextInt(30), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(100000000), random.nextInt(4));
+            String orderingName = random.nextBoolean() ? "FOO" : "FOO\nSTREET " + i;
+            String name = random.nextBoolean() ? "JOE DOE" : "JANE DOE\nMAIN STREET 1\nNEW YORK";
+            MT103 expected = mt103("REF" + i, date, "EUR", amount, "A" + i, orderingName, "B" + i, name, "OUR");
+            FinTemplate.Writer writer = fill(template, "REF" + i, date, "EUR", amount, "A" + i, orderingName, "B" + i,
+                    name, "OUR");
+            assertEquals(expected.message(), writer.toString(), "message " + i);
+        }
+    }
+
+    @Test
+    void testMT202() {
+        MT202 m = new MT202("FOOSEDR0AXXX", "FOORECV0XXXX");
+        m.getSwiftMessage().setUETR("${uetr}");
+        m.append(Field20.tag("${reference}"));
+        m.append(Field21.tag("${related}"));
+        m.append(Field32A.tag("${date}EUR${amount}"));
+        m.append(Field58A.tag("${beneficiary}"));
+        FinTemplate template = new FinTemplate(m);
+        FinTemplate.Writer writer = template.writer();
+
+        long[][] amounts = {{300000, 2}, {123456789, 2}, {5, 1}, {0, 0}, {1000, 0}, {1050, 3}};
+        for (long[] amount : amounts) {
+            MT202 expected = new MT202("FOOSEDR0AXXX", "FOORECV0XXXX");
+            expected.getSwiftMessage().setUETR(UETR);
+            expected.addField(new Field20("REF1"));
+            expected.addField(new Field21("REL1"));
+            expected.addField(new Field32A().setDate(calendar(LocalDate.of(2019, 8, 27))).setCurrency("EUR")
+                    .setAmount(BigDecimal.valueOf(amount[0], (int) amount[1])));
+            expected.addField(new Field58A().setAccount("12345").setBIC("BENEFXXXXXX"));
+
+            writer.set(template.slot("uetr"), UETR)
+                    .set(template.slot("reference"), "REF1")
+                    .set(template.slot("related"), "REL1")
+                    .setDate(template.slot("date"), LocalDate.of(2019, 8, 27))
+                    .setAmount(template.slot("amount"), amount[0], (int) amount[1])
+                    .set(template.slot("beneficiary"), "/12345\nBENEFXXXXXX");
+            assertEquals(expected.message(), writer.toString(), Arrays.toString(amount));
+        }
+    }
+
+    @Test
+    void testAmounts() {
+        FinTemplate template = new FinTemplate("${amount}", null);
+        FinTemplate.Writer writer = template.writer();
+        assertEquals("1234567,89", writer.setAmount(0, new BigDecimal("1234567.89")).toString());
+        assertEquals("3000,", writer.setAmount(0, new BigDecimal("3000.00")).toString());
+        assertEquals("3000,", writer.setAmount(0, new BigDecimal("3E+3")).toString());
+        assertEquals("0,5", writer.setAmount(0, new BigDecimal("0.50")).toString());
+        assertEquals("0,", writer.setAmount(0, BigDecimal.ZERO).toString());
+        assertEquals("100,1", writer.setAmount(0, 10010, 2).toString());
+        assertEquals("0,05", writer.setAmount(0, 5, 2).toString());
+        assertEquals("7,", writer.setAmount(0, 7, 0).toString());
+        assertThrows(IllegalArgumentException.class, () -> writer.setAmount(0, new BigDecimal("-1")));
+        assertThrows(IllegalArgumentException.class, () -> writer.setAmount(0, 1, -1));
+    }
+
+    @Test
+    void testRepeatedPlaceholder() {
+        FinTemplate template = new FinTemplate("{4:\r\n:20:${ref}\r\n:21:${ref}\r\n-}", null);
+        assertEquals(1, template.getSlotNames().size());
+        assertEquals("{4:\r\n:20:A\r\n:21:A\r\n-}", template.writer().set("ref", "A").toString());
+    }
+
+    @Test
+    void testMissingSlot() {
+        FinTemplate template = mt103Template();
+        FinTemplate.Writer writer = template.writer().set("reference", "REF");
+        assertThrows(IllegalStateException.class, writer::toString);
+        assertThrows(IllegalArgumentException.class, () -> template.slot("unknown"));
+        assertThrows(IllegalArgumentException.class, () -> new FinTemplate("{4:\r\n:20:${ref\r\n-}", null));
+    }
+
+    @Test
+    void testClearAndReuse() {
+        FinTemplate template = new FinTemplate(":20:${ref}", null);
+        FinTemplate.Writer writer = template.writer().set("ref", "A");
+        assertEquals(":20:A", writer.toString());
+        writer.clear();
+        assertThrows(IllegalStateException.class, writer::toString);
+        assertEquals(":20:B", writer.set("ref", "B").toString());
+    }
+
+    @Test
+    void testOutputs() throws IOException {
+        LocalDate date = LocalDate.of(2014, 10, 31);
+        BigDecimal amount = new BigDecimal("10.5");
+        byte[] expected = mt103("R", date, "EUR", amount, "1", "FOO", "2", "BAR", "OUR").message()
+                .getBytes(StandardCharsets.UTF_8);
+        FinTemplate.Writer writer = fill(mt103Template(), "R", date, "EUR", amount, "1", "FOO", "2", "BAR", "OUR");
+
+        assertArrayEquals(expected, writer.toByteArray());
+        assertEquals(expected.length, writer.length());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        assertArrayEquals(expected, out.toByteArray());
+        assertEquals(new String(expected, StandardCharsets.UTF_8), writer.toSlice().toString());
+    }
+
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2006-2023 Prowide
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.prowidesoftware.swift.samples.core;
+
+import com.prowidesoftware.swift.model.SwiftBlock4;
+import com.prowidesoftware.swift.model.SwiftBlock5;
+import com.prowidesoftware.swift.model.SwiftBlockUser;
+import com.prowidesoftware.swift.model.Tag;
+import com.prowidesoftware.swift.model.field.Field20;
+import com.prowidesoftware.swift.model.field.Field23B;
+import com.prowidesoftware.swift.model.field.Field32A;
+import com.prowidesoftware.swift.model.field.Field50A;
+import com.prowidesoftware.swift.model.field.Field59;
+import com.prowidesoftware.swift.model.field.Field70;
+import com.prowidesoftware.swift.model.field.Field71A;
+import com.prowidesoftware.swift.model.mt.mt1xx.MT103;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReusableMessageTest {
+
+    private static final String UETR = "4ea37e81-98ec-4014-b7a4-1ff4611b3fca";
+
+    private static MT103 template() {
+        MT103 m = new MT103("FOOSEDR0AXXX", "FOORECV0XXXX");
+        m.getSwiftMessage().setUETR(UETR);
+        m.addField(new Field20("REFERENCE"));
+        m.addField(new Field23B("CRED"));
+        m.addField(new Field32A("141031EUR0,"));
+        m.addField(new Field50A().setAccount("12345678901234567890").setBIC("FOOBANKXXXXX"));
+        m.addField(new Field59().setAccount("ACCOUNT").setNameAndAddress("NAME"));
+        m.addField(new Field70("REMITTANCE"));
+        m.addField(new Field71A("OUR"));
+        return m;
+    }
+
+    /**
+     * Copy of the template with the UETR, to apply the same changes as in the reusable message with the model API
+     */
+    private static MT103 expected(MT103 template, String uetr) {
+        MT103 m = MT103.parse(template.message());
+        m.getSwiftMessage().setUETR(uetr);
+        return m;
+    }
+
+    private static String uetr(String fin) {
+        int start = fin.indexOf("{121:") + 5;
+        return fin.substring(start, fin.indexOf('}', start));
+    }
+
+    @Test
+    void testTemplate() {
+        MT103 template = template();
+        ReusableMessage m = new ReusableMessage(template).setUETR(UETR);
+        assertEquals(template.message(), m.message());
+        assertEquals(template.message(), m.appendTo(new StringBuilder()).toString());
+    }
+
+    @Test
+    void testSet() {
+        MT103 template = template();
+        ReusableMessage m = new ReusableMessage(template).setUETR(UETR);
+        m.set(Field20.NAME, "REFERENCE1").set(m.slot(Field70.NAME), "INVOICE 1\nLINE 2");
+
+        MT103 expected = expected(template, UETR);
+        SwiftBlock4 b4 = expected.getSwiftMessage().getBlock4();
+        b4.getTagByName(Field20.NAME).setValue("REFERENCE1");
+        b4.getTagByName(Field70.NAME).setValue("INVOICE 1\nLINE 2");
+        assertEquals(expected.message(), m.message());
+        assertEquals("REFERENCE1", m.get(m.slot(Field20.NAME)));
+    }
+
+    @Test
+    void testField() {
+        MT103 template = template();
+        ReusableMessage m = new ReusableMessage(template).setUETR(UETR);
+        m.<Field32A>field(Field32A.NAME).setCurrency("USD").setAmount("1000,");
+        m.<Field59>field(Field59.NAME).setAccount("98765432109876543210").setNameAndAddressLine1("JANE DOE");
+
+        MT103 expected = expected(template, UETR);
+        SwiftBlock4 b4 = expected.getSwiftMessage().getBlock4();
+        b4.getTagByName(Field32A.NAME).setValue(new Field32A("141031EUR0,").setCurrency("USD").setAmount("1000,").getValue());
+        b4.getTagByName(Field59.NAME).setValue(new Field59().setAccount("98765432109876543210").setNameAndAddressLine1("JANE DOE").getValue());
+        assertEquals(expected.message(), m.message());
+
+        // a set value replaces the field value
+        m.set(Field32A.NAME, "141031EUR5,");
+        b4.getTagByName(Field32A.NAME).setValue("141031EUR5,");
+        assertEquals(expected.message(), m.message());
+    }
+
+    @Test
+    void testOmit() {
+        MT103 template = template();
+        ReusableMessage m = new ReusableMessage(template).setUETR(UETR).omit(Field70.NAME);
+
+        MT103 expected = expected(template, UETR);
+        expected.getSwiftMessage().getBlock4().removeTag(Field70.NAME);
+        assertEquals(expected.message(), m.message());
+
+        // setting the value includes the slot again
+        m.set(Field70.NAME, "INVOICE");
+        assertEquals(expected(template, UETR).message().replace(":70:REMITTANCE", ":70:INVOICE"), m.message());
+    }
+
+    @Test
+    void testSenderAndReceiver() {
+        MT103 template = template();
+        ReusableMessage m = new ReusableMessage(template).setUETR(UETR)
+                .setSender("BARSEDR0AXXX")
+                .setReceiver("BARRECV0XXXX");
+
+        MT103 expected = expected(template, UETR);
+        expected.setSender("BARSEDR0AXXX");
+        expected.setReceiver("BARRECV0XXXX");
+        assertEquals(expected.message(), m.message());
+    }
+
+    @Test
+    void testReset() {
+        MT103 template = template();
+        ReusableMessage m = new ReusableMessage(template).setUETR(UETR)
+                .setReceiver("BARRECV0XXXX")
+                .set(Field20.NAME, "REFERENCE1")
+                .omit(Field70.NAME);
+        m.<Field32A>field(Field32A.NAME).setAmount("1,");
+        m.message();
+
+        String fin = m.reset().message();
+        String uetr = uetr(fin);
+        assertNotEquals(UETR, uetr);
+        assertEquals(expected(template, uetr).message(), fin);
+
+        // the field is restored to the template value
+        assertEquals("141031EUR0,", m.field(Field32A.NAME).getValue());
+    }
+
+    @Test
+    void testRandom() {
+        MT103 template = template();
+        ReusableMessage m = new ReusableMessage(template);
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            m.reset().setUETR(UETR).set(Field20.NAME, "REF" + i);
+            MT103 expected = expected(template, UETR);
+            SwiftBlock4 b4 = expected.getSwiftMessage().getBlock4();
+            b4.getTagByName(Field20.NAME).setValue("REF" + i);
+            if (random.nextBoolean()) {
+                m.setReceiver("BARRECV0XXXX");
+                expected.setReceiver("BARRECV0XXXX");
+            }
+            if (random.nextBoolean()) {
+                String amount = random.nextInt(100000) + "," + random.nextInt(100);
+                m.<Field32A>field(Field32A.NAME).setAmount(amount);
+                b4.getTagByName(Field32A.NAME).setValue(new Field32A("141031EUR0,").setAmount(amount).getValue());
+            }
+            if (random.nextBoolean()) {
+                m.omit(Field70.NAME);
+                b4.removeTag(Field70.NAME);
+            } else if (random.nextBoolean()) {
+                m.set(Field70.NAME, "INVOICE " + i + "\nLINE 2");
+                b4.getTagByName(Field70.NAME).setValue("INVOICE " + i + "\nLINE 2");
+            }
+            assertEquals(expected.message(), m.message(), "message " + i);
+        }
+    }
+
+    @Test
+    void testBlocks3And5() {
+        MT103 template = template();
+        template.getSwiftMessage().getBlock3().append(new Tag("108", "MUR123"));
+        template.getSwiftMessage().getBlock3().append(new Tag("119", "STP"));
+        SwiftBlock5 b5 = new SwiftBlock5();
+        b5.append(new Tag("CHK", "123456789ABC"));
+        b5.append(new Tag("TNG", ""));
+        template.getSwiftMessage().setBlock5(b5);
+        SwiftBlockUser user = new SwiftBlockUser("S");
+        user.append(new Tag("SAC", ""));
+        template.getSwiftMessage().addUserBlock(user);
+
+        ReusableMessage m = new ReusableMessage(template).setUETR(UETR).set(Field20.NAME, "REFERENCE1");
+        MT103 expected = expected(template, UETR);
+        expected.getSwiftMessage().getBlock4().getTagByName(Field20.NAME).setValue("REFERENCE1");
+        assertEquals(expected.message(), m.message());
+        assertTrue(m.message().contains("{108:MUR123}"));
+        assertTrue(m.message().endsWith("{5:{CHK:123456789ABC}{TNG:}}{S:{SAC:}}"));
+
+        // the UETR changes on reset and the other block 3 fields are kept
+        String fin = m.reset().message();
+        assertEquals(expected(template, uetr(fin)).message(), fin);
+    }
+
+    @Test
+    void testWithoutUETR() {
+        MT103 template = template();
+        template.getSwiftMessage().getBlock3().removeTag("121");
+        ReusableMessage m = new ReusableMessage(template);
+        assertEquals(template.message(), m.message());
+        assertEquals(template.message(), m.reset().message());
+    }
+
+    @Test
+    void testSlots() {
+        ReusableMessage m = new ReusableMessage(template());
+        assertEquals(0, m.slot(Field20.NAME));
+        assertEquals(6, m.slot(Field71A.NAME));
+        assertThrows(IllegalArgumentException.class, () -> m.slot("72"));
+        assertThrows(IllegalArgumentException.class, () -> m.slot(Field20.NAME, 1));
+    }
+
+    @Test
+    void testNewUETR() {
+        MT103 template = template();
+        assertNotEquals(UETR, uetr(new ReusableMessage(template).message()));
+
+        ReusableMessage.Pool pool = new ReusableMessage.Pool(template);
+        Set<String> uetrs = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            try (ReusableMessage m = pool.acquire()) {
+                uetrs.add(uetr(m.message()));
+            }
+        }
+        assertEquals(10, uetrs.size());
+        assertFalse(uetrs.contains(UETR));
+    }
+
+    @Test
+    void testPool() {
+        ReusableMessage.Pool pool = new ReusableMessage.Pool(template(), 1);
+        ReusableMessage first = pool.acquire();
+        ReusableMessage second = pool.acquire();
+        assertNotSame(first, second);
+        first.set(Field20.NAME, "REFERENCE1").setReceiver("BARRECV0XXXX");
+        first.close();
+        first.close();
+        second.close();
+
+        // the idle instance is reused, reset to the template values
+        ReusableMessage m = pool.acquire();
+        assertSame(first, m);
+        String fin = m.message();
+        assertEquals(expected(template(), uetr(fin)).message(), fin);
+        assertNotSame(m, pool.acquire());
+    }
+
+    @Test
+    void testPoolThreads() throws InterruptedException {
+        ReusableMessage.Pool pool = new ReusableMessage.Pool(template());
+        Set<String> uetrs = ConcurrentHashMap.newKeySet();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        int messages = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < messages; i++) {
+            executor.execute(() -> {
+                try (ReusableMessage m = pool.acquire()) {
+                    uetrs.add(uetr(m.message()));
+                } catch (RuntimeException e) {
+                    errors.add(e);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertTrue(errors.isEmpty(), errors::toString);
+        assertEquals(messages, uetrs.size());
+    }
+
+}